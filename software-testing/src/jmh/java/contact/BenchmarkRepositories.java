@@ -0,0 +1,62 @@
+package contact;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Builds the repositories the benchmarks compare, by name.
+//
+// ArrayContactRepository is left out: its 100 contact ceiling rules
+// out every size the benchmarks use.
+final class BenchmarkRepositories {
+
+    private BenchmarkRepositories() {}
+
+    // Creates a repository with room for at least capacity contacts
+    static ContactRepository create(String kind, int capacity) {
+        switch (kind) {
+            case "hash":
+                return new HashContactRepository();
+            case "concurrent":
+                return new ConcurrentContactRepository();
+            case "mapped":
+                return new MappedContactRepository(capacity);
+            case "snapshot":
+                return new SnapshotContactRepository();
+            case "sharded":
+                return new ShardedContactRepository();
+            case "jdbc":
+                // Embedded in-memory H2; measures JDBC and SQL, not disk
+                return new JdbcContactRepository("jdbc:h2:mem:bench" + System.nanoTime());
+            case "log":
+                // Interval mode; per-write fsync would measure the disk
+                return new LogContactRepository(tempFile("contacts", ".log"), 5);
+            default:
+                throw new IllegalArgumentException("Unknown repository " + kind);
+        }
+    }
+
+    // Releases files or memory held by the repository
+    static void close(ContactRepository repo) throws Exception {
+        if (repo instanceof AutoCloseable) {
+            ((AutoCloseable) repo).close();
+        }
+    }
+
+    // Valid contact with an ID made of prefix and i
+    static Contact contact(String prefix, int i) {
+        return new Contact(prefix + i, "First" + (i % 100), "Last" + (i % 1000),
+                String.format("%010d", i), i + " Benchmark Street");
+    }
+
+    private static Path tempFile(String prefix, String suffix) {
+        try {
+            Path file = Files.createTempFile(prefix, suffix);
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
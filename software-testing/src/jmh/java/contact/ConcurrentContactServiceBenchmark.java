@@ -0,0 +1,104 @@
+package contact;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Multi-threaded ContactService operations on the thread-safe repositories.
+//
+// All threads share one service. Reads and updates spread over the
+// preloaded contacts; each thread adds and deletes its own IDs so
+// writers never collide on duplicates.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ConcurrentContactServiceBenchmark {
+
+    @Param({"concurrent", "sharded", "snapshot", "mapped", "log"})
+    public String repository;
+
+    @Param({"100000"})
+    public int size;
+
+    private ContactRepository repo;
+    private ContactService service;
+    private String[] ids;
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    // Per-thread cursor and private IDs for writes
+    @State(Scope.Thread)
+    public static class Worker {
+        Contact[] extra;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentContactServiceBenchmark shared) {
+            String prefix = "T" + shared.threadIds.getAndIncrement() + "-";
+            extra = new Contact[1024];
+            for (int i = 0; i < extra.length; i++) {
+                extra[i] = BenchmarkRepositories.contact(prefix, i);
+            }
+            next = extra.length * 31 % shared.size;
+        }
+
+        int nextIndex(int bound) {
+            if (++next >= bound) {
+                next = 0;
+            }
+            return next;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repo = BenchmarkRepositories.create(repository, size * 2);
+        service = new ContactService(repo);
+        ids = new String[size];
+        for (int i = 0; i < size; i++) {
+            Contact contact = BenchmarkRepositories.contact("ID", i);
+            service.addContact(contact);
+            ids[i] = contact.getContactId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        BenchmarkRepositories.close(repo);
+    }
+
+    @Benchmark
+    public Contact getContactById(Worker worker) {
+        return service.getContactById(ids[worker.nextIndex(size)]);
+    }
+
+    @Benchmark
+    public void updateContact(Worker worker) {
+        int i = worker.nextIndex(size);
+        service.updateContact(ids[i], (i & 1) == 0 ? "Even" : "Odd", null, null, null);
+    }
+
+    @Benchmark
+    public void addAndDeleteContact(Worker worker) {
+        Contact contact = worker.extra[worker.nextIndex(worker.extra.length)];
+        service.addContact(contact);
+        service.deleteContact(contact.getContactId());
+    }
+}
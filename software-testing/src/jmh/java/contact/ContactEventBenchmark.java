@@ -0,0 +1,95 @@
+package contact;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of publishing change events from ContactService writes.
+//
+// subscribers = -1 runs without a bus, the baseline; 0 publishes into a
+// bus nobody reads; higher counts add subscribers that only count.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactEventBenchmark {
+
+    @Param({"-1", "0", "1", "4"})
+    public int subscribers;
+
+    private static final int SIZE = 10_000;
+
+    private ContactEventBus bus;
+    private ContactService service;
+    private String[] ids;
+    private Contact[] extra;
+    private int next;
+    private volatile long seen;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (subscribers >= 0) {
+            bus = new ContactEventBus();
+            for (int i = 0; i < subscribers; i++) {
+                bus.subscribe("bench-" + i, this::count);
+            }
+        }
+        service = new ContactService(new ConcurrentContactRepository(), bus);
+        ids = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            Contact contact = BenchmarkRepositories.contact("ID", i);
+            service.addContact(contact);
+            ids[i] = contact.getContactId();
+        }
+        extra = new Contact[1024];
+        for (int i = 0; i < extra.length; i++) {
+            extra[i] = BenchmarkRepositories.contact("X", i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (bus != null) {
+            bus.close();
+        }
+    }
+
+    private void count(List<ContactEvent> events) {
+        seen += events.size();
+    }
+
+    private int nextIndex(int bound) {
+        if (++next >= bound) {
+            next = 0;
+        }
+        return next;
+    }
+
+    @Benchmark
+    public void updateContact() {
+        int i = nextIndex(SIZE);
+        service.updateContact(ids[i], (i & 1) == 0 ? "Even" : "Odd", null, null, null);
+    }
+
+    @Benchmark
+    public void addAndDeleteContact() {
+        Contact contact = extra[nextIndex(extra.length)];
+        service.addContact(contact);
+        service.deleteContact(contact.getContactId());
+    }
+}
@@ -0,0 +1,127 @@
+package contact;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Local load test of ContactHttpServer over loopback.
+//
+// Each JMH thread is one java.net.http client with its own keep-alive
+// connection. Throughput in ops/ms times 1000 is requests per second
+// (addAndDeleteContact makes two per op), and SampleTime reports the p50
+// and p99 round-trip latency. Raise the load with -t; handler threads
+// are set with -p handlers. The fork enables TCP_NODELAY, as
+// ContactHttpServer asks of its JVM.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Dsun.net.httpserver.nodelay=true")
+@Threads(4)
+@State(Scope.Benchmark)
+public class ContactHttpBenchmark {
+
+    @Param({"8"})
+    public int handlers;
+
+    @Param({"10000"})
+    public int size;
+
+    private ContactService service;
+    private ContactHttpServer server;
+    private String base;
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    // One client connection and private IDs per thread
+    @State(Scope.Thread)
+    public static class Client {
+        HttpClient http;
+        String prefix;
+        int next;
+        int size;
+
+        @Setup(Level.Trial)
+        public void setUp(ContactHttpBenchmark shared) {
+            http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            prefix = "T" + shared.threadIds.getAndIncrement() + "-";
+            size = shared.size;
+            next = prefix.hashCode() & 0xffff;
+        }
+
+        int nextIndex() {
+            if (++next >= size) {
+                next = 0;
+            }
+            return next;
+        }
+
+        int send(HttpRequest request) throws Exception {
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        service = new ContactService(new ConcurrentContactRepository());
+        for (int i = 0; i < size; i++) {
+            service.addContact(BenchmarkRepositories.contact("ID", i));
+        }
+        server = new ContactHttpServer(service, new InetSocketAddress("127.0.0.1", 0), handlers);
+        base = "http://127.0.0.1:" + server.getPort() + "/contacts";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    private static String json(Contact contact) {
+        return "{\"contactId\":\"" + contact.getContactId() + "\",\"firstName\":\""
+                + contact.getFirstName() + "\",\"lastName\":\"" + contact.getLastName()
+                + "\",\"phoneNumber\":\"" + contact.getPhoneNumber() + "\",\"address\":\""
+                + contact.getAddress() + "\"}";
+    }
+
+    @Benchmark
+    public int getContact(Client client) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(base + "/ID" + client.nextIndex()))
+                .build());
+    }
+
+    @Benchmark
+    public int updateContact(Client client) throws Exception {
+        int i = client.nextIndex();
+        String body = (i & 1) == 0 ? "{\"firstName\":\"Even\"}" : "{\"firstName\":\"Odd\"}";
+        return client.send(HttpRequest.newBuilder(URI.create(base + "/ID" + i))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body)).build());
+    }
+
+    // One POST and one DELETE per call
+    @Benchmark
+    public int addAndDeleteContact(Client client) throws Exception {
+        Contact contact = BenchmarkRepositories.contact(client.prefix, client.nextIndex());
+        client.send(HttpRequest.newBuilder(URI.create(base))
+                .POST(HttpRequest.BodyPublishers.ofString(json(contact))).build());
+        return client.send(HttpRequest.newBuilder(URI.create(base + "/" + contact.getContactId()))
+                .DELETE().build());
+    }
+}
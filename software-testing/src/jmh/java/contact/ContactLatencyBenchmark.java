@@ -0,0 +1,91 @@
+package contact;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of ContactLatency instrumentation on ContactService calls.
+//
+// latency = off is the baseline; on times every call, and on/16 about
+// one call in 16. The difference to off is the per-call overhead of the
+// timestamps and histogram updates.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactLatencyBenchmark {
+
+    @Param({"off", "on", "on/16"})
+    public String latency;
+
+    private static final int SIZE = 10_000;
+
+    private ContactService service;
+    private String[] ids;
+    private Contact[] extra;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (latency.equals("on")) {
+            ContactLatency.enable();
+        } else if (latency.equals("on/16")) {
+            ContactLatency.enable(16);
+        }
+        service = new ContactService(new HashContactRepository());
+        ids = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            Contact contact = BenchmarkRepositories.contact("ID", i);
+            service.addContact(contact);
+            ids[i] = contact.getContactId();
+        }
+        extra = new Contact[1024];
+        for (int i = 0; i < extra.length; i++) {
+            extra[i] = BenchmarkRepositories.contact("X", i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ContactLatency.disable();
+    }
+
+    private int nextIndex(int bound) {
+        if (++next >= bound) {
+            next = 0;
+        }
+        return next;
+    }
+
+    @Benchmark
+    public Contact getContactById() {
+        return service.getContactById(ids[nextIndex(SIZE)]);
+    }
+
+    @Benchmark
+    public void updateContact() {
+        int i = nextIndex(SIZE);
+        service.updateContact(ids[i], (i & 1) == 0 ? "Even" : "Odd", null, null, null);
+    }
+
+    @Benchmark
+    public void addAndDeleteContact() {
+        Contact contact = extra[nextIndex(extra.length)];
+        service.addContact(contact);
+        service.deleteContact(contact.getContactId());
+    }
+}
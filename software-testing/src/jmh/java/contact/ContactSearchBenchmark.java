@@ -0,0 +1,81 @@
+package contact;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// ContactSearchIndex prefix and fuzzy queries for the top 10 matches
+// over contacts with generated names and addresses drawn from small
+// syllable sets, so terms repeat the way real names do.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ContactSearchBenchmark {
+
+    private static final String[] SYLLABLES = {
+        "an", "bel", "cor", "da", "el", "fin", "gar", "ha", "is", "jo",
+        "ka", "lin", "mar", "no", "or", "pe", "ra", "sto", "tin", "wen"};
+    private static final String[] STREETS = {"Street", "Road", "Avenue", "Lane", "Drive"};
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private ContactSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new ContactSearchIndex();
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            index.add(Contact.ofValidated(Integer.toString(i), name(random), name(random),
+                    "0000000000", random.nextInt(10000) + " " + name(random) + " "
+                            + STREETS[random.nextInt(STREETS.length)]));
+        }
+    }
+
+    private static String name(Random random) {
+        int syllables = 2 + random.nextInt(2);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    @Benchmark
+    public List<Contact> prefixShort() {
+        return index.searchByPrefix("ma", 10);
+    }
+
+    @Benchmark
+    public List<Contact> prefixLong() {
+        return index.searchByPrefix("marlinst", 10);
+    }
+
+    @Benchmark
+    public List<Contact> fuzzyTypo() {
+        return index.searchFuzzy("marlnisto", 10);
+    }
+
+    @Benchmark
+    public List<Contact> fuzzyMiss() {
+        return index.searchFuzzy("qqqqqqqq", 10);
+    }
+}
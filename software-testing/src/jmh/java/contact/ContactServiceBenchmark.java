@@ -0,0 +1,96 @@
+package contact;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Single-threaded ContactService operations across repositories and sizes.
+//
+// Each run preloads size contacts and cycles through them, so lookups
+// and updates always hit. addAndDeleteContact pairs the two writes to
+// keep the store at a steady size.
+//
+// Run with -prof gc to see allocation per operation.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactServiceBenchmark {
+
+    @Param({"hash", "concurrent", "mapped", "log", "jdbc"})
+    public String repository;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private ContactRepository repo;
+    private ContactService service;
+    private String[] ids;
+    private Contact[] extra;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repo = BenchmarkRepositories.create(repository, size * 2);
+        service = new ContactService(repo);
+        ids = new String[size];
+        for (int i = 0; i < size; i++) {
+            Contact contact = BenchmarkRepositories.contact("ID", i);
+            service.addContact(contact);
+            ids[i] = contact.getContactId();
+        }
+        extra = new Contact[1024];
+        for (int i = 0; i < extra.length; i++) {
+            extra[i] = BenchmarkRepositories.contact("X", i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        BenchmarkRepositories.close(repo);
+    }
+
+    private int nextIndex(int bound) {
+        if (++next >= bound) {
+            next = 0;
+        }
+        return next;
+    }
+
+    @Benchmark
+    public Contact getContactById() {
+        return service.getContactById(ids[nextIndex(size)]);
+    }
+
+    @Benchmark
+    public Contact getContactByIdMissing() {
+        return service.getContactById("MISSING");
+    }
+
+    @Benchmark
+    public void updateContact() {
+        int i = nextIndex(size);
+        service.updateContact(ids[i], (i & 1) == 0 ? "Even" : "Odd", null, null, null);
+    }
+
+    @Benchmark
+    public void addAndDeleteContact() {
+        Contact contact = extra[nextIndex(extra.length)];
+        service.addContact(contact);
+        service.deleteContact(contact.getContactId());
+    }
+}
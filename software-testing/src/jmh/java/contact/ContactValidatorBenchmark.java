@@ -0,0 +1,81 @@
+package contact;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// ContactValidator on valid and invalid input, comparing the
+// non-throwing checks with the throwing and stackless paths.
+// Invalid input uses a bad phone, the last field checked.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactValidatorBenchmark {
+
+    public String id = "ID12345";
+    public String firstName = "Bob";
+    public String lastName = "Smith";
+    public String phone = "1234567890";
+    public String badPhone = "123efg4567";
+    public String address = "8850 West Mayfield";
+
+    @Benchmark
+    public int checkAllValid() {
+        return ContactValidator.checkAll(id, firstName, lastName, phone, address);
+    }
+
+    @Benchmark
+    public int checkAllInvalid() {
+        return ContactValidator.checkAll(id, firstName, lastName, badPhone, address);
+    }
+
+    @Benchmark
+    public void validateAllValid() {
+        ContactValidator.validateAll(id, firstName, lastName, phone, address);
+    }
+
+    @Benchmark
+    public ValidationException validateAllInvalid() {
+        try {
+            ContactValidator.validateAll(id, firstName, lastName, badPhone, address);
+            return null;
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ValidationException requireValidInvalid() {
+        try {
+            ContactValidator.requireValid(
+                    ContactValidator.checkAll(id, firstName, lastName, badPhone, address));
+            return null;
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int checkAllValidContended() {
+        return ContactValidator.checkAll(id, firstName, lastName, phone, address);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ValidationException validateAllInvalidContended() {
+        return validateAllInvalid();
+    }
+}
@@ -1,5 +1,8 @@
 package contact;
 
+import java.util.Arrays;
+import java.util.Spliterator;
+
 // Array-backed repository for storing contacts
 public class ArrayContactRepository implements ContactRepository {
     private  static final int MAX_CONTACTS = 100;
@@ -42,6 +45,24 @@ public class ArrayContactRepository implements ContactRepository {
         return null;
     }
 
+    // Swaps in the replacement at the same index if expected is still stored
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        for (int i = 0; i < size; i++) {
+            if (contacts[i] == expected) {
+                contacts[i] = replacement;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Walks the occupied prefix of the array
+    @Override
+    public Spliterator<Contact> spliterator() {
+        return Arrays.spliterator(contacts, 0, size);
+    }
+
     // Deletes a contact by ID
     @Override
     public void deleteById(String contactId) {
@@ -0,0 +1,140 @@
+package contact;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Non-blocking front end for ContactService.
+//
+// Every call returns a CompletableFuture at once and runs on a lane: a
+// single worker thread with its own bounded queue. A contactId always
+// maps to the same lane, so operations on one ID run in the order they
+// were submitted, while different IDs spread over the lanes and run in
+// parallel.
+//
+// When a lane's queue is full the call does not block; its future
+// fails with RejectedExecutionException so callers can shed load or
+// retry later. Anything thrown by ContactService, from a
+// ValidationException to an Error, completes the future exceptionally.
+//
+// Wrap a thread-safe repository, since lanes call the service
+// concurrently.
+public class AsyncContactService implements AutoCloseable {
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final ContactService service;
+    private final ThreadPoolExecutor[] lanes;
+
+    // Lanes sized for I/O-bound repositories: several per core
+    public AsyncContactService(ContactService service) {
+        this(service, 4 * Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    // laneCount worker threads, each queueing up to queueCapacity calls
+    public AsyncContactService(ContactService service, int laneCount, int queueCapacity) {
+        if (service == null) {
+            throw new IllegalArgumentException("Service cannot be null");
+        }
+        if (laneCount <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Lanes and queue capacity must be positive");
+        }
+        this.service = service;
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = "contact-async-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+
+    public CompletableFuture<Void> addContact(Contact contact) {
+        String contactId = contact == null ? null : contact.getContactId();
+        return submit(contactId, () -> {
+            service.addContact(contact);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Contact> getContactById(String contactId) {
+        return submit(contactId, () -> service.getContactById(contactId));
+    }
+
+    public CompletableFuture<Void> updateContact(String contactId, String firstName,
+                                                 String lastName, String phoneNumber,
+                                                 String address) {
+        return submit(contactId, () -> {
+            service.updateContact(contactId, firstName, lastName, phoneNumber, address);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteContact(String contactId) {
+        return submit(contactId, () -> {
+            service.deleteContact(contactId);
+            return null;
+        });
+    }
+
+    // Calls queued on every lane and not yet started
+    public int getQueuedCount() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    // Stops taking calls, runs the ones already queued and waits for them
+    @Override
+    public void close() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        boolean interrupted = false;
+        for (ThreadPoolExecutor lane : lanes) {
+            while (!lane.isTerminated()) {
+                try {
+                    lane.awaitTermination(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(String contactId, Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            lane(contactId).execute(() -> {
+                try {
+                    result.complete(call.get());
+                } catch (Throwable e) {
+                    // Errors too, or the future would never complete
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private ThreadPoolExecutor lane(String contactId) {
+        if (contactId == null) {
+            return lanes[0];
+        }
+        int h = contactId.hashCode();
+        return lanes[((h ^ (h >>> 16)) & 0x7fffffff) % lanes.length];
+    }
+}
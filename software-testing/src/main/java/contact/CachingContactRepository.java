@@ -0,0 +1,277 @@
+package contact;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Repository decorator that caches findById in front of a slow store.
+//
+// Wraps any ContactRepository with a size-bounded LRU cache. IDs the
+// store does not hold are cached too, so repeated lookups of missing
+// IDs do not reach storage either.
+//
+// The cache is split into segments, each an access-ordered
+// LinkedHashMap under its own lock, so lookups on different IDs rarely
+// contend. Each segment evicts its least recently used entry once it
+// passes its share of the bound.
+//
+// Every write goes to the store first and then drops the ID from the
+// cache, so the next read loads the stored value. A load that overlaps
+// a write in its segment is returned but not cached, so a value read
+// before the write can never be cached after it.
+public class CachingContactRepository implements ContactRepository {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    // Cached in place of a Contact for IDs the store does not hold
+    private static final Object MISSING = new Object();
+
+    private final ContactRepository delegate;
+    private final int maximumSize;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // One lock's worth of the cache
+    private final class Segment extends LinkedHashMap<String, Object> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        // Bumped by every write so overlapping loads are not cached
+        private long writes;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    // Caches up to maximumSize IDs, found or missing
+    public CachingContactRepository(ContactRepository delegate, int maximumSize) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        // Small caches get fewer segments so each keeps a useful LRU order
+        segments = new Segment[Math.min(MAX_SEGMENTS,
+                Integer.highestOneBit(Math.max(1, maximumSize / MIN_SEGMENT_SIZE)))];
+        for (int i = 0; i < segments.length; i++) {
+            int share = maximumSize / segments.length + (i < maximumSize % segments.length ? 1 : 0);
+            segments[i] = new Segment(share);
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void add(Contact contact) {
+        try {
+            delegate.add(contact);
+        } finally {
+            invalidate(contact.getContactId());
+        }
+    }
+
+    @Override
+    public List<Contact> addBatch(List<Contact> contacts) {
+        try {
+            return delegate.addBatch(contacts);
+        } finally {
+            for (Contact contact : contacts) {
+                invalidate(contact.getContactId());
+            }
+        }
+    }
+
+    // Serves from the cache, loading and caching the stored value or
+    // its absence on a miss
+    @Override
+    public Contact findById(String contactId) {
+        if (contactId == null) {
+            return null;
+        }
+        Segment segment = segment(contactId);
+        long writes;
+        synchronized (segment) {
+            Object cached = segment.get(contactId);
+            if (cached != null) {
+                hits.increment();
+                if (cached == MISSING) {
+                    negativeHits.increment();
+                    return null;
+                }
+                return (Contact) cached;
+            }
+            writes = segment.writes;
+        }
+        misses.increment();
+        Contact loaded = delegate.findById(contactId);
+        synchronized (segment) {
+            if (segment.writes == writes) {
+                segment.put(contactId, loaded == null ? MISSING : loaded);
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        try {
+            return delegate.replace(expected, replacement);
+        } finally {
+            invalidate(expected.getContactId());
+        }
+    }
+
+    @Override
+    public void deleteById(String contactId) {
+        try {
+            delegate.deleteById(contactId);
+        } finally {
+            if (contactId != null) {
+                invalidate(contactId);
+            }
+        }
+    }
+
+    // Lookups other than by ID, searches and walks are not cached
+
+    @Override
+    public List<Contact> findByPhoneNumber(String phoneNumber) {
+        return delegate.findByPhoneNumber(phoneNumber);
+    }
+
+    @Override
+    public List<Contact> findByLastName(String lastName) {
+        return delegate.findByLastName(lastName);
+    }
+
+    @Override
+    public List<Contact> findByFirstName(String firstName) {
+        return delegate.findByFirstName(firstName);
+    }
+
+    @Override
+    public Spliterator<Contact> spliterator() {
+        return delegate.spliterator();
+    }
+
+    @Override
+    public ContactPage page(String cursor, int limit) {
+        return delegate.page(cursor, limit);
+    }
+
+    @Override
+    public List<Contact> searchByPrefix(String prefix, int limit) {
+        return delegate.searchByPrefix(prefix, limit);
+    }
+
+    @Override
+    public List<Contact> searchFuzzy(String query, int limit) {
+        return delegate.searchFuzzy(query, limit);
+    }
+
+    @Override
+    public ContactRepository snapshotView() {
+        return delegate.snapshotView();
+    }
+
+    // Most IDs the cache holds at once
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    // IDs cached right now, found or missing
+    public int getCachedCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                count += segment.size();
+            }
+        }
+        return count;
+    }
+
+    // Share of findById calls served from the cache, or 0 before any
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    // Point-in-time copy of every counter, keyed by metric name:
+    //  cache.hits            lookups served from the cache
+    //  cache.hits.negative   of those, IDs cached as missing
+    //  cache.misses          lookups that went to the store
+    //  cache.evictions       entries dropped to stay under the bound
+    //  cache.invalidations   entries dropped by writes
+    //  cache.size            IDs cached right now
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        snapshot.put("cache.hits", hits.sum());
+        snapshot.put("cache.hits.negative", negativeHits.sum());
+        snapshot.put("cache.misses", misses.sum());
+        snapshot.put("cache.evictions", evictions.sum());
+        snapshot.put("cache.invalidations", invalidations.sum());
+        snapshot.put("cache.size", (long) getCachedCount());
+        return snapshot;
+    }
+
+    // Reset counters to zero; cached entries are kept
+    public void reset() {
+        hits.reset();
+        negativeHits.reset();
+        misses.reset();
+        evictions.reset();
+        invalidations.reset();
+    }
+
+    // Drops every cached entry
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.writes++;
+                segment.clear();
+            }
+        }
+    }
+
+    private void invalidate(String contactId) {
+        Segment segment = segment(contactId);
+        synchronized (segment) {
+            segment.writes++;
+            if (segment.remove(contactId) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    private Segment segment(String contactId) {
+        int h = contactId.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+}
@@ -0,0 +1,87 @@
+package contact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Thread-safe repository for storing contacts.
+//
+// Backed by a ConcurrentHashMap keyed on contactId. Writers lock only
+// the bin their key hashes to, so adds and deletes on different IDs run
+// in parallel, and reads never lock at all.
+//
+// Duplicate detection uses putIfAbsent so check-and-insert is one
+// atomic step; two threads adding the same ID cannot both succeed.
+public class ConcurrentContactRepository implements ContactRepository {
+    private final ConcurrentHashMap<String, Contact> contacts;
+
+    public ConcurrentContactRepository() {
+        this.contacts = new ConcurrentHashMap<>();
+    }
+
+    // Pre-sizes the map for the expected number of contacts
+    public ConcurrentContactRepository(int expectedSize) {
+        this.contacts = new ConcurrentHashMap<>(expectedSize);
+    }
+
+    // Return number of stored contacts
+    // May be stale by the time the caller reads it under concurrent writes
+    @Override
+    public int size() {
+        return contacts.size();
+    }
+
+    // Adds a contact
+    // Prevents duplicate IDs atomically
+    @Override
+    public void add(Contact contact) {
+        if (contacts.putIfAbsent(contact.getContactId(), contact) != null) {
+            throw new IllegalArgumentException("ID already exists");
+        }
+    }
+
+    // Adds a batch, checking and inserting each ID atomically
+    @Override
+    public List<Contact> addBatch(List<Contact> contacts) {
+        List<Contact> rejected = new ArrayList<>();
+        for (Contact contact : contacts) {
+            if (this.contacts.putIfAbsent(contact.getContactId(), contact) != null) {
+                rejected.add(contact);
+            }
+        }
+        return rejected;
+    }
+
+    // Find a contact by ID
+    @Override
+    public Contact findById(String contactId) {
+        if (contactId == null) {
+            return null;
+        }
+        return contacts.get(contactId);
+    }
+
+    // Compare-and-set on the entry; fails if another writer got there first.
+    // Contact does not override equals, so this compares by identity.
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        return contacts.replace(expected.getContactId(), expected, replacement);
+    }
+
+    // Weakly consistent walk over the map; never throws
+    // ConcurrentModificationException and splits by hash bin
+    @Override
+    public Spliterator<Contact> spliterator() {
+        return contacts.values().spliterator();
+    }
+
+    // Deletes a contact by ID
+    @Override
+    public void deleteById(String contactId) {
+        if (contactId == null || contacts.remove(contactId) == null) {
+            // ID not found
+            throw new IllegalArgumentException("Contact id does not exist");
+        }
+    }
+}
@@ -22,20 +22,35 @@ public class Contact {
 	// Constructs a new Contact and validates all fields using ContactValidator
 	public Contact(String contactId, String firstName, String lastName,
 				   String phoneNumber, String address) {
-		ContactValidator.validateId(contactId);
-		ContactValidator.validateFirstName(firstName);
-		ContactValidator.validateLastName(lastName);
-		ContactValidator.validatePhone(phoneNumber);
-		ContactValidator.validateAddress(address);
+		ContactValidator.validateAll(contactId, firstName, lastName,
+				phoneNumber, address);
 
 		// Assign validated values to current object
+		// Shared text fields go through the optional ContactStringPool
 		this.contactId = contactId;
-		this.firstName = firstName;
-	    this.lastName = lastName;
+		this.firstName = ContactStringPool.intern(firstName);
+	    this.lastName = ContactStringPool.intern(lastName);
 	    this.phoneNumber = phoneNumber;
-	    this.address = address;
+	    this.address = ContactStringPool.intern(address);
 	}
 	
+	// Builds a Contact from fields the caller has already checked with
+	// ContactValidator.checkAll, skipping a second round of validation.
+	static Contact ofValidated(String contactId, String firstName, String lastName,
+							   String phoneNumber, String address) {
+		Contact contact = new Contact();
+		contact.contactId = contactId;
+		contact.firstName = ContactStringPool.intern(firstName);
+		contact.lastName = ContactStringPool.intern(lastName);
+		contact.phoneNumber = phoneNumber;
+		contact.address = ContactStringPool.intern(address);
+		return contact;
+	}
+
+	// Used only by ofValidated
+	private Contact() {
+	}
+
 	// Contact information accessor methods
 	public String getContactId() {
 		return contactId;
@@ -53,14 +68,28 @@ public class Contact {
 		return address;
 	}
 	
+	// Returns a new Contact with the non-null arguments applied and every
+	// other field copied from this one. The result is fully validated
+	// before it exists, so a bad field leaves nothing half-updated.
+	public Contact withUpdates(String firstName, String lastName,
+							   String phoneNumber, String address) {
+		return new Contact(contactId,
+				firstName != null ? firstName : this.firstName,
+				lastName != null ? lastName : this.lastName,
+				phoneNumber != null ? phoneNumber : this.phoneNumber,
+				address != null ? address : this.address);
+	}
+
 	// Contact information mutator methods with input validation
+	// These change the object in place; ContactService swaps in a copy
+	// from withUpdates instead so readers never see a partial update.
 	public void setFirstName(String firstName) {
 		ContactValidator.validateFirstName(firstName);
-		this.firstName = firstName;
+		this.firstName = ContactStringPool.intern(firstName);
 	}
 	public void setLastName(String lastName) {
 		ContactValidator.validateLastName(lastName);
-		this.lastName = lastName;
+		this.lastName = ContactStringPool.intern(lastName);
 	}
 	public void setPhoneNumber(String phoneNumber) {
 		ContactValidator.validatePhone(phoneNumber);
@@ -68,6 +97,6 @@ public class Contact {
 	}
 	public void setAddress(String address) {
 		ContactValidator.validateAddress(address);
-		this.address = address;
+		this.address = ContactStringPool.intern(address);
 	}
 }
\ No newline at end of file
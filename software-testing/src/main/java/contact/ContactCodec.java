@@ -0,0 +1,198 @@
+package contact;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Compact binary encoding for Contact records.
+//
+// Layout: [flags][contactId][firstName][lastName][phone][address]
+//
+// Text fields are a length byte followed by the bytes. When every char
+// fits in Latin-1 the bytes are the chars themselves; otherwise they
+// are UTF-8 and the length byte has its top bit set. The validator
+// caps fields at 30 chars, so even UTF-8 lengths fit in 7 bits.
+//
+// A phone of ten ASCII digits is packed into 5 bytes (10 digits need
+// 34 bits) and flagged; any other valid phone is stored as text.
+//
+// A typical contact encodes to about 40 bytes. Encoding writes straight
+// into the caller's buffer; decoding allocates only the Strings of the
+// resulting Contact.
+public final class ContactCodec {
+
+    // Upper bound on one encoded contact: flags, then every field at its
+    // maximum length in 3-byte UTF-8 (10 chars, phone 10, address 30)
+    public static final int MAX_ENCODED_BYTES = 1 + 4 * (1 + 10 * 3) + (1 + 30 * 3);
+
+    private static final int FLAG_PACKED_PHONE = 1;
+    private static final int UTF8 = 0x80;
+
+    // Scratch space for decoding from direct buffers
+    private static final ThreadLocal<byte[]> SCRATCH =
+            ThreadLocal.withInitial(() -> new byte[128]);
+
+    private ContactCodec() {}
+
+    // Writes contact at the buffer's position and advances it
+    public static void encode(Contact contact, ByteBuffer out) {
+        String phone = contact.getPhoneNumber();
+        boolean packed = isAsciiDigits(phone);
+        out.put((byte) (packed ? FLAG_PACKED_PHONE : 0));
+        putString(out, contact.getContactId());
+        putString(out, contact.getFirstName());
+        putString(out, contact.getLastName());
+        if (packed) {
+            long digits = Long.parseLong(phone);
+            out.put((byte) (digits >>> 32));
+            out.putInt((int) digits);
+        } else {
+            putString(out, phone);
+        }
+        putString(out, contact.getAddress());
+    }
+
+    // Reads a contact at the buffer's position and advances it.
+    // Fields are trusted to be valid, as only encode produces them.
+    public static Contact decode(ByteBuffer in) {
+        int flags = in.get();
+        String contactId = getString(in);
+        String firstName = getString(in);
+        String lastName = getString(in);
+        String phone;
+        if ((flags & FLAG_PACKED_PHONE) != 0) {
+            long digits = ((long) (in.get() & 0xFF) << 32) | (in.getInt() & 0xFFFFFFFFL);
+            phone = digitsToString(digits);
+        } else {
+            phone = getString(in);
+        }
+        String address = getString(in);
+        return Contact.ofValidated(contactId, firstName, lastName, phone, address);
+    }
+
+    // Exact number of bytes encode will write for contact
+    public static int encodedSize(Contact contact) {
+        String phone = contact.getPhoneNumber();
+        return 1 + stringSize(contact.getContactId())
+                + stringSize(contact.getFirstName())
+                + stringSize(contact.getLastName())
+                + (isAsciiDigits(phone) ? 5 : stringSize(phone))
+                + stringSize(contact.getAddress());
+    }
+
+    // Writes one length-prefixed string field
+    public static void putString(ByteBuffer out, String value) {
+        int length = value.length();
+        if (isLatin1(value)) {
+            out.put((byte) length);
+            for (int i = 0; i < length; i++) {
+                out.put((byte) value.charAt(i));
+            }
+            return;
+        }
+        // Reserve the length byte, then encode UTF-8 in place
+        int lengthAt = out.position();
+        out.put((byte) 0);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | (cp >> 18)));
+                out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced as String.getBytes would
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        out.put(lengthAt, (byte) (UTF8 | (out.position() - lengthAt - 1)));
+    }
+
+    // Reads one length-prefixed string field
+    public static String getString(ByteBuffer in) {
+        int header = in.get() & 0xFF;
+        int length = header & ~UTF8;
+        byte[] bytes;
+        int offset;
+        if (in.hasArray()) {
+            bytes = in.array();
+            offset = in.arrayOffset() + in.position();
+            in.position(in.position() + length);
+        } else {
+            bytes = SCRATCH.get();
+            offset = 0;
+            in.get(bytes, 0, length);
+        }
+        return new String(bytes, offset, length, (header & UTF8) != 0
+                ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+    }
+
+    // Bytes putString will write for value, including the length byte
+    static int stringSize(String value) {
+        if (isLatin1(value)) {
+            return 1 + value.length();
+        }
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+        }
+        return 1 + bytes;
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Phones pass Character.isDigit, which also accepts non-ASCII digits;
+    // only plain 0-9 can be packed and restored exactly
+    private static boolean isAsciiDigits(String phone) {
+        if (phone.length() != 10) {
+            return false;
+        }
+        for (int i = 0; i < 10; i++) {
+            char c = phone.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Formats a packed phone back to ten digits, keeping leading zeros
+    private static String digitsToString(long digits) {
+        byte[] chars = SCRATCH.get();
+        for (int i = 9; i >= 0; i--) {
+            chars[i] = (byte) ('0' + digits % 10);
+            digits /= 10;
+        }
+        return new String(chars, 0, 10, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,64 @@
+package contact;
+
+// One change to the stored contacts, published by ContactService through
+// a ContactEventBus after the repository accepted it.
+//
+// Adds carry the new contact as after, deletes carry only the ID, and
+// updates carry both the contact that was replaced and its replacement.
+// Stored contacts are never changed in place by ContactService, so
+// before and after keep their field values.
+public final class ContactEvent {
+
+    public enum Type {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+
+    private final Type type;
+    private final String contactId;
+    private final Contact before;
+    private final Contact after;
+
+    ContactEvent(Type type, String contactId, Contact before, Contact after) {
+        this.type = type;
+        this.contactId = contactId;
+        this.before = before;
+        this.after = after;
+    }
+
+    static ContactEvent added(Contact contact) {
+        return new ContactEvent(Type.ADD, contact.getContactId(), null, contact);
+    }
+
+    static ContactEvent updated(Contact before, Contact after) {
+        return new ContactEvent(Type.UPDATE, after.getContactId(), before, after);
+    }
+
+    static ContactEvent deleted(String contactId) {
+        return new ContactEvent(Type.DELETE, contactId, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getContactId() {
+        return contactId;
+    }
+
+    // Contact replaced by an update; null for adds and deletes
+    public Contact getBefore() {
+        return before;
+    }
+
+    // Contact stored by an add or update; null for deletes
+    public Contact getAfter() {
+        return after;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + contactId;
+    }
+}
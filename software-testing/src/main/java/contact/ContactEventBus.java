@@ -0,0 +1,228 @@
+package contact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Lock-free ring buffer that fans ContactEvents out to subscribers.
+//
+// Publishers claim a sequence number with one atomic increment, store
+// the event in that slot and mark the slot published; they never take a
+// lock. Every subscriber runs on its own daemon thread with its own
+// read sequence, picks up all events published since its last batch
+// and hands them over in one call.
+//
+// The ring holds capacity events. A publisher that would overwrite an
+// event the slowest subscriber has not read yet waits for it, so
+// subscribers never miss events and a stalled one slows writers down
+// rather than letting the backlog grow. With no subscribers publishing
+// never waits.
+//
+// Each subscriber sees events in publish order. Writers racing on the
+// same ID may publish in a different order than the repository applied
+// their writes; compare an update's before with the last after seen to
+// detect it.
+public class ContactEventBus implements AutoCloseable {
+
+    // Receives batches of events on the subscriber's thread
+    public interface Subscriber {
+        // events is reused after the call returns; copy what you keep
+        void onEvents(List<ContactEvent> events);
+    }
+
+    private static final Logger LOGGER =
+            Logger.getLogger(ContactEventBus.class.getName());
+
+    private static final int DEFAULT_CAPACITY = 8192;
+    // Idle subscribers spin, then yield, then park this long per check
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long IDLE_PARK_NANOS = 50_000;
+    private static final long FULL_PARK_NANOS = 1_000;
+
+    private final ContactEvent[] entries;
+    // Sequence stored in each slot, or -1; the publish marker
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    // Lowest subscriber sequence last seen by a publisher
+    private volatile long gateCache = -1;
+    private volatile Consumer[] consumers = new Consumer[0];
+    private volatile boolean closed;
+
+    public ContactEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Ring of capacity events, rounded up to a power of two
+    public ContactEventBus(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        entries = new ContactEvent[size];
+        published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        mask = size - 1;
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    // Starts a daemon thread that delivers every event published from
+    // now on to subscriber
+    public synchronized void subscribe(String name, Subscriber subscriber) {
+        if (subscriber == null) {
+            throw new IllegalArgumentException("Subscriber cannot be null");
+        }
+        if (closed) {
+            throw new IllegalStateException("Event bus is closed");
+        }
+        Consumer consumer = new Consumer(name, subscriber);
+        // Gate publishers on the new subscriber before choosing its final
+        // start, so nothing it has to read can be overwritten in between.
+        // The start only moves forward, so the first one is a safe gate.
+        consumer.sequence = claimed.get() - 1;
+        Consumer[] grown = Arrays.copyOf(consumers, consumers.length + 1);
+        grown[consumers.length] = consumer;
+        consumers = grown;
+        consumer.sequence = claimed.get() - 1;
+        consumer.thread.start();
+    }
+
+    // Publishes one event; waits only while the ring is full. Events
+    // published after close are dropped.
+    public void publish(ContactEvent event) {
+        if (closed) {
+            return;
+        }
+        long sequence = claimed.getAndIncrement();
+        long wrapPoint = sequence - entries.length;
+        if (wrapPoint > gateCache) {
+            long gate;
+            while (wrapPoint > (gate = minSequence())) {
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+            // With no subscribers nothing gates; caching that would let
+            // publishers lap one that subscribes later
+            if (gate != Long.MAX_VALUE) {
+                gateCache = gate;
+            }
+        }
+        int slot = (int) sequence & mask;
+        entries[slot] = event;
+        published.lazySet(slot, sequence);
+    }
+
+    // Events published but not yet handled by the slowest subscriber
+    public long getBacklog() {
+        Consumer[] current = consumers;
+        if (current.length == 0) {
+            return 0;
+        }
+        return Math.max(0, claimed.get() - 1 - minSequence());
+    }
+
+    // Stops taking events, delivers the ones already published and
+    // waits for every subscriber thread to finish
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        boolean interrupted = false;
+        for (Consumer consumer : consumers) {
+            while (consumer.thread.isAlive()) {
+                try {
+                    consumer.thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long minSequence() {
+        long min = Long.MAX_VALUE;
+        for (Consumer consumer : consumers) {
+            min = Math.min(min, consumer.sequence);
+        }
+        return min;
+    }
+
+    // One subscriber's thread and read position
+    private final class Consumer implements Runnable {
+        final Subscriber subscriber;
+        final Thread thread;
+        // Last sequence handed to the subscriber
+        volatile long sequence;
+
+        Consumer(String name, Subscriber subscriber) {
+            this.subscriber = subscriber;
+            this.thread = new Thread(this, "contact-events-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<ContactEvent> batch = new ArrayList<>();
+            List<ContactEvent> view = Collections.unmodifiableList(batch);
+            int idle = 0;
+            while (true) {
+                // Read before scanning: once closed is seen, everything
+                // published before close is visible to the scan
+                boolean done = closed;
+                long next = sequence + 1;
+                long end = next;
+                while (end - next < entries.length && published.get((int) end & mask) == end) {
+                    batch.add(entries[(int) end & mask]);
+                    end++;
+                }
+                if (batch.isEmpty()) {
+                    if (done) {
+                        return;
+                    }
+                    idle(idle);
+                    idle = Math.min(idle + 1, YIELD_TRIES);
+                    continue;
+                }
+                idle = 0;
+                // Skip a batch the subscriber fails on, even with an
+                // Error; a dead thread would hold publishers at its gate
+                try {
+                    subscriber.onEvents(view);
+                } catch (Throwable e) {
+                    LOGGER.log(Level.WARNING, "Contact event subscriber "
+                            + thread.getName() + " failed", e);
+                }
+                batch.clear();
+                sequence = end - 1;
+            }
+        }
+
+        private void idle(int tries) {
+            if (tries < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (tries < YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package contact;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Writes contacts to a CSV or NDJSON file.
+//
+// Records are encoded straight into one reusable buffer and written to
+// a FileChannel whenever it fills, so memory stays fixed however many
+// contacts there are. Pass a lazy source such as
+// ContactService.streamContacts(), or stream snapshotContacts() for an
+// export no concurrent write can tear.
+public final class ContactFileExporter {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private ContactFileExporter() {}
+
+    // Replaces file with every contact in contacts; returns how many.
+    // Throws IllegalArgumentException, leaving the file partly written,
+    // on a value CSV cannot hold.
+    public static long export(Stream<Contact> contacts, Path file, ContactFileFormat format)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            format.writeHeader(buffer);
+            long count = 0;
+            Iterator<Contact> it = contacts.iterator();
+            while (it.hasNext()) {
+                if (buffer.remaining() < ContactFileFormat.MAX_RECORD_BYTES) {
+                    drain(channel, buffer);
+                }
+                format.write(it.next(), buffer);
+                count++;
+            }
+            drain(channel, buffer);
+            return count;
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,368 @@
+package contact;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Line-based flat file formats for bulk contact import and export.
+//
+// Every record is one line in UTF-8, with fields in Contact constructor
+// order: contactId, firstName, lastName, phoneNumber, address.
+//
+// CSV follows RFC 4180 quoting: a field holding a comma or quote is
+// wrapped in quotes and inner quotes are doubled. A first line equal to
+// HEADER is skipped. Quoted line breaks are not supported, so a record
+// never spans lines; writing a value with a line break throws
+// IllegalArgumentException. NDJSON escapes them instead.
+//
+// NDJSON holds one flat JSON object per line with the field names as
+// keys and string or null values. Missing keys read as null and
+// unknown keys are ignored.
+//
+// Both parsers work straight on the file's bytes and allocate only the
+// field strings.
+public enum ContactFileFormat {
+
+    CSV {
+        @Override
+        String parse(byte[] b, int start, int end, String[] fields) {
+            int field = 0;
+            int i = start;
+            while (true) {
+                if (field == fields.length) {
+                    return "Expected 5 fields";
+                }
+                if (i < end && b[i] == '"') {
+                    int from = ++i;
+                    boolean doubled = false;
+                    while (true) {
+                        if (i >= end) {
+                            return "Malformed CSV row";
+                        }
+                        if (b[i] == '"') {
+                            if (i + 1 < end && b[i + 1] == '"') {
+                                doubled = true;
+                                i += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        i++;
+                    }
+                    String value = utf8(b, from, i);
+                    fields[field++] = doubled ? value.replace("\"\"", "\"") : value;
+                    i++;
+                    if (i < end && b[i] != ',') {
+                        return "Malformed CSV row";
+                    }
+                } else {
+                    int from = i;
+                    while (i < end && b[i] != ',') {
+                        i++;
+                    }
+                    fields[field++] = utf8(b, from, i);
+                }
+                if (i >= end) {
+                    return field == fields.length ? null : "Expected 5 fields";
+                }
+                i++;
+            }
+        }
+
+        @Override
+        boolean isHeader(byte[] b, int start, int end) {
+            return matches(b, start, end, HEADER_BYTES);
+        }
+
+        @Override
+        void writeHeader(ByteBuffer out) {
+            out.put(HEADER_BYTES).put((byte) '\n');
+        }
+
+        @Override
+        void write(Contact contact, ByteBuffer out) {
+            putCsv(out, contact.getContactId());
+            out.put((byte) ',');
+            putCsv(out, contact.getFirstName());
+            out.put((byte) ',');
+            putCsv(out, contact.getLastName());
+            out.put((byte) ',');
+            putCsv(out, contact.getPhoneNumber());
+            out.put((byte) ',');
+            putCsv(out, contact.getAddress());
+            out.put((byte) '\n');
+        }
+    },
+
+    NDJSON {
+        @Override
+        String parse(byte[] b, int start, int end, String[] fields) {
+            for (int f = 0; f < fields.length; f++) {
+                fields[f] = null;
+            }
+            int[] at = {skipSpace(b, start, end)};
+            if (at[0] >= end || b[at[0]] != '{') {
+                return "Malformed JSON row";
+            }
+            at[0] = skipSpace(b, at[0] + 1, end);
+            if (at[0] < end && b[at[0]] == '}') {
+                return skipSpace(b, at[0] + 1, end) == end ? null : "Malformed JSON row";
+            }
+            while (true) {
+                if (at[0] >= end || b[at[0]] != '"') {
+                    return "Malformed JSON row";
+                }
+                int keyFrom = at[0] + 1;
+                int keyEnd = keyFrom;
+                while (keyEnd < end && b[keyEnd] != '"' && b[keyEnd] != '\\') {
+                    keyEnd++;
+                }
+                if (keyEnd >= end || b[keyEnd] != '"') {
+                    return "Malformed JSON row";
+                }
+                int field = fieldIndex(b, keyFrom, keyEnd);
+                at[0] = skipSpace(b, keyEnd + 1, end);
+                if (at[0] >= end || b[at[0]] != ':') {
+                    return "Malformed JSON row";
+                }
+                at[0] = skipSpace(b, at[0] + 1, end);
+                String value;
+                if (at[0] < end && b[at[0]] == '"') {
+                    value = jsonString(b, at, end);
+                    if (value == null) {
+                        return "Malformed JSON row";
+                    }
+                } else if (matches(b, at[0], Math.min(end, at[0] + 4), NULL_BYTES)) {
+                    value = null;
+                    at[0] += 4;
+                } else {
+                    return "Malformed JSON row";
+                }
+                if (field >= 0) {
+                    fields[field] = value;
+                }
+                at[0] = skipSpace(b, at[0], end);
+                if (at[0] < end && b[at[0]] == ',') {
+                    at[0] = skipSpace(b, at[0] + 1, end);
+                } else if (at[0] < end && b[at[0]] == '}') {
+                    return skipSpace(b, at[0] + 1, end) == end ? null : "Malformed JSON row";
+                } else {
+                    return "Malformed JSON row";
+                }
+            }
+        }
+
+        @Override
+        boolean isHeader(byte[] b, int start, int end) {
+            return false;
+        }
+
+        @Override
+        void writeHeader(ByteBuffer out) {
+        }
+
+        @Override
+        void write(Contact contact, ByteBuffer out) {
+            String[] values = {contact.getContactId(), contact.getFirstName(),
+                    contact.getLastName(), contact.getPhoneNumber(), contact.getAddress()};
+            out.put((byte) '{');
+            for (int f = 0; f < values.length; f++) {
+                if (f > 0) {
+                    out.put((byte) ',');
+                }
+                out.put((byte) '"').put(FIELD_BYTES[f]).put((byte) '"').put((byte) ':');
+                putJson(out, values[f]);
+            }
+            out.put((byte) '}').put((byte) '\n');
+        }
+    };
+
+    // Column names, as the CSV header and the NDJSON keys
+    public static final String HEADER = "contactId,firstName,lastName,phoneNumber,address";
+
+    // Upper bound on one written record: five validated fields of at most
+    // 30 characters, each escaped to at most 6 bytes, plus the keys
+    static final int MAX_RECORD_BYTES = 1024;
+
+    private static final byte[] HEADER_BYTES = HEADER.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL_BYTES = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] FIELD_BYTES = new byte[5][];
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        String[] names = HEADER.split(",");
+        for (int f = 0; f < names.length; f++) {
+            FIELD_BYTES[f] = names[f].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    // Reads the record in b[start, end), without its line break, into the
+    // five fields. Returns null on success or the reason it is malformed.
+    abstract String parse(byte[] b, int start, int end, String[] fields);
+
+    // True if b[start, end) is this format's header line
+    abstract boolean isHeader(byte[] b, int start, int end);
+
+    abstract void writeHeader(ByteBuffer out);
+
+    // Appends one record and its line break; out must have at least
+    // MAX_RECORD_BYTES remaining
+    abstract void write(Contact contact, ByteBuffer out);
+
+    private static String utf8(byte[] b, int from, int to) {
+        return new String(b, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private static boolean matches(byte[] b, int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (b[start + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpace(byte[] b, int i, int end) {
+        while (i < end && (b[i] == ' ' || b[i] == '\t' || b[i] == '\r')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int fieldIndex(byte[] b, int from, int to) {
+        for (int f = 0; f < FIELD_BYTES.length; f++) {
+            if (matches(b, from, to, FIELD_BYTES[f])) {
+                return f;
+            }
+        }
+        return -1;
+    }
+
+    // Reads the JSON string starting at the quote at at[0] and leaves
+    // at[0] just past its closing quote. Returns null if malformed.
+    private static String jsonString(byte[] b, int[] at, int end) {
+        int from = at[0] + 1;
+        int i = from;
+        while (i < end && b[i] != '"' && b[i] != '\\') {
+            i++;
+        }
+        if (i < end && b[i] == '"') {
+            at[0] = i + 1;
+            return utf8(b, from, i);
+        }
+        // Escapes present: decode runs of plain bytes between them
+        StringBuilder value = new StringBuilder(utf8(b, from, i));
+        while (i < end) {
+            byte c = b[i];
+            if (c == '"') {
+                at[0] = i + 1;
+                return value.toString();
+            }
+            if (c != '\\') {
+                int run = i;
+                while (i < end && b[i] != '"' && b[i] != '\\') {
+                    i++;
+                }
+                value.append(utf8(b, run, i));
+                continue;
+            }
+            if (i + 1 >= end) {
+                return null;
+            }
+            byte e = b[i + 1];
+            i += 2;
+            switch (e) {
+                case '"': value.append('"'); break;
+                case '\\': value.append('\\'); break;
+                case '/': value.append('/'); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'n': value.append('\n'); break;
+                case 'r': value.append('\r'); break;
+                case 't': value.append('\t'); break;
+                case 'u':
+                    if (i + 4 > end) {
+                        return null;
+                    }
+                    int code = 0;
+                    for (int k = 0; k < 4; k++) {
+                        int digit = Character.digit(b[i + k], 16);
+                        if (digit < 0) {
+                            return null;
+                        }
+                        code = (code << 4) | digit;
+                    }
+                    value.append((char) code);
+                    i += 4;
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    private static void putCsv(ByteBuffer out, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r') {
+                throw new IllegalArgumentException("CSV cannot hold a line break: " + value);
+            }
+            quote |= c == ',' || c == '"';
+        }
+        if (!quote) {
+            putUtf8(out, value, false);
+            return;
+        }
+        out.put((byte) '"');
+        putUtf8(out, value.replace("\"", "\"\""), false);
+        out.put((byte) '"');
+    }
+
+    // Appends value as a JSON string, or null
+    static void putJson(ByteBuffer out, String value) {
+        if (value == null) {
+            out.put(NULL_BYTES);
+            return;
+        }
+        out.put((byte) '"');
+        putUtf8(out, value, true);
+        out.put((byte) '"');
+    }
+
+    // Encodes value as UTF-8, escaping quotes, backslashes and control
+    // characters for JSON when json is set
+    private static void putUtf8(ByteBuffer out, String value, boolean json) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (json && (c == '"' || c == '\\')) {
+                out.put((byte) '\\').put((byte) c);
+            } else if (json && c < 0x20) {
+                out.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0')
+                        .put(HEX[c >> 4]).put(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | (cp >> 18)));
+                out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced as String.getBytes would
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+}
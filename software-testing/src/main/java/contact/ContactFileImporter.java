@@ -0,0 +1,394 @@
+package contact;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Streams a CSV or NDJSON file of contacts into a ContactService.
+//
+// The import runs as a three-stage pipeline:
+//  read   the calling thread fills fixed-size byte chunks from a
+//         FileChannel, each ending on a line break
+//  parse  a pool of threads splits chunks into rows, parses them and
+//         runs ContactValidator.checkAll, in parallel
+//  store  one thread hands each chunk's contacts to addAll, in file
+//         order, so the first row with an ID wins as in addAll itself
+//
+// Memory stays bounded whatever the file size: at most two chunks per
+// parse thread are in flight, and the reader waits when they are all
+// taken. Rejected rows are not kept; each is written to the optional
+// rejects file with its line number, ID, failing field and reason.
+//
+// A record longer than a whole chunk fails the import with an
+// IOException, since no valid contact comes close.
+public class ContactFileImporter {
+
+    // Totals for one imported file
+    public static final class Result {
+        private final long rows;
+        private final long accepted;
+        private final long rejected;
+
+        Result(long rows, long accepted, long rejected) {
+            this.rows = rows;
+            this.accepted = accepted;
+            this.rejected = rejected;
+        }
+
+        // Non-blank records read, not counting a CSV header
+        public long getRows() {
+            return rows;
+        }
+
+        // Records stored
+        public long getAccepted() {
+            return accepted;
+        }
+
+        // Records written to the rejects file
+        public long getRejected() {
+            return rejected;
+        }
+
+        @Override
+        public String toString() {
+            return rows + " rows, " + accepted + " accepted, " + rejected + " rejected";
+        }
+    }
+
+    // Header of the rejects file
+    public static final String REJECTS_HEADER = "line,contactId,field,reason";
+
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+
+    private final ContactService service;
+    private final int threads;
+    private final int chunkBytes;
+
+    // One parse thread per core and 1 MB chunks
+    public ContactFileImporter(ContactService service) {
+        this(service, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_BYTES);
+    }
+
+    public ContactFileImporter(ContactService service, int threads, int chunkBytes) {
+        if (service == null) {
+            throw new IllegalArgumentException("Service cannot be null");
+        }
+        if (threads <= 0 || chunkBytes <= 0) {
+            throw new IllegalArgumentException("Threads and chunk size must be positive");
+        }
+        this.service = service;
+        this.threads = threads;
+        this.chunkBytes = chunkBytes;
+    }
+
+    // Imports every record in file. Rejected rows go to rejects, which
+    // is replaced; pass null to only count them.
+    public Result importFile(Path file, ContactFileFormat format, Path rejects) throws IOException {
+        int maxChunks = threads * 2;
+        Run run = new Run(format, maxChunks + 2);
+        Semaphore permits = new Semaphore(maxChunks);
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "contact-import-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ExecutorService store = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "contact-import-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedWriter sidecar = rejects == null ? null
+                     : Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            run.sidecar = sidecar;
+            if (sidecar != null) {
+                sidecar.write(REJECTS_HEADER);
+                sidecar.newLine();
+            }
+            CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+            try {
+                byte[] buffer = run.takeBuffer();
+                int filled = 0;
+                long line = 1;
+                while (!tail.isCompletedExceptionally()) {
+                    int n = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled));
+                    boolean eof = n < 0;
+                    if (!eof) {
+                        filled += n;
+                        if (filled < buffer.length) {
+                            continue;
+                        }
+                    }
+                    if (filled == 0) {
+                        run.buffers.add(buffer);
+                        break;
+                    }
+                    int end = eof ? filled : lastLineBreak(buffer, filled) + 1;
+                    if (end == 0) {
+                        throw new IOException("Record longer than " + buffer.length
+                                + " bytes at line " + line + " of " + file);
+                    }
+                    byte[] next = null;
+                    if (!eof) {
+                        next = run.takeBuffer();
+                        System.arraycopy(buffer, end, next, 0, filled - end);
+                    }
+                    permits.acquire();
+                    byte[] chunk = buffer;
+                    long firstLine = line;
+                    CompletableFuture<Parsed> parsed = CompletableFuture.supplyAsync(
+                            () -> run.parse(chunk, end, firstLine), parsers);
+                    tail = tail.thenCombineAsync(parsed, (ignored, result) -> {
+                        run.store(result);
+                        return null;
+                    }, store);
+                    tail.whenComplete((ignored, e) -> permits.release());
+                    if (eof) {
+                        break;
+                    }
+                    line += countLineBreaks(buffer, end);
+                    filled -= end;
+                    buffer = next;
+                }
+                tail.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted importing " + file, e);
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw e;
+            } finally {
+                parsers.shutdownNow();
+                store.shutdown();
+                awaitQuietly(store);
+            }
+        }
+        return new Result(run.rows, run.accepted, run.rejected);
+    }
+
+    private static int lastLineBreak(byte[] b, int filled) {
+        for (int i = filled - 1; i >= 0; i--) {
+            if (b[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int countLineBreaks(byte[] b, int end) {
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (b[i] == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void awaitQuietly(ExecutorService executor) {
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // One rejected row, in file terms
+    private static final class Reject {
+        final long line;
+        final String contactId;
+        final String field;
+        final String reason;
+
+        Reject(long line, String contactId, String field, String reason) {
+            this.line = line;
+            this.contactId = contactId;
+            this.field = field;
+            this.reason = reason;
+        }
+    }
+
+    // A parsed chunk: valid contacts with their line numbers, and the
+    // rows rejected while parsing, in line order
+    private static final class Parsed {
+        final List<Contact> contacts = new ArrayList<>();
+        long[] lines = new long[256];
+        final List<Reject> rejects = new ArrayList<>();
+        long rows;
+
+        void add(Contact contact, long line) {
+            if (contacts.size() == lines.length) {
+                lines = Arrays.copyOf(lines, lines.length * 2);
+            }
+            lines[contacts.size()] = line;
+            contacts.add(contact);
+        }
+    }
+
+    // State of one importFile call. Buffers are shared by the reader and
+    // parsers; the totals and sidecar belong to the store thread.
+    private final class Run {
+        final ContactFileFormat format;
+        final BlockingQueue<byte[]> buffers;
+        final int maxBuffers;
+        int allocated;
+        BufferedWriter sidecar;
+        long rows;
+        long accepted;
+        long rejected;
+
+        Run(ContactFileFormat format, int maxBuffers) {
+            this.format = format;
+            this.maxBuffers = maxBuffers;
+            this.buffers = new ArrayBlockingQueue<>(maxBuffers);
+        }
+
+        // Reuses a free chunk buffer, allocating up to maxBuffers
+        byte[] takeBuffer() throws InterruptedException {
+            byte[] buffer = buffers.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+            if (allocated < maxBuffers) {
+                allocated++;
+                return new byte[chunkBytes];
+            }
+            return buffers.take();
+        }
+
+        // Parse stage: splits b[0, end) into lines starting at firstLine
+        Parsed parse(byte[] b, int end, long firstLine) {
+            try {
+                Parsed parsed = new Parsed();
+                String[] fields = new String[5];
+                long line = firstLine;
+                int start = 0;
+                while (start < end) {
+                    int lineEnd = start;
+                    while (lineEnd < end && b[lineEnd] != '\n') {
+                        lineEnd++;
+                    }
+                    int contentEnd = lineEnd;
+                    if (contentEnd > start && b[contentEnd - 1] == '\r') {
+                        contentEnd--;
+                    }
+                    if (contentEnd > start && !(line == 1 && format.isHeader(b, start, contentEnd))) {
+                        parsed.rows++;
+                        parseRow(parsed, b, start, contentEnd, line, fields);
+                    }
+                    line++;
+                    start = lineEnd + 1;
+                }
+                return parsed;
+            } finally {
+                buffers.add(b);
+            }
+        }
+
+        private void parseRow(Parsed parsed, byte[] b, int start, int end, long line,
+                              String[] fields) {
+            String malformed = format.parse(b, start, end, fields);
+            if (malformed != null) {
+                parsed.rejects.add(new Reject(line, null, null, malformed));
+                return;
+            }
+            int failed = ContactValidator.checkAll(fields[0], fields[1], fields[2],
+                    fields[3], fields[4]);
+            if (failed == 0) {
+                parsed.add(Contact.ofValidated(fields[0], fields[1], fields[2],
+                        fields[3], fields[4]), line);
+            } else {
+                String field = ContactValidator.fieldOf(failed);
+                String reason = ContactValidator.reasonOf(failed);
+                ValidationMetrics.recordFailure(fields[0], field, reason);
+                parsed.rejects.add(new Reject(line, fields[0], field, reason));
+            }
+        }
+
+        // Store stage: adds the chunk's contacts and writes every rejected
+        // row, from parsing or from addAll, in line order
+        void store(Parsed parsed) {
+            ImportReport report = parsed.contacts.isEmpty()
+                    ? new ImportReport(0, new ArrayList<>())
+                    : service.addAll(parsed.contacts);
+            rows += parsed.rows;
+            accepted += report.getAccepted();
+            rejected += parsed.rejects.size() + report.getRejected();
+            if (sidecar == null) {
+                return;
+            }
+            try {
+                List<ImportReport.Rejection> stored = report.getRejections();
+                int s = 0;
+                for (Reject reject : parsed.rejects) {
+                    while (s < stored.size() && parsed.lines[stored.get(s).getIndex()] < reject.line) {
+                        writeStored(parsed, stored.get(s++));
+                    }
+                    write(reject.line, reject.contactId, reject.field, reject.reason);
+                }
+                while (s < stored.size()) {
+                    writeStored(parsed, stored.get(s++));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeStored(Parsed parsed, ImportReport.Rejection rejection) throws IOException {
+            write(parsed.lines[rejection.getIndex()], rejection.getContactId(),
+                    rejection.getField(), rejection.getReason());
+        }
+
+        private void write(long line, String contactId, String field, String reason)
+                throws IOException {
+            sidecar.write(Long.toString(line));
+            sidecar.write(',');
+            sidecar.write(csv(contactId));
+            sidecar.write(',');
+            sidecar.write(csv(field));
+            sidecar.write(',');
+            sidecar.write(csv(reason));
+            sidecar.newLine();
+        }
+    }
+
+    // Quotes a rejects-file value when needed; null is written empty
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
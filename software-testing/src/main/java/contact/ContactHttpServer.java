@@ -0,0 +1,408 @@
+package contact;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Embedded HTTP/1.1 front end for ContactService, on the JDK's built-in
+// com.sun.net.httpserver.
+//
+//  POST   /contacts         add one contact             201, 400, 409
+//  GET    /contacts/{id}    fetch one contact           200, 404
+//  PATCH  /contacts/{id}    update the fields given     204, 400, 404
+//  DELETE /contacts/{id}    delete one contact          204, 404
+//  POST   /contacts/bulk    add many contacts           200
+//
+// Contacts travel as the flat JSON objects of ContactFileFormat.NDJSON,
+// encoded and parsed straight from bytes without reflection. A PATCH
+// leaves missing or null fields unchanged. The bulk body is NDJSON, or
+// CSV when sent as text/csv; it is read line by line in batches through
+// ContactService.importRows, and the reply counts the rows and lists
+// every rejected one by line. Errors reply {"error": reason} plus the
+// failing field for validation errors.
+//
+// Connections are kept alive and pipelined requests are answered in
+// order. Handlers run on a fixed pool of daemon threads; idle
+// connections wait in the server's selector and hold no thread. Wrap a
+// thread-safe repository, since handlers call the service concurrently.
+//
+// Start the JVM with -Dsun.net.httpserver.nodelay=true. Replies are
+// small and written in pieces; without TCP_NODELAY the last piece can
+// wait out the client's delayed ACK, tens of milliseconds. The JDK
+// server reads the property once, when its first instance is created.
+public class ContactHttpServer implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ContactHttpServer.class.getName());
+
+    private static final String PATH = "/contacts";
+    private static final String BULK_PATH = PATH + "/bulk";
+    private static final String JSON = "application/json";
+
+    // Largest single-contact request body
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+    // Bulk read buffer, and so the longest bulk line
+    private static final int BULK_BUFFER_BYTES = 64 * 1024;
+    // Rows handed to importRows at once
+    private static final int BULK_BATCH = 1024;
+
+    // Per-thread buffer for encoding single-contact replies
+    private static final ThreadLocal<ByteBuffer> REPLY =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(ContactFileFormat.MAX_RECORD_BYTES));
+
+    private final ContactService service;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+
+    // Two handler threads per core, on an ephemeral port of localhost
+    public ContactHttpServer(ContactService service) throws IOException {
+        this(service, new InetSocketAddress("127.0.0.1", 0),
+                2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    // Binds address and starts serving at once; port 0 picks a free port
+    public ContactHttpServer(ContactService service, InetSocketAddress address, int threads)
+            throws IOException {
+        if (service == null) {
+            throw new IllegalArgumentException("Service cannot be null");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive");
+        }
+        this.service = service;
+        AtomicInteger threadId = new AtomicInteger();
+        this.handlers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "contact-http-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(handlers);
+        server.createContext(PATH, this::handle);
+        server.start();
+    }
+
+    // Port the server is listening on
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops accepting, closes open connections and ends the handlers
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdown();
+        try {
+            handlers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals(PATH) || path.equals(PATH + "/")) {
+                if (method.equals("POST")) {
+                    add(exchange);
+                } else {
+                    notAllowed(exchange, "POST");
+                }
+            } else if (path.equals(BULK_PATH) && method.equals("POST")) {
+                bulk(exchange);
+            } else if (!path.startsWith(PATH + "/") || path.indexOf('/', PATH.length() + 1) >= 0) {
+                // The context matches by raw prefix, so /contactsX lands here too
+                error(exchange, 404, "Not found", null);
+            } else {
+                String contactId = path.substring(PATH.length() + 1);
+                switch (method) {
+                    case "GET":
+                        get(exchange, contactId);
+                        break;
+                    case "PATCH":
+                        update(exchange, contactId);
+                        break;
+                    case "DELETE":
+                        delete(exchange, contactId);
+                        break;
+                    default:
+                        notAllowed(exchange, "GET, PATCH, DELETE");
+                }
+            }
+        } catch (ValidationException e) {
+            error(exchange, 400, e.getReason(), e.getField());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Request " + exchange.getRequestURI() + " failed", e);
+            error(exchange, 500, "Internal error", null);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void add(HttpExchange exchange) throws IOException {
+        String[] fields = readContact(exchange);
+        if (fields == null) {
+            return;
+        }
+        Contact contact = new Contact(fields[0], fields[1], fields[2], fields[3], fields[4]);
+        try {
+            service.addContact(contact);
+        } catch (IllegalArgumentException e) {
+            error(exchange, 409, e.getMessage(), null);
+            return;
+        }
+        exchange.getResponseHeaders().set("Location", PATH + "/" + contact.getContactId());
+        sendEmpty(exchange, 201);
+    }
+
+    private void get(HttpExchange exchange, String contactId) throws IOException {
+        Contact contact = service.getContactById(contactId);
+        if (contact == null) {
+            error(exchange, 404, "Contact ID does not exist", null);
+            return;
+        }
+        ByteBuffer reply = REPLY.get();
+        reply.clear();
+        ContactFileFormat.NDJSON.write(contact, reply);
+        send(exchange, 200, reply.array(), reply.position());
+    }
+
+    private void update(HttpExchange exchange, String contactId) throws IOException {
+        String[] fields = readContact(exchange);
+        if (fields == null) {
+            return;
+        }
+        if (fields[0] != null && !fields[0].equals(contactId)) {
+            error(exchange, 400, "Contact ID does not match path", "contactId");
+            return;
+        }
+        try {
+            service.updateContact(contactId, fields[1], fields[2], fields[3], fields[4]);
+        } catch (IllegalArgumentException e) {
+            error(exchange, 404, e.getMessage(), null);
+            return;
+        }
+        sendEmpty(exchange, 204);
+    }
+
+    private void delete(HttpExchange exchange, String contactId) throws IOException {
+        try {
+            service.deleteContact(contactId);
+        } catch (IllegalArgumentException e) {
+            error(exchange, 404, e.getMessage(), null);
+            return;
+        }
+        sendEmpty(exchange, 204);
+    }
+
+    // Reads a single JSON contact body into five fields, or replies with
+    // an error and returns null
+    private String[] readContact(HttpExchange exchange) throws IOException {
+        byte[] body = new byte[MAX_BODY_BYTES];
+        int length = 0;
+        InputStream in = exchange.getRequestBody();
+        int n;
+        while (length < body.length && (n = in.read(body, length, body.length - length)) > 0) {
+            length += n;
+        }
+        if (length == body.length && in.read() >= 0) {
+            error(exchange, 413, "Body larger than " + MAX_BODY_BYTES + " bytes", null);
+            return null;
+        }
+        while (length > 0 && (body[length - 1] == '\n' || body[length - 1] == '\r')) {
+            length--;
+        }
+        String[] fields = new String[5];
+        String malformed = ContactFileFormat.NDJSON.parse(body, 0, length, fields);
+        if (malformed != null) {
+            error(exchange, 400, malformed, null);
+            return null;
+        }
+        return fields;
+    }
+
+    private void bulk(HttpExchange exchange) throws IOException {
+        String type = exchange.getRequestHeaders().getFirst("Content-Type");
+        Bulk bulk = new Bulk(type != null && type.startsWith("text/csv")
+                ? ContactFileFormat.CSV : ContactFileFormat.NDJSON);
+        byte[] b = new byte[BULK_BUFFER_BYTES];
+        int filled = 0;
+        try (InputStream in = exchange.getRequestBody()) {
+            while (true) {
+                int n = in.read(b, filled, b.length - filled);
+                if (n < 0) {
+                    bulk.line(b, 0, filled);
+                    break;
+                }
+                // Only the new bytes can hold a line break; b[0, filled)
+                // is the start of an unfinished line
+                int from = filled;
+                filled += n;
+                int start = 0;
+                for (int i = from; i < filled; i++) {
+                    if (b[i] == '\n') {
+                        bulk.line(b, start, i);
+                        start = i + 1;
+                    }
+                }
+                if (start == 0 && filled == b.length) {
+                    error(exchange, 413, "Line " + (bulk.line + 1) + " longer than "
+                            + BULK_BUFFER_BYTES + " bytes", null);
+                    return;
+                }
+                System.arraycopy(b, start, b, 0, filled - start);
+                filled -= start;
+            }
+        }
+        bulk.flush();
+        byte[] reply = bulk.reply();
+        send(exchange, 200, reply, reply.length);
+    }
+
+    // One bulk request: pending rows with their line numbers, and totals.
+    // Rejections are kept with the line number as their index.
+    private final class Bulk {
+        final ContactFileFormat format;
+        final List<String[]> rows = new ArrayList<>();
+        final int[] lines = new int[BULK_BATCH];
+        final List<ImportReport.Rejection> rejections = new ArrayList<>();
+        final String[] fields = new String[5];
+        int line;
+        int count;
+        int accepted;
+
+        Bulk(ContactFileFormat format) {
+            this.format = format;
+        }
+
+        // Takes the line in b[start, end), without its line break
+        void line(byte[] b, int start, int end) {
+            line++;
+            if (end > start && b[end - 1] == '\r') {
+                end--;
+            }
+            if (end == start || (line == 1 && format.isHeader(b, start, end))) {
+                return;
+            }
+            count++;
+            String malformed = format.parse(b, start, end, fields);
+            if (malformed != null) {
+                rejections.add(new ImportReport.Rejection(line, null, null, malformed));
+                return;
+            }
+            lines[rows.size()] = line;
+            rows.add(fields.clone());
+            if (rows.size() == BULK_BATCH) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            ImportReport report = service.importRows(rows);
+            accepted += report.getAccepted();
+            for (ImportReport.Rejection rejection : report.getRejections()) {
+                rejections.add(new ImportReport.Rejection(lines[rejection.getIndex()],
+                        rejection.getContactId(), rejection.getField(), rejection.getReason()));
+            }
+            rows.clear();
+        }
+
+        // {"rows":n,"accepted":n,"rejected":n,"rejections":[{...}, ...]}
+        byte[] reply() {
+            rejections.sort(Comparator.comparingInt(ImportReport.Rejection::getIndex));
+            ByteArrayOutputStream out = new ByteArrayOutputStream(64 + rejections.size() * 96);
+            ByteBuffer scratch = REPLY.get();
+            scratch.clear();
+            putAscii(scratch, "{\"rows\":" + count + ",\"accepted\":" + accepted
+                    + ",\"rejected\":" + rejections.size() + ",\"rejections\":[");
+            for (int i = 0; i < rejections.size(); i++) {
+                ImportReport.Rejection r = rejections.get(i);
+                putAscii(scratch, (i == 0 ? "" : ",") + "{\"line\":" + r.getIndex() + ",\"contactId\":");
+                putJson(scratch, r.getContactId());
+                putAscii(scratch, ",\"field\":");
+                putJson(scratch, r.getField());
+                putAscii(scratch, ",\"reason\":");
+                putJson(scratch, r.getReason());
+                scratch.put((byte) '}');
+                out.write(scratch.array(), 0, scratch.position());
+                scratch.clear();
+            }
+            putAscii(scratch, "]}\n");
+            out.write(scratch.array(), 0, scratch.position());
+            return out.toByteArray();
+        }
+    }
+
+    private static void notAllowed(HttpExchange exchange, String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        error(exchange, 405, "Method not allowed", null);
+    }
+
+    // Replies {"error":reason} with the field when there is one
+    private static void error(HttpExchange exchange, int status, String reason, String field)
+            throws IOException {
+        ByteBuffer reply = REPLY.get();
+        reply.clear();
+        putAscii(reply, "{\"error\":");
+        putJson(reply, reason);
+        if (field != null) {
+            putAscii(reply, ",\"field\":");
+            putJson(reply, field);
+        }
+        putAscii(reply, "}\n");
+        send(exchange, status, reply.array(), reply.position());
+    }
+
+    // Replies with no body. The request body is drained first: once a
+    // bodiless reply goes out, the JDK server drops a keep-alive
+    // connection whose request body was never read.
+    private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body, int length)
+            throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body, 0, length);
+        }
+    }
+
+    private static void putAscii(ByteBuffer out, String text) {
+        out.put(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Error texts are short, but keep a long one from overflowing the
+    // fixed reply buffer
+    private static void putJson(ByteBuffer out, String value) {
+        if (value != null && value.length() > 100) {
+            value = value.substring(0, 100);
+        }
+        ContactFileFormat.putJson(out, value);
+    }
+}
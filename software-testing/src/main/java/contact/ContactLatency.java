@@ -0,0 +1,195 @@
+package contact;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+//
+// Optional latency instrumentation for ContactService.
+//
+// Off by default, and then costs one volatile read per call. Once
+// enabled, addContact, updateContact, deleteContact and getContactById
+// record their duration in a LatencyHistogram, along with each
+// repository call they make and, for updates, the time spent validating
+// the new values. Calls that throw are not recorded.
+//
+// Timestamps are shared between phases: the end of one is the start of
+// the next, so an operation costs one System.nanoTime read per phase
+// plus one, and one atomic increment per histogram. Where reading the
+// clock is slow, as on many virtual machines, enable sampling to time
+// only some calls. Calls are picked at random per thread, so the
+// percentiles stay unbiased; counts are then of timed calls only.
+//
+// While a JFR recording has contact.Operation enabled, every recorded
+// operation is also committed as a JFR event with its operation name,
+// contact ID and elapsed time.
+//
+
+public class ContactLatency {
+
+    // Histogram indexes, in OPERATIONS order
+    static final int ADD = 0;
+    static final int DELETE = 1;
+    static final int GET = 2;
+    static final int UPDATE = 3;
+    static final int UPDATE_VALIDATION = 4;
+    static final int REPOSITORY_ADD = 5;
+    static final int REPOSITORY_DELETE = 6;
+    static final int REPOSITORY_FIND = 7;
+    static final int REPOSITORY_REPLACE = 8;
+
+    private static final String[] OPERATIONS = {"service.add", "service.delete",
+            "service.get", "service.update", "service.update.validation",
+            "repository.add", "repository.deleteById", "repository.findById",
+            "repository.replace"};
+
+    // Null while instrumentation is off
+    private static volatile LatencyHistogram[] histograms;
+
+    // Calls are timed when the low random bits under this mask are 0
+    private static volatile int sampleMask;
+
+    // Private constructor to prevent instantiation
+    private ContactLatency() {}
+
+    // Turns recording on for every call; keeps the counts if it already was
+    public static void enable() {
+        enable(1);
+    }
+
+    // Turns recording on for about one call in sampleEvery, a power of
+    // two; keeps the counts if it already was
+    public static synchronized void enable(int sampleEvery) {
+        if (sampleEvery <= 0 || Integer.bitCount(sampleEvery) != 1) {
+            throw new IllegalArgumentException("Sample rate must be a power of two");
+        }
+        sampleMask = sampleEvery - 1;
+        if (histograms == null) {
+            LatencyHistogram[] fresh = new LatencyHistogram[OPERATIONS.length];
+            for (int i = 0; i < fresh.length; i++) {
+                fresh[i] = new LatencyHistogram();
+            }
+            histograms = fresh;
+        }
+    }
+
+    // Turns recording off and drops the counts
+    public static synchronized void disable() {
+        histograms = null;
+    }
+
+    public static boolean isEnabled() {
+        return histograms != null;
+    }
+
+    // Point-in-time copy of every histogram, in nanoseconds, keyed by
+    // metric name:
+    //  latency.<op>.count             calls recorded
+    //  latency.<op>.p50, .p90, .p99,
+    //  .p999 and .max                 percentiles, to within 3%
+    // Empty while instrumentation is off.
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        LatencyHistogram[] current = histograms;
+        if (current == null) {
+            return snapshot;
+        }
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            long[] counts = current[i].counts();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            String prefix = "latency." + OPERATIONS[i];
+            snapshot.put(prefix + ".count", total);
+            snapshot.put(prefix + ".p50", LatencyHistogram.valueAtPercentile(counts, total, 50));
+            snapshot.put(prefix + ".p90", LatencyHistogram.valueAtPercentile(counts, total, 90));
+            snapshot.put(prefix + ".p99", LatencyHistogram.valueAtPercentile(counts, total, 99));
+            snapshot.put(prefix + ".p999", LatencyHistogram.valueAtPercentile(counts, total, 99.9));
+            snapshot.put(prefix + ".max", LatencyHistogram.valueAtPercentile(counts, total, 100));
+        }
+        return snapshot;
+    }
+
+    // Reset every histogram to empty
+    public static void reset() {
+        LatencyHistogram[] current = histograms;
+        if (current != null) {
+            for (LatencyHistogram histogram : current) {
+                histogram.reset();
+            }
+        }
+    }
+
+    // Timestamp opening an operation, or 0 while off or when the call is
+    // not sampled. Pass it on to lap and finish, which do nothing once
+    // they see 0.
+    static long start() {
+        if (histograms == null) {
+            return 0;
+        }
+        int mask = sampleMask;
+        if (mask != 0 && (ThreadLocalRandom.current().nextInt() & mask) != 0) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    // A fresh timestamp, or 0 if since is 0
+    static long stamp(long since) {
+        return since == 0 ? 0 : System.nanoTime();
+    }
+
+    // Records the time from since to now under op and returns now, the
+    // start of the next phase
+    static long lap(int op, long since) {
+        LatencyHistogram[] current = histograms;
+        if (since == 0 || current == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        current[op].record(now - since);
+        return now;
+    }
+
+    // Records a whole operation from start to end and offers it to JFR
+    static void finish(int op, String contactId, long start, long end) {
+        LatencyHistogram[] current = histograms;
+        if (start == 0 || end == 0 || current == null) {
+            return;
+        }
+        current[op].record(end - start);
+        OperationEvent event = new OperationEvent();
+        if (event.isEnabled()) {
+            event.operation = OPERATIONS[op];
+            event.contactId = contactId;
+            event.elapsed = end - start;
+            event.commit();
+        }
+    }
+
+    // JFR view of one recorded operation. Its own duration is not set,
+    // since the time was already taken; read elapsed instead.
+    @Name("contact.Operation")
+    @Label("Contact Operation")
+    @Category("Contact")
+    @Description("A ContactService call recorded by ContactLatency")
+    static final class OperationEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Contact ID")
+        String contactId;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+}
@@ -0,0 +1,275 @@
+package contact;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+// Asynchronous structured logging for the contact hot paths.
+//
+// ContactService, ContactValidator and ValidationMetrics log through
+// here instead of calling java.util.logging directly. A call its
+// Logger is not enabled for, or below the level set with setLevel,
+// returns after two field reads, without building a message. Otherwise
+// its fields (op, contactId, field, reason) are copied into a
+// preallocated slot of a bounded ring buffer and the call returns; it
+// never waits for a lock, the handler or I/O.
+//
+// One daemon thread, contact-log, drains the ring and hands each entry
+// to its source Logger as a LogRecord stamped with the caller's time and
+// thread. The message is logfmt, with null fields left out:
+//   op=update contactId=42 field=phoneNumber reason="Length must be 10"
+// Control characters in a value are escaped, so one entry is always one
+// line. Handlers, level filters and formatting all run on that thread.
+//
+// When the writer falls behind and the ring fills, new entries are
+// dropped and counted. The next entry written reports how many were
+// lost, so a flood of bad input costs counters rather than throughput.
+public class ContactLog {
+
+    private static final int CAPACITY = 8192;
+    private static final int MASK = CAPACITY - 1;
+
+    // Writer idle backoff, doubling from MIN to MAX while the ring is empty
+    private static final long MIN_IDLE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    // One pending entry; written by the producer that claimed it and read
+    // by the writer once its sequence is published
+    private static final class Entry {
+        Logger logger;
+        Level level;
+        String op;
+        String contactId;
+        String field;
+        String reason;
+        long millis;
+        long threadId;
+    }
+
+    private static final Entry[] entries = new Entry[CAPACITY];
+
+    // Slot i is free for position p when sequences[i] == p, and holds
+    // the entry for p once it equals p + 1
+    private static final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+
+    // Next position to claim; head is owned by the writer
+    private static final AtomicLong tail = new AtomicLong();
+    private static long head;
+
+    private static final LongAdder dropped = new LongAdder();
+    private static final AtomicLong written = new AtomicLong();
+    private static long droppedReported;
+
+    // Lowest level queued, as Level.intValue(); ALL by default, which
+    // leaves it to the source loggers
+    private static volatile int threshold = Level.ALL.intValue();
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            entries[i] = new Entry();
+            sequences.set(i, i);
+        }
+        Thread writer = new Thread(ContactLog::drainForever, "contact-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Private constructor to prevent instantiation
+    private ContactLog() {}
+
+    // Queues only entries at level and above, on top of the source
+    // loggers' own levels; ALL leaves it to the loggers
+    public static void setLevel(Level level) {
+        threshold = level.intValue();
+    }
+
+    // Whether an entry at level for logger would be queued
+    public static boolean isLoggable(Logger logger, Level level) {
+        return level.intValue() >= threshold && logger.isLoggable(level);
+    }
+
+    // Queues a FINE trace of op
+    static void fine(Logger logger, String op, String contactId) {
+        if (isLoggable(logger, Level.FINE)) {
+            offer(logger, Level.FINE, op, contactId, null, null);
+        }
+    }
+
+    // Queues an entry; any field may be null
+    static void log(Logger logger, Level level, String op, String contactId,
+                    String field, String reason) {
+        if (isLoggable(logger, level)) {
+            offer(logger, level, op, contactId, field, reason);
+        }
+    }
+
+    // Waits up to timeoutMillis for every entry queued before the call
+    // to be written; returns false on timeout
+    public static boolean flush(long timeoutMillis) {
+        long target = tail.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (written.get() < target) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(MIN_IDLE_NANOS);
+        }
+        return true;
+    }
+
+    // Point-in-time copy of every counter, keyed by metric name:
+    //  log.written   entries handed to their logger
+    //  log.dropped   entries lost to a full ring
+    //  log.backlog   entries waiting for the writer
+    //  log.capacity  ring size
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        long done = written.get();
+        snapshot.put("log.written", done);
+        snapshot.put("log.dropped", dropped.sum());
+        snapshot.put("log.backlog", Math.max(0, tail.get() - done));
+        snapshot.put("log.capacity", (long) CAPACITY);
+        return snapshot;
+    }
+
+    private static void offer(Logger logger, Level level, String op, String contactId,
+                              String field, String reason) {
+        long position = tail.get();
+        int slot;
+        while (true) {
+            slot = (int) position & MASK;
+            long gap = sequences.get(slot) - position;
+            if (gap == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (gap < 0) {
+                // Slot still holds an entry from one lap ago: ring is full
+                dropped.increment();
+                return;
+            } else {
+                position = tail.get();
+            }
+        }
+        Entry entry = entries[slot];
+        entry.logger = logger;
+        entry.level = level;
+        entry.op = op;
+        entry.contactId = contactId;
+        entry.field = field;
+        entry.reason = reason;
+        entry.millis = System.currentTimeMillis();
+        entry.threadId = Thread.currentThread().getId();
+        sequences.set(slot, position + 1);
+    }
+
+    // Writer thread: drains the ring, backing off while it is empty
+    private static void drainForever() {
+        long idle = MIN_IDLE_NANOS;
+        while (true) {
+            if (drain()) {
+                idle = MIN_IDLE_NANOS;
+            } else {
+                LockSupport.parkNanos(idle);
+                idle = Math.min(idle * 2, MAX_IDLE_NANOS);
+            }
+        }
+    }
+
+    // Writes every published entry in order; false if there was none.
+    // Stops at an entry still being filled and picks it up next pass.
+    private static boolean drain() {
+        boolean any = false;
+        while (true) {
+            int slot = (int) head & MASK;
+            if (sequences.get(slot) != head + 1) {
+                return any;
+            }
+            Entry entry = entries[slot];
+            LogRecord record = toRecord(entry);
+            Logger logger = entry.logger;
+            entry.logger = null;
+            entry.op = null;
+            entry.contactId = null;
+            entry.field = null;
+            entry.reason = null;
+            sequences.set(slot, head + CAPACITY);
+            head++;
+            any = true;
+            try {
+                logger.log(record);
+            } catch (Throwable e) {
+                // A failing handler must not stop the writer, even with
+                // an Error; callers would only see drops from then on
+            }
+            written.incrementAndGet();
+        }
+    }
+
+    private static LogRecord toRecord(Entry entry) {
+        StringBuilder message = new StringBuilder(96);
+        append(message, "op", entry.op);
+        append(message, "contactId", entry.contactId);
+        append(message, "field", entry.field);
+        append(message, "reason", entry.reason);
+        long lost = dropped.sum();
+        if (lost > droppedReported) {
+            append(message, "dropped", Long.toString(lost - droppedReported));
+            droppedReported = lost;
+        }
+        LogRecord record = new LogRecord(entry.level, message.toString());
+        record.setLoggerName(entry.logger.getName());
+        record.setInstant(Instant.ofEpochMilli(entry.millis));
+        record.setLongThreadID(entry.threadId);
+        return record;
+    }
+
+    // Appends key=value, quoting values with spaces, quotes, '=' or
+    // control characters; inside quotes, control characters become \n,
+    // \r, \t or a four-digit hex escape
+    private static void append(StringBuilder message, String key, String value) {
+        if (value == null) {
+            return;
+        }
+        if (message.length() > 0) {
+            message.append(' ');
+        }
+        message.append(key).append('=');
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ' ' || c == '"' || c == '=' || Character.isISOControl(c);
+        }
+        if (!quote) {
+            message.append(value);
+            return;
+        }
+        message.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                message.append('\\').append(c);
+            } else if (c == '\n') {
+                message.append("\\n");
+            } else if (c == '\r') {
+                message.append("\\r");
+            } else if (c == '\t') {
+                message.append("\\t");
+            } else if (Character.isISOControl(c)) {
+                message.append(String.format("\\u%04x", (int) c));
+            } else {
+                message.append(c);
+            }
+        }
+        message.append('"');
+    }
+}
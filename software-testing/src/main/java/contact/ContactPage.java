@@ -0,0 +1,92 @@
+package contact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+
+// One page of contacts from ContactRepository.page, plus the cursor
+// for the next page.
+//
+// Pages walk contacts in a fixed order that depends only on each
+// contactId: the bit-reversed spread hash of the ID, then the ID
+// itself. The order does not change as a store grows, shrinks or
+// rehashes, so the cursor is just the last ID returned. A contact
+// stored for the whole walk is returned exactly once; one added or
+// deleted during the walk may or may not appear.
+public class ContactPage {
+
+    // Walk order shared by every repository
+    static final Comparator<String> ID_ORDER = (a, b) -> {
+        int byKey = Integer.compareUnsigned(orderKey(a), orderKey(b));
+        return byKey != 0 ? byKey : a.compareTo(b);
+    };
+
+    private final List<Contact> contacts;
+    private final String nextCursor;
+
+    ContactPage(List<Contact> contacts, String nextCursor) {
+        this.contacts = Collections.unmodifiableList(contacts);
+        this.nextCursor = nextCursor;
+    }
+
+    // Contacts on this page, in walk order
+    public List<Contact> getContacts() {
+        return contacts;
+    }
+
+    // Cursor to pass for the next page, or null after the last page
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    // Position of contactId in the walk. Reversing the bits of the same
+    // spread hash HashContactRepository uses puts every home bucket's
+    // entries in one contiguous run of the order, at any table size.
+    static int orderKey(String contactId) {
+        int h = contactId.hashCode();
+        return Integer.reverse(h ^ (h >>> 16));
+    }
+
+    static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+    }
+
+    // Builds the page after cursor from a full pass over contacts,
+    // keeping only the best limit candidates in memory
+    static ContactPage collect(Spliterator<Contact> contacts, String cursor, int limit) {
+        checkLimit(limit);
+        // Max-heap so the contact furthest along the walk is evicted first
+        PriorityQueue<Contact> heap = new PriorityQueue<>(limit + 1,
+                (a, b) -> ID_ORDER.compare(b.getContactId(), a.getContactId()));
+        contacts.forEachRemaining(contact -> {
+            if (cursor != null && ID_ORDER.compare(contact.getContactId(), cursor) <= 0) {
+                return;
+            }
+            heap.add(contact);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        });
+        List<Contact> page = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            page.add(heap.poll());
+        }
+        Collections.reverse(page);
+        return of(page, limit);
+    }
+
+    // Wraps a page in walk order; a full page may have more after it
+    static ContactPage of(List<Contact> page, int limit) {
+        String next = page.size() < limit ? null : page.get(page.size() - 1).getContactId();
+        return new ContactPage(page, next);
+    }
+}
@@ -1,5 +1,11 @@
 package contact;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 // Repository interface for Contact storage.
 //
 // Decouple storage implementation from service logic.
@@ -19,4 +25,102 @@ public interface ContactRepository {
 
     // Deletes a contact by ID.
     void deleteById(String contactId);
+
+    // Adds every contact in one call and returns the ones skipped because
+    // their ID is already stored. The caller is expected to have removed
+    // duplicates within the batch itself.
+    default List<Contact> addBatch(List<Contact> contacts) {
+        List<Contact> rejected = new ArrayList<>();
+        for (Contact contact : contacts) {
+            if (findById(contact.getContactId()) != null) {
+                rejected.add(contact);
+            } else {
+                add(contact);
+            }
+        }
+        return rejected;
+    }
+
+    // Secondary lookups. Stores without secondary indexes do not support
+    // these; wrap them in IndexedContactRepository to add them.
+
+    // Finds contacts with this exact phone number.
+    default List<Contact> findByPhoneNumber(String phoneNumber) {
+        throw new UnsupportedOperationException("Repository has no phone number index");
+    }
+
+    // Finds contacts with this exact last name, sorted by name then ID.
+    default List<Contact> findByLastName(String lastName) {
+        throw new UnsupportedOperationException("Repository has no last name index");
+    }
+
+    // Finds contacts with this exact first name, sorted by name then ID.
+    default List<Contact> findByFirstName(String firstName) {
+        throw new UnsupportedOperationException("Repository has no first name index");
+    }
+
+    // Full iteration. Stores that cannot enumerate their contacts do not
+    // support these.
+
+    // Splits the stored contacts for a lazy walk over all of them. Never
+    // copies the store. Thread-safe stores return a weakly consistent
+    // view: contacts stored for the whole walk are seen once, others
+    // may or may not be.
+    default Spliterator<Contact> spliterator() {
+        throw new UnsupportedOperationException("Repository cannot be iterated");
+    }
+
+    // Lazy stream of every stored contact; see spliterator().
+    default Stream<Contact> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // Returns up to limit contacts after cursor in ContactPage walk
+    // order; pass null for the first page. The cursor stays valid
+    // across adds and deletes. The default walks the whole store per
+    // page, holding only limit contacts; stores that can seek override it.
+    default ContactPage page(String cursor, int limit) {
+        return ContactPage.collect(spliterator(), cursor, limit);
+    }
+
+    // Text search over names and addresses. Wrap a store in
+    // SearchableContactRepository to add it.
+
+    // Finds up to limit contacts with a name or address word starting
+    // with prefix, best match first.
+    default List<Contact> searchByPrefix(String prefix, int limit) {
+        throw new UnsupportedOperationException("Repository has no search index");
+    }
+
+    // Finds up to limit contacts with a name or address word close to
+    // query, tolerating small typos, best match first.
+    default List<Contact> searchFuzzy(String query, int limit) {
+        throw new UnsupportedOperationException("Repository has no search index");
+    }
+
+    // Point-in-time views. Only stores built on persistent structures,
+    // such as SnapshotContactRepository, support this.
+
+    // Returns a read-only view of the contacts stored right now. Later
+    // writes do not show in it, and holding or reading it never blocks
+    // writers.
+    default ContactRepository snapshotView() {
+        throw new UnsupportedOperationException("Repository cannot take snapshots");
+    }
+
+    // Swaps the stored contact for replacement if the stored one is still
+    // expected. Returns false when another writer replaced or deleted it
+    // first, so callers can re-read and retry.
+    //
+    // The default is check-then-act and only safe for single-threaded
+    // stores; thread-safe repositories override it with a compare-and-set.
+    default boolean replace(Contact expected, Contact replacement) {
+        String contactId = expected.getContactId();
+        if (findById(contactId) != expected) {
+            return false;
+        }
+        deleteById(contactId);
+        add(replacement);
+        return true;
+    }
 }
@@ -0,0 +1,402 @@
+package contact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Prefix and typo-tolerant search over contact names and addresses.
+//
+// Terms are the lower-cased first name, last name, whole address and
+// each word of the address. Every term maps to the contacts holding it.
+//
+// Prefix queries scan a term dictionary sorted by length, then text.
+// The terms of one length that start with the prefix form a contiguous
+// range, and a shorter term always scores better than a longer one, so
+// a query visits lengths from shortest up and stops as soon as the
+// shorter terms have filled the top k.
+//
+// Fuzzy queries use a bigram index to find terms that share enough
+// two-letter grams with the query to possibly be within the edit
+// budget (the q-gram count filter), then confirm each candidate with a
+// bounded edit distance. Only single-word terms carry bigrams, so
+// whole addresses are prefix-only. Queries of three chars or fewer are
+// answered by prefix only, as the filter cannot separate them.
+//
+// Results are the top k contacts by score, best match first: closer
+// terms rank higher and name matches beat address matches. At most k
+// contacts are read from each term, so the cost of a query depends on
+// k and the terms it matches, not on how common a name is; contacts
+// that tie on score may come back in any order.
+//
+// Thread-safe. Callers must serialize add and remove for the same
+// contactId, as SearchableContactRepository does.
+public class ContactSearchIndex {
+
+    // Field penalties added to a match's distance when ranking
+    private static final int NAME = 0;
+    private static final int ADDRESS = 1;
+    private static final int ADDRESS_WORD = 2;
+
+    // Orders terms by length, then text, so each length is one range
+    private static final Comparator<String> LENGTH_ORDER =
+            Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    private static final char PAD = '\u0001';
+
+    // term -> contactId -> contact and the best field it appears in
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Posting>> postings =
+            new ConcurrentHashMap<>();
+    // The same terms in LENGTH_ORDER for prefix ranges
+    private final ConcurrentSkipListSet<String> terms = new ConcurrentSkipListSet<>(LENGTH_ORDER);
+    // bigram, term length and position -> terms of that length holding
+    // it there; keying on length and position skips terms too long or
+    // short to be in budget and grams too far from where the query has them
+    private final ConcurrentHashMap<String, Set<String>> bigrams = new ConcurrentHashMap<>();
+
+    // One contact under one term
+    private static final class Posting {
+        final Contact contact;
+        final int field;
+
+        Posting(Contact contact, int field) {
+            this.contact = contact;
+            this.field = field;
+        }
+    }
+
+    // A scored candidate for the result list
+    private static final class Hit {
+        final Contact contact;
+        final int score;
+
+        Hit(Contact contact, int score) {
+            this.contact = contact;
+            this.score = score;
+        }
+    }
+
+    // Indexes every term of contact
+    public void add(Contact contact) {
+        termsOf(contact).forEach((term, field) -> addPosting(term, contact, field));
+    }
+
+    // Removes contact from every term; pass the version that was added
+    public void remove(Contact contact) {
+        for (String term : termsOf(contact).keySet()) {
+            removePosting(term, contact.getContactId());
+        }
+    }
+
+    // Number of distinct terms indexed
+    public int termCount() {
+        return postings.size();
+    }
+
+    // Contacts with a term starting with prefix, best k first
+    public List<Contact> searchByPrefix(String prefix, int limit) {
+        if (prefix == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String query = normalize(prefix);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return topK(prefixHits(query, limit), limit);
+    }
+
+    // Hits for contacts with a term starting with query, holding at least
+    // the best limit of them; query is normalized and not empty
+    private Map<String, Hit> prefixHits(String query, int limit) {
+        Map<String, Hit> hits = new HashMap<>();
+        StringBuilder from = new StringBuilder(query);
+        // Stops once no term is this long or longer
+        for (int length = query.length(); terms.ceiling(from.toString()) != null; length++) {
+            // Terms of this length score from 4 * extra chars to 2 more
+            // than that, always below every longer term
+            int baseScore = (length - query.length()) * 4;
+            int settled = hits.size();
+            // Smallest string of this length with the prefix
+            for (String term : terms.tailSet(from.toString(), true)) {
+                if (term.length() != length || !term.startsWith(query)) {
+                    break;
+                }
+                settled += collect(hits, term, baseScore, limit);
+                // k hits at the best score this length allows cannot be beaten
+                if (settled >= limit) {
+                    return hits;
+                }
+            }
+            if (hits.size() >= limit) {
+                break;
+            }
+            from.append('\u0000');
+        }
+        return hits;
+    }
+
+    // Contacts with a term within a small edit distance of query, or
+    // starting with it, best k first. Allows one edit for queries up to
+    // five chars and two beyond that.
+    public List<Contact> searchFuzzy(String query, int limit) {
+        if (query == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String q = normalize(query);
+        if (q.length() <= 3) {
+            return searchByPrefix(q, limit);
+        }
+        int maxEdits = maxEdits(q);
+
+        // Terms the query is a prefix of also count as matches, scored as
+        // searchByPrefix scores them. Prefix hits it leaves out rank below
+        // k that it keeps, so they cannot make the top k.
+        Map<String, Hit> hits = prefixHits(q, limit);
+        for (String candidate : candidates(q, maxEdits)) {
+            int distance = boundedDistance(q, candidate, maxEdits);
+            if (distance <= maxEdits) {
+                // Typos rank below exact and prefix matches of equal length
+                collect(hits, candidate, distance * 4 + (distance > 0 ? 2 : 0), limit);
+            }
+        }
+        return topK(hits, limit);
+    }
+
+    // Number of terms a fuzzy query for query passes through the count
+    // filter to the edit distance check, for tests
+    int fuzzyCandidates(String query) {
+        String q = normalize(query);
+        return candidates(q, maxEdits(q)).size();
+    }
+
+    // Allows one edit for queries up to five chars and two beyond that
+    private static int maxEdits(String query) {
+        return query.length() <= 5 ? 1 : 2;
+    }
+
+    // Terms of a compatible length sharing enough bigrams with query to
+    // possibly be within maxEdits of it.
+    //
+    // A padded term has length + 1 bigrams. Each insertion, deletion or
+    // substitution destroys at most two of the longer term's, and a swap
+    // of adjacent chars at most three, so a match shares at least
+    // length + 1 - 3 * maxEdits grams with the query. A shared gram moves
+    // at most maxEdits positions, so only grams near their position in
+    // the query are counted.
+    private List<String> candidates(String query, int maxEdits) {
+        List<String> grams = bigramsOf(query);
+        Map<String, Integer> shared = new HashMap<>();
+        for (int length = Math.max(1, query.length() - maxEdits);
+                length <= query.length() + maxEdits; length++) {
+            for (int position = 0; position < grams.size(); position++) {
+                int last = Math.min(length, position + maxEdits);
+                for (int at = Math.max(0, position - maxEdits); at <= last; at++) {
+                    Set<String> matching = bigrams.get(gramKey(grams.get(position), length, at));
+                    if (matching == null) {
+                        continue;
+                    }
+                    for (String term : matching) {
+                        shared.merge(term, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            int longer = Math.max(query.length(), candidate.getKey().length());
+            if (candidate.getValue() >= Math.max(1, longer + 1 - 3 * maxEdits)) {
+                result.add(candidate.getKey());
+            }
+        }
+        return result;
+    }
+
+    // Records up to limit contacts under term with the given base score,
+    // keeping each contact's best score. Returns how many contacts it
+    // gave the base score, the best this term allows.
+    private int collect(Map<String, Hit> hits, String term, int baseScore, int limit) {
+        ConcurrentHashMap<String, Posting> matches = postings.get(term);
+        if (matches == null) {
+            return 0;
+        }
+        int read = 0;
+        int atBase = 0;
+        for (Posting posting : matches.values()) {
+            if (read++ >= limit) {
+                break;
+            }
+            int score = baseScore + posting.field;
+            Hit best = hits.get(posting.contact.getContactId());
+            if (best == null || score < best.score) {
+                hits.put(posting.contact.getContactId(), new Hit(posting.contact, score));
+                if (score == baseScore) {
+                    atBase++;
+                }
+            }
+        }
+        return atBase;
+    }
+
+    // Best limit hits by score, then by name order
+    private static List<Contact> topK(Map<String, Hit> hits, int limit) {
+        // Max-heap on rank so the worst kept hit is evicted first
+        PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int byScore = Integer.compare(b.score, a.score);
+            return byScore != 0 ? byScore
+                    : IndexedContactRepository.NAME_ORDER.compare(b.contact, a.contact);
+        });
+        for (Hit hit : hits.values()) {
+            if (heap.size() == limit && hit.score > heap.peek().score) {
+                continue;
+            }
+            heap.add(hit);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Contact> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().contact);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private void addPosting(String term, Contact contact, int field) {
+        postings.compute(term, (t, byId) -> {
+            if (byId == null) {
+                byId = new ConcurrentHashMap<>();
+                terms.add(t);
+                if (isWord(t)) {
+                    List<String> grams = bigramsOf(t);
+                    for (int at = 0; at < grams.size(); at++) {
+                        bigrams.computeIfAbsent(gramKey(grams.get(at), t.length(), at),
+                                g -> ConcurrentHashMap.newKeySet()).add(t);
+                    }
+                }
+            }
+            byId.put(contact.getContactId(), new Posting(contact, field));
+            return byId;
+        });
+    }
+
+    private void removePosting(String term, String contactId) {
+        postings.computeIfPresent(term, (t, byId) -> {
+            byId.remove(contactId);
+            if (!byId.isEmpty()) {
+                return byId;
+            }
+            // Last contact for this term; drop it from the other indexes
+            terms.remove(t);
+            if (isWord(t)) {
+                List<String> grams = bigramsOf(t);
+                for (int at = 0; at < grams.size(); at++) {
+                    bigrams.computeIfPresent(gramKey(grams.get(at), t.length(), at), (g, set) -> {
+                        set.remove(t);
+                        return set.isEmpty() ? null : set;
+                    });
+                }
+            }
+            return null;
+        });
+    }
+
+    // Terms of a contact and the best field each comes from
+    private static Map<String, Integer> termsOf(Contact contact) {
+        Map<String, Integer> result = new HashMap<>();
+        addTerm(result, contact.getFirstName(), NAME);
+        addTerm(result, contact.getLastName(), NAME);
+        String address = normalize(contact.getAddress());
+        addTerm(result, address, ADDRESS);
+        for (String word : address.split("[^\\p{L}\\p{N}]+")) {
+            addTerm(result, word, ADDRESS_WORD);
+        }
+        return result;
+    }
+
+    private static void addTerm(Map<String, Integer> result, String value, int field) {
+        String term = normalize(value);
+        if (!term.isEmpty()) {
+            result.merge(term, field, Math::min);
+        }
+    }
+
+    private static boolean isWord(String term) {
+        return term.indexOf(' ') < 0;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Bigrams of a term padded at both ends, so word edges still produce
+    // grams, in position order
+    private static List<String> bigramsOf(String term) {
+        String padded = PAD + term + PAD;
+        List<String> grams = new ArrayList<>(padded.length() - 1);
+        for (int i = 0; i + 2 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    private static String gramKey(String gram, int termLength, int position) {
+        return gram + (char) termLength + (char) position;
+    }
+
+    // Edit distance between a and b counting insertions, deletions,
+    // substitutions and swaps of adjacent chars as one edit each, or
+    // maxEdits + 1 as soon as it is certain to exceed maxEdits
+    static int boundedDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+        // Only cells within maxEdits of the diagonal can stay in budget,
+        // so each row fills that band and leaves the rest out of budget
+        int over = maxEdits + 1;
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        Arrays.fill(beforePrevious, over);
+        Arrays.fill(current, over);
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = Math.min(j, over);
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - maxEdits);
+            int to = Math.min(b.length(), i + maxEdits);
+            current[from - 1] = from == 1 ? Math.min(i, over) : over;
+            int rowMin = current[from - 1];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int best = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                        previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2)
+                        && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    best = Math.min(best, beforePrevious[j - 2] + 1);
+                }
+                current[j] = Math.min(best, over);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < b.length()) {
+                current[to + 1] = over;
+            }
+            if (rowMin > maxEdits) {
+                return over;
+            }
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
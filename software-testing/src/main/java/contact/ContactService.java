@@ -3,7 +3,16 @@
 
 package contact;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 // Manages Contact objects.
 // Provides CRUD operations with logging, input validation, and null checks.
@@ -11,23 +20,40 @@ public class ContactService {
 	// repository responsible for storing, finding, and deleting contacts.
 	private final ContactRepository repo;
 
-	// Logger for tracing service operations.
+	// Receives every accepted change; null when nobody listens.
+	private final ContactEventBus events;
+
+	// Logger for tracing service operations, written through ContactLog
+	// so callers never wait on its handlers.
 	private static final Logger LOGGER =
 			Logger.getLogger(ContactService.class.getName());
 
-	// Default constructor uses an array-backed repository.
+	// Default constructor uses a hash-indexed repository.
 	// This keeps usage simple while preserving the ability to
 	// inject other implementations in tests.
 	public ContactService() {
-		this(new ArrayContactRepository());
+		this(new HashContactRepository());
 	}
 
 	// Constructor that accepts a repository implementation.
 	public ContactService(ContactRepository repo) {
+		this(repo, null);
+	}
+
+	// Constructor that also publishes every add, update and delete the
+	// repository accepts to events, for downstream caches and search.
+	public ContactService(ContactRepository repo, ContactEventBus events) {
 		if (repo == null) {
 			throw new IllegalArgumentException("Repository cannot be null");
 		}
 		this.repo = repo;
+		this.events = events;
+	}
+
+	// Constructor that puts a read-through cache of up to cacheSize IDs
+	// in front of the repository. Use it for slow or remote stores.
+	public ContactService(ContactRepository repo, int cacheSize) {
+		this(new CachingContactRepository(repo, cacheSize));
 	}
 
 	// Return number of contacts currently stored.
@@ -36,57 +62,238 @@ public class ContactService {
 	}
 
 	// Adds new contact to the repository.
-	// Repository enforces unique IDs and capacity limit.
+	// Repository enforces unique IDs and any capacity limit.
 	public void addContact(Contact contact) {
-		LOGGER.fine(() -> "Adding contact " + contact.getContactId());
+		ContactLog.fine(LOGGER, "add", contact == null ? null : contact.getContactId());
+		long start = ContactLatency.start();
 		repo.add(contact);
+		long end = ContactLatency.lap(ContactLatency.REPOSITORY_ADD, start);
+		if (events != null) {
+			events.publish(ContactEvent.added(contact));
+			end = ContactLatency.stamp(end);
+		}
+		ContactLatency.finish(ContactLatency.ADD, contact.getContactId(), start, end);
+		}
+
+	// Adds a batch of contacts in one repository call.
+	// Duplicates within the batch and against the store are found in a
+	// single pass; the first occurrence of an ID wins. Bad records are
+	// listed in the report instead of aborting the batch.
+	public ImportReport addAll(List<Contact> contacts) {
+		if (ContactLog.isLoggable(LOGGER, Level.FINE)) {
+			ContactLog.log(LOGGER, Level.FINE, "addAll", null, null,
+					contacts.size() + " contacts");
+		}
+		Contact[] candidates = contacts.toArray(new Contact[0]);
+		List<ImportReport.Rejection> rejections = new ArrayList<>();
+		for (int i = 0; i < candidates.length; i++) {
+			if (candidates[i] == null) {
+				rejections.add(new ImportReport.Rejection(i, null, null,
+						"Contact cannot be null"));
+			}
+		}
+		return storeBatch(candidates, rejections);
+	}
+
+	// Builds and adds a batch from raw field rows, in Contact constructor
+	// order: contactId, firstName, lastName, phoneNumber, address.
+	// Rows that fail validation are reported with the failing field.
+	public ImportReport importRows(List<String[]> rows) {
+		if (ContactLog.isLoggable(LOGGER, Level.FINE)) {
+			ContactLog.log(LOGGER, Level.FINE, "importRows", null, null,
+					rows.size() + " rows");
 		}
+		Contact[] candidates = new Contact[rows.size()];
+		List<ImportReport.Rejection> rejections = new ArrayList<>();
+		int i = 0;
+		for (String[] row : rows) {
+			if (row == null || row.length != 5) {
+				rejections.add(new ImportReport.Rejection(i, null, null,
+						"Expected 5 fields"));
+			} else {
+				// Non-throwing check so bad rows cost no exception
+				long start = System.nanoTime();
+				int failed = ContactValidator.checkAll(row[0], row[1], row[2],
+						row[3], row[4]);
+				ValidationMetrics.recordValidation(System.nanoTime() - start);
+				if (failed == 0) {
+					candidates[i] = Contact.ofValidated(row[0], row[1], row[2],
+							row[3], row[4]);
+				} else {
+					String field = ContactValidator.fieldOf(failed);
+					String reason = ContactValidator.reasonOf(failed);
+					ValidationMetrics.recordFailure(row[0], field, reason);
+					rejections.add(new ImportReport.Rejection(i, row[0], field, reason));
+				}
+			}
+			i++;
+		}
+		return storeBatch(candidates, rejections);
+	}
+
+	// Drops in-batch duplicates, hands the rest to repo.addBatch and
+	// reports IDs the repository already held. Null candidates were
+	// rejected by the caller.
+	private ImportReport storeBatch(Contact[] candidates,
+									List<ImportReport.Rejection> rejections) {
+		Map<String, Integer> firstIndex = new HashMap<>(candidates.length * 2);
+		List<Contact> batch = new ArrayList<>(candidates.length);
+		for (int i = 0; i < candidates.length; i++) {
+			Contact contact = candidates[i];
+			if (contact == null) {
+				continue;
+			}
+			if (firstIndex.putIfAbsent(contact.getContactId(), i) != null) {
+				rejections.add(new ImportReport.Rejection(i, contact.getContactId(),
+						null, "Duplicate ID in batch"));
+			} else {
+				batch.add(contact);
+			}
+		}
+		List<Contact> existing = repo.addBatch(batch);
+		for (Contact contact : existing) {
+			rejections.add(new ImportReport.Rejection(
+					firstIndex.get(contact.getContactId()), contact.getContactId(),
+					null, "ID already exists"));
+		}
+		if (events != null) {
+			publishAdded(batch, existing);
+		}
+		rejections.sort(Comparator.comparingInt(ImportReport.Rejection::getIndex));
+		int accepted = batch.size() - existing.size();
+		if (ContactLog.isLoggable(LOGGER, Level.FINE)) {
+			ContactLog.log(LOGGER, Level.FINE, "addBatch", null, null,
+					"stored " + accepted + ", rejected " + rejections.size());
+		}
+		return new ImportReport(accepted, rejections);
+	}
+
+	// Publishes an add for every contact in batch the repository kept.
+	private void publishAdded(List<Contact> batch, List<Contact> existing) {
+		Set<String> skipped = new HashSet<>();
+		for (Contact contact : existing) {
+			skipped.add(contact.getContactId());
+		}
+		for (Contact contact : batch) {
+			if (!skipped.contains(contact.getContactId())) {
+				events.publish(ContactEvent.added(contact));
+			}
+		}
+	}
 
 	// Deletes contact by id.
 	// Repository throws if the ID does not exist.
 	public void deleteContact(String contactId) {
-		LOGGER.fine(() -> "Deleting contact " + contactId);
+		ContactLog.fine(LOGGER, "delete", contactId);
+		long start = ContactLatency.start();
 		repo.deleteById(contactId);
+		long end = ContactLatency.lap(ContactLatency.REPOSITORY_DELETE, start);
+		if (events != null) {
+			events.publish(ContactEvent.deleted(contactId));
+			end = ContactLatency.stamp(end);
+		}
+		ContactLatency.finish(ContactLatency.DELETE, contactId, start, end);
 		}
 
 	// Updates existing contact.
 	// contactId must be valid, If contact is not found, throws.
-	// Setters on Contact re-validate each field using ContactValidator.
+	// All changes are applied as one atomic step: a validated copy is
+	// built with Contact.withUpdates and swapped in with repo.replace.
+	// If another writer swapped the contact first, re-read and retry
+	// rather than holding a lock across the update.
 	public void updateContact(String contactId, String firstName, String lastName,
 							  String phoneNumber, String address) {
-		LOGGER.fine(() -> "Updating contact " + contactId);
+		ContactLog.fine(LOGGER, "update", contactId);
+		long start = ContactLatency.start();
 		// Validate contact ID format before querying repository.
+		// The check is trivial and timed with the first lookup.
 		ContactValidator.validateId(contactId);
 
-		// Retrieve the contact to update.
-		Contact contact = repo.findById(contactId);
-		if (contact == null) {
-			// Log at warning because the caller attempted an invalid operation.
-			LOGGER.warning(() -> "Update failed; contact " + contactId + " not found");
-			throw new IllegalArgumentException("Contact ID does not exist");
-		}
-		// Apply only non-null updates. Each setter validates its input.
-		if (firstName != null) {
-			contact.setFirstName(firstName);
-		}
-		if (lastName != null) {
-			contact.setLastName(lastName);
-		}
-		if (phoneNumber != null) {
-			contact.setPhoneNumber(phoneNumber);
-		}
-		if (address != null) {
-			contact.setAddress(address);
+		long mark = start;
+		while (true) {
+			// Retrieve the contact to update.
+			Contact current = repo.findById(contactId);
+			mark = ContactLatency.lap(ContactLatency.REPOSITORY_FIND, mark);
+			if (current == null) {
+				// Log at warning because the caller attempted an invalid operation.
+				ContactLog.log(LOGGER, Level.WARNING, "update", contactId, null,
+						"Contact ID does not exist");
+				throw new IllegalArgumentException("Contact ID does not exist");
+			}
+			// Apply only non-null updates. The copy validates every field.
+			Contact updated = current.withUpdates(firstName, lastName,
+					phoneNumber, address);
+			mark = ContactLatency.lap(ContactLatency.UPDATE_VALIDATION, mark);
+			boolean replaced = repo.replace(current, updated);
+			mark = ContactLatency.lap(ContactLatency.REPOSITORY_REPLACE, mark);
+			if (replaced) {
+				if (events != null) {
+					events.publish(ContactEvent.updated(current, updated));
+					mark = ContactLatency.stamp(mark);
+				}
+				ContactLatency.finish(ContactLatency.UPDATE, contactId, start, mark);
+				return;
+			}
+			Thread.onSpinWait();
 		}
 	}
 
 	// Retrieves contact by Id.
 	// Returns null if not found, Logs a message if missing.
 	public Contact getContactById(String contactId) {
+		long start = ContactLatency.start();
 		Contact contact = repo.findById(contactId);
+		long end = ContactLatency.lap(ContactLatency.REPOSITORY_FIND, start);
+		ContactLatency.finish(ContactLatency.GET, contactId, start, end);
 		if (contact == null) {
-			LOGGER.fine(() -> "Contact " + contactId + " not found");
+			ContactLog.log(LOGGER, Level.FINE, "get", contactId, null, "Not found");
 		}
 		return contact;
 		}
+
+	// Retrieves contacts by phone number.
+	// Requires a repository with secondary indexes, such as
+	// IndexedContactRepository; others throw UnsupportedOperationException.
+	public List<Contact> getContactsByPhoneNumber(String phoneNumber) {
+		return repo.findByPhoneNumber(phoneNumber);
+	}
+
+	// Retrieves contacts by last name, sorted by last name, first name, ID.
+	public List<Contact> getContactsByLastName(String lastName) {
+		return repo.findByLastName(lastName);
+	}
+
+	// Retrieves contacts by first name, sorted by last name, first name, ID.
+	public List<Contact> getContactsByFirstName(String firstName) {
+		return repo.findByFirstName(firstName);
+	}
+
+	// Lazy stream over every stored contact, for exports and
+	// reconciliation. Use parallel() to split the walk across threads.
+	public Stream<Contact> streamContacts() {
+		return repo.stream();
+	}
+
+	// Returns up to limit contacts after cursor; pass null to start and
+	// ContactPage.getNextCursor() to continue.
+	public ContactPage getContacts(String cursor, int limit) {
+		return repo.page(cursor, limit);
+	}
+
+	// Read-only view of every contact as of this call, for reports and
+	// backups that must not see later writes. Stream or page it like the
+	// live store. Requires a repository such as SnapshotContactRepository.
+	public ContactRepository snapshotContacts() {
+		return repo.snapshotView();
+	}
+
+	// Searches names and addresses by prefix, best match first.
+	public List<Contact> searchContacts(String prefix, int limit) {
+		return repo.searchByPrefix(prefix, limit);
+	}
+
+	// Searches names and addresses allowing small typos, best match first.
+	public List<Contact> searchContactsFuzzy(String query, int limit) {
+		return repo.searchFuzzy(query, limit);
+	}
 }
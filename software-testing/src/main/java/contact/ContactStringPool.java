@@ -0,0 +1,144 @@
+package contact;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//
+// Optional intern pool for the name and address strings contacts share.
+//
+// Off by default. Once enabled, Contact stores the pooled instance of
+// firstName, lastName and address, so contacts with the same values
+// share one String rather than each keeping its own copy. This covers
+// the constructor, the setters, withUpdates, batch imports and records
+// decoded by ContactCodec.
+//
+// The pool is a fixed table of weak references, two slots per hash.
+// A lookup reads at most two slots without locking; a miss stores the
+// new string, evicting an older one if both slots are taken. Racing
+// threads may overwrite each other's entries, which only costs a later
+// miss. The table never grows past its size, and pooled strings no
+// contact uses any more are left to the garbage collector.
+//
+// Whole field values are pooled; Strings cannot share a common prefix.
+//
+
+public class ContactStringPool {
+
+    private static final int MIN_SIZE = 2;
+    private static final int MAX_SIZE = 1 << 24;
+
+    // Null while the pool is off
+    private static volatile AtomicReferenceArray<WeakReference<String>> table;
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+    private static final LongAdder bytesSaved = new LongAdder();
+
+    // Private constructor to prevent instantiation
+    private ContactStringPool() {}
+
+    // Turns pooling on with room for about maxEntries strings, rounded
+    // up to a power of two. Replaces any earlier pool.
+    public static void enable(int maxEntries) {
+        if (maxEntries < MIN_SIZE || maxEntries > MAX_SIZE) {
+            throw new IllegalArgumentException("Pool size must be between "
+                    + MIN_SIZE + " and " + MAX_SIZE);
+        }
+        int size = Integer.highestOneBit(maxEntries);
+        if (size < maxEntries) {
+            size <<= 1;
+        }
+        table = new AtomicReferenceArray<>(size);
+    }
+
+    // Turns pooling off; contacts keep the strings they already hold
+    public static void disable() {
+        table = null;
+    }
+
+    public static boolean isEnabled() {
+        return table != null;
+    }
+
+    // Returns the pooled instance equal to value, pooling value itself
+    // if there is none. Returns value unchanged while the pool is off.
+    public static String intern(String value) {
+        AtomicReferenceArray<WeakReference<String>> slots = table;
+        if (slots == null || value == null) {
+            return value;
+        }
+        int h = value.hashCode();
+        int first = (h ^ (h >>> 16)) & (slots.length() - 2);
+        WeakReference<String> a = slots.get(first);
+        String pooled = a == null ? null : a.get();
+        if (pooled != null && pooled.equals(value)) {
+            return hit(pooled, value);
+        }
+        WeakReference<String> b = slots.get(first + 1);
+        String other = b == null ? null : b.get();
+        if (other != null && other.equals(value)) {
+            return hit(other, value);
+        }
+        misses.increment();
+        // Fill a free slot, else evict the first one
+        int slot = pooled == null ? first : other == null ? first + 1 : first;
+        if (pooled != null && other != null) {
+            evictions.increment();
+        }
+        slots.set(slot, new WeakReference<>(value));
+        return value;
+    }
+
+    private static String hit(String pooled, String value) {
+        hits.increment();
+        if (pooled != value) {
+            bytesSaved.add(footprint(value));
+        }
+        return pooled;
+    }
+
+    // Estimated heap bytes of a compact Latin-1 string: the String object
+    // plus its byte array, each rounded to 8 bytes
+    private static long footprint(String value) {
+        return 24 + ((16 + value.length() + 7) & ~7);
+    }
+
+    // Point-in-time copy of the pool counters, keyed by metric name:
+    //  intern.hits / intern.misses   lookups that found or added a string
+    //  intern.evictions              live strings pushed out by a miss
+    //  intern.bytes.saved            estimated bytes of duplicates dropped
+    //  intern.size / intern.capacity live pooled strings and table slots
+    // intern.size scans the table; the counters never block lookups.
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        snapshot.put("intern.hits", hits.sum());
+        snapshot.put("intern.misses", misses.sum());
+        snapshot.put("intern.evictions", evictions.sum());
+        snapshot.put("intern.bytes.saved", bytesSaved.sum());
+        AtomicReferenceArray<WeakReference<String>> slots = table;
+        long live = 0;
+        if (slots != null) {
+            for (int i = 0; i < slots.length(); i++) {
+                WeakReference<String> ref = slots.get(i);
+                if (ref != null && ref.get() != null) {
+                    live++;
+                }
+            }
+        }
+        snapshot.put("intern.size", live);
+        snapshot.put("intern.capacity", slots == null ? 0L : slots.length());
+        return snapshot;
+    }
+
+    // Reset counters to zero; pooled strings stay
+    public static void reset() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        bytesSaved.reset();
+    }
+}
@@ -0,0 +1,42 @@
+package contact;
+
+import java.util.function.Supplier;
+
+// Striped monitors keyed by contactId, shared by the repository
+// decorators that keep an index beside their store.
+//
+// A write to one ID holds that ID's stripe, so the store and the index
+// change together. Batches hold every stripe, taken in index order so
+// two batches cannot deadlock.
+final class ContactStripes {
+
+    private static final int STRIPES = 64;
+
+    private final Object[] stripes = new Object[STRIPES];
+
+    ContactStripes() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    // Monitor guarding writes to contactId
+    Object of(String contactId) {
+        int h = contactId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    // Runs action while holding every stripe
+    <T> T withAll(Supplier<T> action) {
+        return withAll(action, 0);
+    }
+
+    private <T> T withAll(Supplier<T> action, int stripe) {
+        if (stripe == STRIPES) {
+            return action.get();
+        }
+        synchronized (stripes[stripe]) {
+            return withAll(action, stripe + 1);
+        }
+    }
+}
@@ -8,56 +8,164 @@ package contact;
 //  ID/FirstName/LastName: not null and must be <= 10
 //  Phone: non-null, digits only, and length == 10
 //  Address: non-null, length <= 30
+//
+// The check* methods are the fast path: they return a bitmask of failed
+// rules (0 when valid) and allocate nothing. The validate* methods wrap
+// them and throw ValidationException for the first failed rule.
 public class ContactValidator {
+
+    // Rule bits, ordered so the lowest set bit is the failure the
+    // throwing methods have always reported first
+    public static final int ID_NULL = 1;
+    public static final int ID_TOO_LONG = 1 << 1;
+    public static final int FIRST_NAME_NULL = 1 << 2;
+    public static final int FIRST_NAME_TOO_LONG = 1 << 3;
+    public static final int LAST_NAME_NULL = 1 << 4;
+    public static final int LAST_NAME_TOO_LONG = 1 << 5;
+    public static final int PHONE_NULL = 1 << 6;
+    public static final int PHONE_LENGTH = 1 << 7;
+    public static final int PHONE_DIGITS = 1 << 8;
+    public static final int ADDRESS_NULL = 1 << 9;
+    public static final int ADDRESS_TOO_LONG = 1 << 10;
+
+    // Field and reason for each rule bit, indexed by bit position
+    private static final String[] FIELDS = {
+            "contactId", "contactId",
+            "firstName", "firstName",
+            "lastName", "lastName",
+            "phoneNumber", "phoneNumber", "phoneNumber",
+            "address", "address"
+    };
+    private static final String[] REASONS = {
+            "Value cannot be null", "Length must be <= 10",
+            "Value cannot be null", "Length must be <= 10",
+            "Value cannot be null", "Length must be <= 10",
+            "Value cannot be null", "Length must be 10", "Only digits allowed",
+            "Value cannot be null", "Length must be <= 30"
+    };
+
     private ContactValidator() {}
 
-    public static void validateId(String contactId) {
+    // Non-throwing checks
+
+    public static int checkId(String contactId) {
         if (contactId == null) {
-            fail("contactId", "Value cannot be null");
-        }
-        if (contactId.length() > 10) {
-            fail("contactId", "Length must be <= 10");
+            return ID_NULL;
         }
+        return contactId.length() > 10 ? ID_TOO_LONG : 0;
     }
-    public static void validateFirstName(String firstName) {
+    public static int checkFirstName(String firstName) {
         if (firstName == null) {
-            fail("firstName", "Value cannot be null");
-        }
-        if (firstName.length() > 10) {
-            fail("firstName", "Length must be <= 10");
+            return FIRST_NAME_NULL;
         }
+        return firstName.length() > 10 ? FIRST_NAME_TOO_LONG : 0;
     }
-    public static void validateLastName(String lastName) {
+    public static int checkLastName(String lastName) {
         if (lastName == null) {
-            fail("lastName", "Value cannot be null");
-        }
-        if (lastName.length() > 10) {
-            fail("lastName", "Length must be <= 10");
+            return LAST_NAME_NULL;
         }
+        return lastName.length() > 10 ? LAST_NAME_TOO_LONG : 0;
     }
-    public static void validatePhone(String phoneNumber) {
+    public static int checkPhone(String phoneNumber) {
         if (phoneNumber == null) {
-            fail("phoneNumber", "Value cannot be null");
-        }
-        if (phoneNumber.length() != 10) {
-            fail("phoneNumber", "Length must be 10");
+            return PHONE_NULL;
         }
+        int failed = phoneNumber.length() != 10 ? PHONE_LENGTH : 0;
         for (int i = 0; i < phoneNumber.length(); i++) {
             if (!Character.isDigit(phoneNumber.charAt(i))) {
-                fail("phoneNumber", "Only digits allowed");
+                return failed | PHONE_DIGITS;
             }
         }
+        return failed;
     }
-    public static void validateAddress(String address) {
+    public static int checkAddress(String address) {
         if (address == null) {
-            fail("address", "Value cannot be null");
+            return ADDRESS_NULL;
         }
-        if (address.length() > 30) {
-            fail("address", "Length must be <= 30");
+        return address.length() > 30 ? ADDRESS_TOO_LONG : 0;
+    }
+
+    // Checks every field at once; 0 means the contact is valid
+    public static int checkAll(String contactId, String firstName, String lastName,
+                               String phoneNumber, String address) {
+        return checkId(contactId)
+                | checkFirstName(firstName)
+                | checkLastName(lastName)
+                | checkPhone(phoneNumber)
+                | checkAddress(address);
+    }
+
+    // Field name of the first failed rule in the mask
+    public static String fieldOf(int failed) {
+        return FIELDS[Integer.numberOfTrailingZeros(failed)];
+    }
+
+    // Reason text of the first failed rule in the mask
+    public static String reasonOf(int failed) {
+        return REASONS[Integer.numberOfTrailingZeros(failed)];
+    }
+
+    // Throwing validation, kept as thin wrappers over the checks
+
+    public static void validateId(String contactId) {
+        int failed = checkId(contactId);
+        if (failed != 0) {
+            fail(failed, contactId);
+        }
+    }
+    public static void validateFirstName(String firstName) {
+        int failed = checkFirstName(firstName);
+        if (failed != 0) {
+            fail(failed, null);
+        }
+    }
+    public static void validateLastName(String lastName) {
+        int failed = checkLastName(lastName);
+        if (failed != 0) {
+            fail(failed, null);
+        }
+    }
+    public static void validatePhone(String phoneNumber) {
+        int failed = checkPhone(phoneNumber);
+        if (failed != 0) {
+            fail(failed, null);
         }
     }
-    private static void fail(String field, String reason) {
-        ValidationMetrics.recordFailure(field, reason);
+    public static void validateAddress(String address) {
+        int failed = checkAddress(address);
+        if (failed != 0) {
+            fail(failed, null);
+        }
+    }
+
+    // Validates every field, timing the check for ValidationMetrics, and
+    // throws for the first failed rule in field order
+    public static void validateAll(String contactId, String firstName, String lastName,
+                                   String phoneNumber, String address) {
+        long start = System.nanoTime();
+        int failed = checkAll(contactId, firstName, lastName, phoneNumber, address);
+        ValidationMetrics.recordValidation(System.nanoTime() - start);
+        if (failed != 0) {
+            fail(failed, contactId);
+        }
+    }
+
+    // Hot-path counterpart of fail for callers that already hold a mask.
+    // Records the first failed rule and throws a stackless exception,
+    // which skips the stack walk that dominates the cost of throwing.
+    public static void requireValid(int failed) {
+        if (failed != 0) {
+            String field = fieldOf(failed);
+            String reason = reasonOf(failed);
+            ValidationMetrics.recordFailure(field, reason);
+            throw ValidationException.stackless(field, reason);
+        }
+    }
+
+    private static void fail(int failed, String contactId) {
+        String field = fieldOf(failed);
+        String reason = reasonOf(failed);
+        ValidationMetrics.recordFailure(contactId, field, reason);
         throw new ValidationException(field, reason);
     }
 }
@@ -0,0 +1,315 @@
+package contact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// Hash-indexed repository for storing contacts.
+//
+// Open-addressing table keyed on contactId with linear probing.
+// Gives O(1) add, find and delete with no fixed capacity; the table
+// doubles whenever it passes the load factor.
+//
+// Deletes use backward-shift instead of tombstones so probe chains
+// stay short after heavy churn.
+//
+// Pages seek straight to the cursor: the walk order visits home
+// buckets in bit-reversed order, so the next page starts at the
+// cursor's bucket whatever the table size is now. Streams split the
+// slot array and must not overlap writes; use pages for walks that
+// interleave with adds and deletes.
+public class HashContactRepository implements ContactRepository {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Resize once the table is 3/4 full
+    private static final float LOAD_FACTOR = 0.75f;
+
+    // Slots hold the contact; hashes caches each slot's key hash so
+    // probes can skip most String.equals calls
+    private Contact[] table;
+    private int[] hashes;
+    private int size = 0;
+    private int threshold;
+
+    public HashContactRepository() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Pre-sizes the table for the expected number of contacts
+    public HashContactRepository(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    // Return number of stored contacts
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Adds a contact
+    // Prevents duplicate IDs
+    @Override
+    public void add(Contact contact) {
+        String id = contact.getContactId();
+        int hash = hash(id);
+        int mask = table.length - 1;
+        int i = hash & mask;
+        // Walk the probe chain; an empty slot means the ID is not stored
+        while (table[i] != null) {
+            if (hashes[i] == hash && table[i].getContactId().equals(id)) {
+                throw new IllegalArgumentException("ID already exists");
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = contact;
+        hashes[i] = hash;
+        if (++size > threshold) {
+            resize(table.length << 1);
+        }
+    }
+
+    // Adds a batch in one pass
+    // Grows the table once up front instead of doubling repeatedly,
+    // and skips IDs that are already stored rather than throwing.
+    @Override
+    public List<Contact> addBatch(List<Contact> contacts) {
+        long needed = (long) size + contacts.size();
+        if (needed > threshold) {
+            resize(tableSizeFor((int) Math.min(needed, Integer.MAX_VALUE)));
+        }
+        List<Contact> rejected = new ArrayList<>();
+        int mask = table.length - 1;
+        for (Contact contact : contacts) {
+            String id = contact.getContactId();
+            int hash = hash(id);
+            int i = hash & mask;
+            boolean duplicate = false;
+            while (table[i] != null) {
+                if (hashes[i] == hash && table[i].getContactId().equals(id)) {
+                    duplicate = true;
+                    break;
+                }
+                i = (i + 1) & mask;
+            }
+            if (duplicate) {
+                rejected.add(contact);
+            } else {
+                table[i] = contact;
+                hashes[i] = hash;
+                size++;
+            }
+        }
+        return rejected;
+    }
+
+    // Find a contact by ID
+    @Override
+    public Contact findById(String contactId) {
+        int i = indexOf(contactId);
+        return i < 0 ? null : table[i];
+    }
+
+    // Swaps in the replacement in the same slot if expected is still stored
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        int i = indexOf(expected.getContactId());
+        if (i < 0 || table[i] != expected) {
+            return false;
+        }
+        table[i] = replacement;
+        return true;
+    }
+
+    // Deletes a contact by ID
+    @Override
+    public void deleteById(String contactId) {
+        int i = indexOf(contactId);
+        if (i < 0) {
+            // ID not found
+            throw new IllegalArgumentException("Contact id does not exist");
+        }
+        removeAt(i);
+    }
+
+    // Splits the slot array in halves for parallel streams
+    @Override
+    public Spliterator<Contact> spliterator() {
+        return new TableSpliterator(table, 0, table.length, size);
+    }
+
+    // Visits home buckets from the cursor's onward in walk order,
+    // reading each bucket's entries from its probe chain
+    @Override
+    public ContactPage page(String cursor, int limit) {
+        ContactPage.checkLimit(limit);
+        int mask = table.length - 1;
+        int bits = Integer.numberOfTrailingZeros(table.length);
+        // The top bits of an order key are the bit-reversed home bucket
+        int start = cursor == null ? 0 : ContactPage.orderKey(cursor) >>> (32 - bits);
+        List<Contact> page = new ArrayList<>(Math.min(limit, size));
+        List<Contact> bucket = new ArrayList<>();
+        for (int r = start; r <= mask && page.size() < limit; r++) {
+            int home = Integer.reverse(r) >>> (32 - bits);
+            bucket.clear();
+            for (int i = home; table[i] != null; i = (i + 1) & mask) {
+                if ((hashes[i] & mask) == home) {
+                    bucket.add(table[i]);
+                }
+            }
+            bucket.sort((x, y) -> ContactPage.ID_ORDER.compare(x.getContactId(), y.getContactId()));
+            for (Contact contact : bucket) {
+                if (page.size() < limit && (cursor == null
+                        || ContactPage.ID_ORDER.compare(contact.getContactId(), cursor) > 0)) {
+                    page.add(contact);
+                }
+            }
+        }
+        return ContactPage.of(page, limit);
+    }
+
+    // Returns the slot holding contactId, or -1 if absent
+    private int indexOf(String contactId) {
+        if (contactId == null) {
+            return -1;
+        }
+        int hash = hash(contactId);
+        int mask = table.length - 1;
+        int i = hash & mask;
+        while (table[i] != null) {
+            if (hashes[i] == hash && table[i].getContactId().equals(contactId)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Clears slot i and shifts later entries of the same probe chain back
+    // so lookups never stop early on a hole.
+    private void removeAt(int i) {
+        int mask = table.length - 1;
+        int hole = i;
+        int j = (i + 1) & mask;
+        while (table[j] != null) {
+            int home = hashes[j] & mask;
+            // Move entry j into the hole unless its home slot lies
+            // cyclically in (hole, j]
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                table[hole] = table[j];
+                hashes[hole] = hashes[j];
+                hole = j;
+            }
+            j = (j + 1) & mask;
+        }
+        table[hole] = null;
+        hashes[hole] = 0;
+        size--;
+    }
+
+    // Rehashes every entry into a table of the new capacity
+    private void resize(int newCapacity) {
+        Contact[] oldTable = table;
+        int[] oldHashes = hashes;
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int k = 0; k < oldTable.length; k++) {
+            if (oldTable[k] != null) {
+                int i = oldHashes[k] & mask;
+                while (table[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = oldTable[k];
+                hashes[i] = oldHashes[k];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new Contact[capacity];
+        hashes = new int[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // Smallest power of two that holds expectedSize under the load factor
+    private static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1;
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < needed) {
+            if (capacity >= (1 << 30)) {
+                throw new IllegalArgumentException("Expected size too large");
+            }
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Walks the non-empty slots of table[from, to)
+    private static final class TableSpliterator implements Spliterator<Contact> {
+        private final Contact[] table;
+        private int from;
+        private final int to;
+        private long estimate;
+
+        TableSpliterator(Contact[] table, int from, int to, long estimate) {
+            this.table = table;
+            this.from = from;
+            this.to = to;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Contact> action) {
+            while (from < to) {
+                Contact contact = table[from++];
+                if (contact != null) {
+                    action.accept(contact);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Contact> action) {
+            for (int i = from; i < to; i++) {
+                if (table[i] != null) {
+                    action.accept(table[i]);
+                }
+            }
+            from = to;
+        }
+
+        @Override
+        public Spliterator<Contact> trySplit() {
+            int mid = (from + to) >>> 1;
+            if (mid - from < 64) {
+                return null;
+            }
+            // Entries are spread evenly, so each half holds about half
+            Spliterator<Contact> prefix = new TableSpliterator(table, from, mid, estimate >>> 1);
+            from = mid;
+            estimate -= estimate >>> 1;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL;
+        }
+    }
+
+    // Spread String.hashCode so low bits depend on the high bits too
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
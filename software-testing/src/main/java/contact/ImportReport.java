@@ -0,0 +1,80 @@
+package contact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a bulk import through ContactService.
+//
+// Counts accepted records and lists every rejected one with its
+// position in the input and why it was skipped, so one bad row
+// does not stop the rest of the batch.
+public class ImportReport {
+
+    // A single rejected input record
+    public static final class Rejection {
+        private final int index;
+        private final String contactId;
+        private final String field;
+        private final String reason;
+
+        Rejection(int index, String contactId, String field, String reason) {
+            this.index = index;
+            this.contactId = contactId;
+            this.field = field;
+            this.reason = reason;
+        }
+
+        // Position of the record in the input batch
+        public int getIndex() {
+            return index;
+        }
+
+        // ID of the rejected record, or null if it was missing
+        public String getContactId() {
+            return contactId;
+        }
+
+        // Field that failed validation, or null for non-field errors
+        public String getField() {
+            return field;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + " " + contactId + " "
+                    + (field != null ? field + ": " : "") + reason;
+        }
+    }
+
+    private final int accepted;
+    private final List<Rejection> rejections;
+
+    ImportReport(int accepted, List<Rejection> rejections) {
+        this.accepted = accepted;
+        this.rejections = Collections.unmodifiableList(new ArrayList<>(rejections));
+    }
+
+    // Number of records stored
+    public int getAccepted() {
+        return accepted;
+    }
+
+    // Number of records skipped
+    public int getRejected() {
+        return rejections.size();
+    }
+
+    // Rejected records in input order
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    public boolean hasRejections() {
+        return !rejections.isEmpty();
+    }
+}
@@ -0,0 +1,207 @@
+package contact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Repository decorator that adds secondary indexes on phone number,
+// last name and first name.
+//
+// Wraps any ContactRepository and keeps, for each indexed value, the
+// set of contacts holding it. Indexes are updated on every add,
+// replace and delete, so updates made through
+// ContactService.updateContact move a contact between index entries
+// without a rescan. Setters called directly on a stored Contact bypass
+// the repository and are not seen.
+//
+// Phone lookups are one hash probe. Each value's contacts are kept in
+// a sorted set, so name lookups come back ordered by last name, first
+// name and ID without sorting at query time.
+//
+// Writes to the same contactId are serialized by a striped lock so the
+// store and the indexes change together; reads never lock.
+public class IndexedContactRepository implements ContactRepository {
+
+    // Orders contacts by name, then ID so distinct contacts never tie
+    static final Comparator<Contact> NAME_ORDER = Comparator
+            .comparing(Contact::getLastName)
+            .thenComparing(Contact::getFirstName)
+            .thenComparing(Contact::getContactId);
+
+    private final ContactRepository delegate;
+    private final ConcurrentHashMap<String, NavigableSet<Contact>> byPhone =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, NavigableSet<Contact>> byLastName =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, NavigableSet<Contact>> byFirstName =
+            new ConcurrentHashMap<>();
+    private final ContactStripes stripes = new ContactStripes();
+
+    // Indexes the contacts already stored, so a reopened persistent store
+    // answers lookups for them. A non-empty store that cannot be iterated
+    // throws UnsupportedOperationException. Nothing else may write to the
+    // store while this runs.
+    public IndexedContactRepository(ContactRepository delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        this.delegate = delegate;
+        if (delegate.size() > 0) {
+            delegate.spliterator().forEachRemaining(this::index);
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void add(Contact contact) {
+        synchronized (stripes.of(contact.getContactId())) {
+            delegate.add(contact);
+            index(contact);
+        }
+    }
+
+    // Holds every stripe so no single-ID write interleaves with the batch
+    @Override
+    public List<Contact> addBatch(List<Contact> contacts) {
+        return stripes.withAll(() -> {
+            List<Contact> rejected = delegate.addBatch(contacts);
+            Set<Contact> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+            skipped.addAll(rejected);
+            for (Contact contact : contacts) {
+                if (!skipped.contains(contact)) {
+                    index(contact);
+                }
+            }
+            return rejected;
+        });
+    }
+
+    @Override
+    public Contact findById(String contactId) {
+        return delegate.findById(contactId);
+    }
+
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        synchronized (stripes.of(expected.getContactId())) {
+            if (!delegate.replace(expected, replacement)) {
+                return false;
+            }
+            unindex(expected);
+            index(replacement);
+            return true;
+        }
+    }
+
+    @Override
+    public void deleteById(String contactId) {
+        if (contactId == null) {
+            delegate.deleteById(null);
+            return;
+        }
+        synchronized (stripes.of(contactId)) {
+            Contact existing = delegate.findById(contactId);
+            delegate.deleteById(contactId);
+            if (existing != null) {
+                unindex(existing);
+            }
+        }
+    }
+
+    // Contacts with this exact phone number
+    @Override
+    public List<Contact> findByPhoneNumber(String phoneNumber) {
+        return lookup(byPhone, phoneNumber);
+    }
+
+    // Contacts with this exact last name, sorted by first name then ID
+    @Override
+    public List<Contact> findByLastName(String lastName) {
+        return lookup(byLastName, lastName);
+    }
+
+    // Contacts with this exact first name, sorted by last name then ID
+    @Override
+    public List<Contact> findByFirstName(String firstName) {
+        return lookup(byFirstName, firstName);
+    }
+
+    @Override
+    public Spliterator<Contact> spliterator() {
+        return delegate.spliterator();
+    }
+
+    @Override
+    public ContactPage page(String cursor, int limit) {
+        return delegate.page(cursor, limit);
+    }
+
+    @Override
+    public List<Contact> searchByPrefix(String prefix, int limit) {
+        return delegate.searchByPrefix(prefix, limit);
+    }
+
+    @Override
+    public List<Contact> searchFuzzy(String query, int limit) {
+        return delegate.searchFuzzy(query, limit);
+    }
+
+    // The view has no secondary indexes; only the store is frozen
+    @Override
+    public ContactRepository snapshotView() {
+        return delegate.snapshotView();
+    }
+
+    private static List<Contact> lookup(ConcurrentHashMap<String, NavigableSet<Contact>> index,
+                                        String key) {
+        if (key == null) {
+            return Collections.emptyList();
+        }
+        NavigableSet<Contact> matches = index.get(key);
+        return matches == null ? Collections.emptyList() : new ArrayList<>(matches);
+    }
+
+    private void index(Contact contact) {
+        put(byPhone, contact.getPhoneNumber(), contact);
+        put(byLastName, contact.getLastName(), contact);
+        put(byFirstName, contact.getFirstName(), contact);
+    }
+
+    private void unindex(Contact contact) {
+        remove(byPhone, contact.getPhoneNumber(), contact);
+        remove(byLastName, contact.getLastName(), contact);
+        remove(byFirstName, contact.getFirstName(), contact);
+    }
+
+    // compute keeps the add atomic with a concurrent remove that would
+    // otherwise drop the set this contact is being added to
+    private static void put(ConcurrentHashMap<String, NavigableSet<Contact>> index,
+                            String key, Contact contact) {
+        index.compute(key, (k, set) -> {
+            if (set == null) {
+                set = new ConcurrentSkipListSet<>(NAME_ORDER);
+            }
+            set.add(contact);
+            return set;
+        });
+    }
+
+    private static void remove(ConcurrentHashMap<String, NavigableSet<Contact>> index,
+                               String key, Contact contact) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(contact);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
@@ -0,0 +1,440 @@
+package contact;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Thread-safe repository backed by a SQL database through JDBC.
+//
+// Written against plain JDBC and tested on embedded H2, for example
+// "jdbc:h2:mem:contacts" or "jdbc:h2:./contacts", so it runs with no
+// server. The table is created on first use; contact_id is its primary
+// key, so the database enforces unique IDs and its index serves lookups.
+//
+// A small fixed pool of connections is opened up front. Each pooled
+// connection prepares its statements once and reuses them for every
+// call. A caller waits for a free connection when all are busy.
+//
+// Every row also stores the contact's ContactPage.orderKey, indexed
+// with the ID, so page() is one range query in walk order.
+//
+// Database failures surface as IllegalStateException with the
+// SQLException as cause.
+public class JdbcContactRepository implements ContactRepository, AutoCloseable {
+
+    private static final int DEFAULT_POOL_SIZE = 4;
+    // Contacts per round trip for batch ID checks and stream pages
+    private static final int CHUNK = 256;
+    // SQLSTATE class 23 covers integrity constraint violations
+    private static final String CONSTRAINT_VIOLATION = "23";
+
+    private static final String COLUMNS =
+            "contact_id, first_name, last_name, phone_number, address";
+
+    private final String url;
+    private final BlockingQueue<Session> pool;
+    private final List<Session> sessions = new ArrayList<>();
+    private volatile boolean closed;
+
+    // Opens DEFAULT_POOL_SIZE connections to url
+    public JdbcContactRepository(String url) {
+        this(url, DEFAULT_POOL_SIZE);
+    }
+
+    public JdbcContactRepository(String url, int poolSize) {
+        if (url == null) {
+            throw new IllegalArgumentException("Database URL cannot be null");
+        }
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.url = url;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                Connection connection = DriverManager.getConnection(url);
+                if (i == 0) {
+                    createTable(connection);
+                }
+                Session session = new Session(connection);
+                sessions.add(session);
+                pool.add(session);
+            }
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException("Cannot open contact database " + url, e);
+        }
+    }
+
+    private static void createTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS contacts ("
+                    + "contact_id VARCHAR(10) PRIMARY KEY, "
+                    + "first_name VARCHAR(10) NOT NULL, "
+                    + "last_name VARCHAR(10) NOT NULL, "
+                    + "phone_number CHAR(10) NOT NULL, "
+                    + "address VARCHAR(30) NOT NULL, "
+                    + "order_key BIGINT NOT NULL)");
+            statement.execute("CREATE INDEX IF NOT EXISTS contacts_order "
+                    + "ON contacts (order_key, contact_id)");
+        }
+    }
+
+    @Override
+    public int size() {
+        return call(session -> {
+            try (ResultSet rs = session.count.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        });
+    }
+
+    @Override
+    public void add(Contact contact) {
+        call(session -> {
+            try {
+                bindInsert(session.insert, contact);
+                session.insert.executeUpdate();
+            } catch (SQLException e) {
+                if (isConstraintViolation(e)) {
+                    throw new IllegalArgumentException("ID already exists");
+                }
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    // Looks up which IDs are stored, then inserts the rest in one JDBC
+    // batch and one transaction. If a concurrent writer stores one of
+    // them first, the batch rolls back and falls back to row by row.
+    @Override
+    public List<Contact> addBatch(List<Contact> contacts) {
+        return call(session -> {
+            Set<String> stored = storedIds(session, contacts);
+            List<Contact> rejected = new ArrayList<>();
+            List<Contact> fresh = new ArrayList<>(contacts.size());
+            for (Contact contact : contacts) {
+                (stored.contains(contact.getContactId()) ? rejected : fresh).add(contact);
+            }
+            if (fresh.isEmpty()) {
+                return rejected;
+            }
+            Connection connection = session.connection;
+            connection.setAutoCommit(false);
+            try {
+                for (Contact contact : fresh) {
+                    bindInsert(session.insert, contact);
+                    session.insert.addBatch();
+                }
+                session.insert.executeBatch();
+                connection.commit();
+                return rejected;
+            } catch (SQLException e) {
+                connection.rollback();
+                session.insert.clearBatch();
+                if (!(e instanceof BatchUpdateException) || !isConstraintViolation(e)) {
+                    throw e;
+                }
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            for (Contact contact : fresh) {
+                try {
+                    bindInsert(session.insert, contact);
+                    session.insert.executeUpdate();
+                } catch (SQLException e) {
+                    if (!isConstraintViolation(e)) {
+                        throw e;
+                    }
+                    rejected.add(contact);
+                }
+            }
+            return rejected;
+        });
+    }
+
+    @Override
+    public Contact findById(String contactId) {
+        if (contactId == null) {
+            return null;
+        }
+        return call(session -> {
+            session.select.setString(1, contactId);
+            try (ResultSet rs = session.select.executeQuery()) {
+                return rs.next() ? read(rs) : null;
+            }
+        });
+    }
+
+    // Compare-and-set on the row: updates it only if every field still
+    // holds expected's value. Rows have no identity to compare, so a
+    // concurrent write of equal values counts as unchanged.
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        return call(session -> {
+            PreparedStatement update = session.update;
+            update.setString(1, replacement.getFirstName());
+            update.setString(2, replacement.getLastName());
+            update.setString(3, replacement.getPhoneNumber());
+            update.setString(4, replacement.getAddress());
+            update.setString(5, expected.getContactId());
+            update.setString(6, expected.getFirstName());
+            update.setString(7, expected.getLastName());
+            update.setString(8, expected.getPhoneNumber());
+            update.setString(9, expected.getAddress());
+            return update.executeUpdate() == 1;
+        });
+    }
+
+    @Override
+    public void deleteById(String contactId) {
+        if (contactId == null) {
+            // ID not found
+            throw new IllegalArgumentException("Contact id does not exist");
+        }
+        int deleted = call(session -> {
+            session.delete.setString(1, contactId);
+            return session.delete.executeUpdate();
+        });
+        if (deleted == 0) {
+            // ID not found
+            throw new IllegalArgumentException("Contact id does not exist");
+        }
+    }
+
+    // Deletes every ID in one JDBC batch and one transaction; returns
+    // the IDs that were not stored
+    public List<String> deleteBatch(List<String> contactIds) {
+        return call(session -> {
+            Connection connection = session.connection;
+            connection.setAutoCommit(false);
+            try {
+                for (String contactId : contactIds) {
+                    session.delete.setString(1, contactId);
+                    session.delete.addBatch();
+                }
+                int[] counts = session.delete.executeBatch();
+                connection.commit();
+                List<String> missing = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        missing.add(contactIds.get(i));
+                    }
+                }
+                return missing;
+            } catch (SQLException e) {
+                connection.rollback();
+                session.delete.clearBatch();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+
+    // Lazy walk that fetches CHUNK contacts per query in walk order and
+    // holds no connection between them. Weakly consistent, like page().
+    @Override
+    public Spliterator<Contact> spliterator() {
+        Iterator<Contact> pages = new Iterator<Contact>() {
+            private List<Contact> page = new ArrayList<>();
+            private int index;
+            private String cursor;
+            private boolean more = true;
+
+            @Override
+            public boolean hasNext() {
+                if (index == page.size() && more) {
+                    ContactPage next = page(cursor, CHUNK);
+                    page = next.getContacts();
+                    index = 0;
+                    cursor = next.getNextCursor();
+                    more = cursor != null;
+                }
+                return index < page.size();
+            }
+
+            @Override
+            public Contact next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(index++);
+            }
+        };
+        return Spliterators.spliteratorUnknownSize(pages,
+                Spliterator.NONNULL | Spliterator.DISTINCT);
+    }
+
+    @Override
+    public ContactPage page(String cursor, int limit) {
+        ContactPage.checkLimit(limit);
+        List<Contact> page = call(session -> {
+            PreparedStatement query;
+            if (cursor == null) {
+                query = session.first;
+                query.setInt(1, limit);
+            } else {
+                long key = orderKey(cursor);
+                query = session.after;
+                query.setLong(1, key);
+                query.setLong(2, key);
+                query.setString(3, cursor);
+                query.setInt(4, limit);
+            }
+            List<Contact> contacts = new ArrayList<>(Math.min(limit, CHUNK));
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    contacts.add(read(rs));
+                }
+            }
+            return contacts;
+        });
+        return ContactPage.of(page, limit);
+    }
+
+    // Closes every pooled connection; an in-memory database is dropped
+    // once its last connection closes
+    @Override
+    public void close() {
+        closed = true;
+        SQLException failure = null;
+        for (Session session : sessions) {
+            try {
+                session.connection.close();
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Cannot close contact database " + url, failure);
+        }
+    }
+
+    private Set<String> storedIds(Session session, List<Contact> contacts) throws SQLException {
+        Set<String> stored = new HashSet<>();
+        PreparedStatement query = session.exists;
+        for (int from = 0; from < contacts.size(); from += CHUNK) {
+            int to = Math.min(from + CHUNK, contacts.size());
+            // Pad a short last chunk by repeating its last ID
+            for (int i = 0; i < CHUNK; i++) {
+                query.setString(i + 1, contacts.get(Math.min(from + i, to - 1)).getContactId());
+            }
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    stored.add(rs.getString(1));
+                }
+            }
+        }
+        return stored;
+    }
+
+    private static void bindInsert(PreparedStatement insert, Contact contact) throws SQLException {
+        insert.setString(1, contact.getContactId());
+        insert.setString(2, contact.getFirstName());
+        insert.setString(3, contact.getLastName());
+        insert.setString(4, contact.getPhoneNumber());
+        insert.setString(5, contact.getAddress());
+        insert.setLong(6, orderKey(contact.getContactId()));
+    }
+
+    // Rows were validated on the way in
+    private static Contact read(ResultSet rs) throws SQLException {
+        return Contact.ofValidated(rs.getString(1), rs.getString(2), rs.getString(3),
+                rs.getString(4), rs.getString(5));
+    }
+
+    // Walk order key as a non-negative long, so SQL compares it unsigned
+    private static long orderKey(String contactId) {
+        return ContactPage.orderKey(contactId) & 0xffffffffL;
+    }
+
+    // Checks e and, for batches, the per-row exceptions chained to it
+    private static boolean isConstraintViolation(SQLException e) {
+        for (SQLException next = e; next != null; next = next.getNextException()) {
+            String state = next.getSQLState();
+            if (state != null && state.startsWith(CONSTRAINT_VIOLATION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Work done on one borrowed connection
+    private interface SessionCall<T> {
+        T apply(Session session) throws SQLException;
+    }
+
+    // Borrows a connection, runs call on it and returns it to the pool
+    private <T> T call(SessionCall<T> call) {
+        if (closed) {
+            throw new IllegalStateException("Contact database is closed");
+        }
+        Session session;
+        try {
+            session = pool.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a database connection", e);
+        }
+        try {
+            return call.apply(session);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Contact database operation failed", e);
+        } finally {
+            pool.add(session);
+        }
+    }
+
+    // One pooled connection and the statements prepared on it
+    private static final class Session {
+        final Connection connection;
+        final PreparedStatement insert;
+        final PreparedStatement select;
+        final PreparedStatement update;
+        final PreparedStatement delete;
+        final PreparedStatement count;
+        final PreparedStatement exists;
+        final PreparedStatement first;
+        final PreparedStatement after;
+
+        Session(Connection connection) throws SQLException {
+            this.connection = connection;
+            insert = connection.prepareStatement("INSERT INTO contacts (" + COLUMNS
+                    + ", order_key) VALUES (?, ?, ?, ?, ?, ?)");
+            select = connection.prepareStatement("SELECT " + COLUMNS
+                    + " FROM contacts WHERE contact_id = ?");
+            update = connection.prepareStatement("UPDATE contacts SET first_name = ?, "
+                    + "last_name = ?, phone_number = ?, address = ? WHERE contact_id = ? "
+                    + "AND first_name = ? AND last_name = ? AND phone_number = ? AND address = ?");
+            delete = connection.prepareStatement("DELETE FROM contacts WHERE contact_id = ?");
+            count = connection.prepareStatement("SELECT COUNT(*) FROM contacts");
+            StringBuilder in = new StringBuilder("SELECT contact_id FROM contacts WHERE contact_id IN (?");
+            for (int i = 1; i < CHUNK; i++) {
+                in.append(", ?");
+            }
+            exists = connection.prepareStatement(in.append(')').toString());
+            first = connection.prepareStatement("SELECT " + COLUMNS + " FROM contacts "
+                    + "ORDER BY order_key, contact_id LIMIT ?");
+            after = connection.prepareStatement("SELECT " + COLUMNS + " FROM contacts "
+                    + "WHERE order_key > ? OR (order_key = ? AND contact_id > ?) "
+                    + "ORDER BY order_key, contact_id LIMIT ?");
+        }
+    }
+}
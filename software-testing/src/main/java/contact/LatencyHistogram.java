@@ -0,0 +1,95 @@
+package contact;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size log-linear histogram of nanosecond latencies, in the style
+// of HdrHistogram.
+//
+// Values below 64 ns get a bucket each. Above that every power of two
+// is split into 32 equal buckets, so a recorded value is known to within
+// 1/32 (about 3%) of itself. Values past 2^41 ns, about 36 minutes, land
+// in the last bucket.
+//
+// Recording is one bucket computation and one atomic increment. Counts
+// are striped over several copies of the bucket array, picked by thread,
+// so threads on different cores rarely write the same cache line.
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB_COUNT;
+    private static final int MAX_MAGNITUDE = 40;
+    private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+
+    static final int BUCKETS = LINEAR + (MAX_MAGNITUDE - SUB_BITS) * SUB_COUNT;
+
+    private static final int STRIPES = stripes();
+
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+
+    void record(long nanos) {
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        counts.getAndIncrement(stripe * BUCKETS + bucketOf(nanos));
+    }
+
+    // Bucket counts summed over the stripes
+    long[] counts() {
+        long[] sums = new long[BUCKETS];
+        for (int s = 0; s < STRIPES; s++) {
+            for (int b = 0; b < BUCKETS; b++) {
+                sums[b] += counts.get(s * BUCKETS + b);
+            }
+        }
+        return sums;
+    }
+
+    void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < LINEAR) {
+            return nanos < 0 ? 0 : (int) nanos;
+        }
+        long value = Math.min(nanos, MAX_VALUE);
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        return LINEAR + (magnitude - SUB_BITS - 1) * SUB_COUNT
+                + (int) ((value >>> (magnitude - SUB_BITS)) & (SUB_COUNT - 1));
+    }
+
+    // Largest value that lands in bucket
+    static long highestValue(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int k = bucket - LINEAR;
+        int magnitude = k / SUB_COUNT + SUB_BITS + 1;
+        long width = 1L << (magnitude - SUB_BITS);
+        return (1L << magnitude) + (k % SUB_COUNT) * width + width - 1;
+    }
+
+    // Value at or below which percentile percent of counts fall, as the
+    // top of its bucket; 0 when counts is empty
+    static long valueAtPercentile(long[] counts, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int b = 0; b < counts.length; b++) {
+            seen += counts[b];
+            if (seen >= rank) {
+                return highestValue(b);
+            }
+        }
+        return highestValue(counts.length - 1);
+    }
+
+    // Smallest power of two covering the cores, at most 8
+    private static int stripes() {
+        int cores = Math.min(8, Runtime.getRuntime().availableProcessors());
+        return Integer.highestOneBit(Math.max(1, cores) * 2 - 1);
+    }
+}
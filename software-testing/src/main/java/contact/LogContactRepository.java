@@ -0,0 +1,608 @@
+package contact;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+// Durable repository backed by an append-only log file.
+//
+// Contacts are served from memory; every add, replace and delete is
+// also appended to the log through a FileChannel. On startup the log
+// is replayed to rebuild memory, stopping at the first torn or corrupt
+// record and truncating the file there.
+//
+// Writes are group committed. In the default mode each write returns
+// only once it is on disk, but one fsync covers every record appended
+// while the previous fsync was running, so concurrent writers share
+// the flush. With a flush interval, writes return as soon as they are
+// buffered and a background thread fsyncs on that period instead.
+// A write is appended before memory changes, and is reverted if its
+// fsync fails, so readers never keep a contact the log does not have.
+//
+// When dead records (overwritten or deleted contacts) outnumber live
+// ones the log is compacted by the next writer or flush: live contacts
+// are written to a new file as a snapshot, which then atomically
+// replaces the old log.
+//
+// Record layout: [int payload length][int CRC32 of payload][payload]
+// Payload: [byte op] then the ContactCodec encoding of the contact for
+// puts, or just the codec-encoded contactId for deletes.
+public class LogContactRepository implements ContactRepository, AutoCloseable {
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_PAYLOAD_BYTES = 1 + ContactCodec.MAX_ENCODED_BYTES;
+
+    // Do not bother compacting logs with fewer dead records than this
+    private static final int MIN_COMPACT_RECORDS = 10_000;
+
+    private static final Logger LOGGER =
+            Logger.getLogger(LogContactRepository.class.getName());
+
+    // Opens the log's channels; tests pass one that fails on demand
+    interface ChannelOpener {
+        FileChannel open(Path path, OpenOption... options) throws IOException;
+    }
+
+    private final Path file;
+    private final ChannelOpener opener;
+    private final ConcurrentHashMap<String, Contact> contacts = new ConcurrentHashMap<>();
+
+    // Guards the channel, the write buffer and the counters below, and
+    // orders memory updates the same way as their log records.
+    // appendedLsn counts every byte ever appended and, unlike the file
+    // size, keeps growing across compactions.
+    private final Object appendLock = new Object();
+    private FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CRC32 crc = new CRC32();
+    private long appendedBytes;
+    private long appendedLsn;
+    private long logRecords;
+    private boolean closed;
+
+    // Serializes fsyncs and compaction; taken before appendLock.
+    // durableLsn is how much of appendedLsn is known to be on disk.
+    private final Object syncLock = new Object();
+    private volatile long durableLsn;
+    private volatile boolean compactionDue;
+
+    // Set only in interval mode
+    private final ScheduledExecutorService flusher;
+
+    // Opens or creates the log, syncing every write before returning
+    public LogContactRepository(Path file) {
+        this(file, 0);
+    }
+
+    // Opens or creates the log. With flushIntervalMillis > 0, writes
+    // return once buffered and are fsynced on that period; a crash can
+    // lose up to one interval of writes.
+    public LogContactRepository(Path file, long flushIntervalMillis) {
+        this(file, flushIntervalMillis, FileChannel::open);
+    }
+
+    LogContactRepository(Path file, long flushIntervalMillis, ChannelOpener opener) {
+        if (file == null) {
+            throw new IllegalArgumentException("Log file cannot be null");
+        }
+        if (flushIntervalMillis < 0) {
+            throw new IllegalArgumentException("Flush interval cannot be negative");
+        }
+        this.file = file;
+        this.opener = opener;
+        try {
+            channel = opener.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            replay();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open contact log " + file, e);
+        }
+        appendedLsn = appendedBytes;
+        durableLsn = appendedLsn;
+        if (flushIntervalMillis > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "contact-log-flusher");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::flushInBackground,
+                    flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    // Return number of stored contacts
+    @Override
+    public int size() {
+        return contacts.size();
+    }
+
+    // Adds a contact
+    // Prevents duplicate IDs
+    @Override
+    public void add(Contact contact) {
+        long end;
+        synchronized (appendLock) {
+            ensureOpen();
+            if (contacts.containsKey(contact.getContactId())) {
+                throw new IllegalArgumentException("ID already exists");
+            }
+            end = appendPut(contact);
+            contacts.put(contact.getContactId(), contact);
+        }
+        commit(end, contact.getContactId(), contact, null);
+        maybeCompact();
+    }
+
+    // Adds a batch under one lock hold and waits for a single fsync
+    @Override
+    public List<Contact> addBatch(List<Contact> batch) {
+        List<Contact> rejected = new ArrayList<>();
+        List<Contact> added = new ArrayList<>();
+        try {
+            long end;
+            synchronized (appendLock) {
+                ensureOpen();
+                end = appendedLsn;
+                for (Contact contact : batch) {
+                    if (contacts.containsKey(contact.getContactId())) {
+                        rejected.add(contact);
+                    } else {
+                        end = appendPut(contact);
+                        contacts.put(contact.getContactId(), contact);
+                        added.add(contact);
+                    }
+                }
+            }
+            awaitDurable(end);
+        } catch (RuntimeException e) {
+            for (Contact contact : added) {
+                revert(contact.getContactId(), contact, null, e);
+            }
+            throw e;
+        }
+        maybeCompact();
+        return rejected;
+    }
+
+    // Find a contact by ID
+    @Override
+    public Contact findById(String contactId) {
+        if (contactId == null) {
+            return null;
+        }
+        return contacts.get(contactId);
+    }
+
+    // Swaps in the replacement and logs it if expected is still stored
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        long end;
+        synchronized (appendLock) {
+            ensureOpen();
+            if (contacts.get(expected.getContactId()) != expected) {
+                return false;
+            }
+            end = appendPut(replacement);
+            contacts.put(expected.getContactId(), replacement);
+        }
+        commit(end, expected.getContactId(), replacement, expected);
+        maybeCompact();
+        return true;
+    }
+
+    // Weakly consistent walk over memory; never touches the log
+    @Override
+    public Spliterator<Contact> spliterator() {
+        return contacts.values().spliterator();
+    }
+
+    // Deletes a contact by ID
+    @Override
+    public void deleteById(String contactId) {
+        long end;
+        Contact removed;
+        synchronized (appendLock) {
+            ensureOpen();
+            removed = contactId == null ? null : contacts.get(contactId);
+            if (removed == null) {
+                // ID not found
+                throw new IllegalArgumentException("Contact id does not exist");
+            }
+            end = appendDelete(contactId);
+            contacts.remove(contactId);
+        }
+        commit(end, contactId, null, removed);
+        maybeCompact();
+    }
+
+    // Writes buffered records and fsyncs them
+    public void flush() {
+        sync(Long.MAX_VALUE);
+    }
+
+    // Rewrites the log as a snapshot of the live contacts
+    public void compact() {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                ensureOpen();
+                try {
+                    rewrite();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot compact contact log " + file, e);
+                }
+            }
+        }
+    }
+
+    // Size of the log file in bytes, including buffered records
+    public long logSize() {
+        synchronized (appendLock) {
+            return appendedBytes;
+        }
+    }
+
+    // Flushes outstanding writes and closes the file
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                if (closed) {
+                    return;
+                }
+                try {
+                    writeBuffer();
+                    channel.force(false);
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot close contact log " + file, e);
+                } finally {
+                    closed = true;
+                }
+                durableLsn = appendedLsn;
+            }
+        }
+    }
+
+    // Appends a put record and returns the log offset it ends at
+    private long appendPut(Contact contact) {
+        int length = 1 + ContactCodec.encodedSize(contact);
+        startRecord(length);
+        buffer.put(OP_PUT);
+        ContactCodec.encode(contact, buffer);
+        return endRecord(length);
+    }
+
+    private long appendDelete(String contactId) {
+        int length = 1 + ContactCodec.stringSize(contactId);
+        startRecord(length);
+        buffer.put(OP_DELETE);
+        ContactCodec.putString(buffer, contactId);
+        return endRecord(length);
+    }
+
+    // Makes room for a record and reserves its header
+    private void startRecord(int payloadLength) {
+        if (buffer.remaining() < HEADER_BYTES + payloadLength) {
+            writeBufferUnchecked();
+        }
+        buffer.position(buffer.position() + HEADER_BYTES);
+    }
+
+    // Fills in the header once the payload is in the buffer
+    private long endRecord(int payloadLength) {
+        int end = buffer.position();
+        int start = end - payloadLength;
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start).limit(end);
+        crc.reset();
+        crc.update(payload);
+        buffer.putInt(start - HEADER_BYTES, payloadLength);
+        buffer.putInt(start - 4, (int) crc.getValue());
+        appendedBytes += HEADER_BYTES + payloadLength;
+        appendedLsn += HEADER_BYTES + payloadLength;
+        logRecords++;
+        // Flag compaction once dead records dominate
+        long dead = logRecords - contacts.size();
+        if (dead > MIN_COMPACT_RECORDS && dead > contacts.size()) {
+            compactionDue = true;
+        }
+        return appendedLsn;
+    }
+
+    // Waits for a write to reach disk unless running in interval mode
+    private void awaitDurable(long end) {
+        if (flusher == null) {
+            sync(end);
+        }
+    }
+
+    // Waits for one write to reach disk and reverts it if that fails
+    private void commit(long end, String contactId, Contact written, Contact previous) {
+        try {
+            awaitDurable(end);
+        } catch (RuntimeException e) {
+            revert(contactId, written, previous, e);
+            throw e;
+        }
+    }
+
+    // Takes back a write whose record could not be made durable. Unless
+    // another write has changed it since, a record restoring previous
+    // (null for an add) is appended, since the failed record stays
+    // buffered and may still reach disk, and then memory goes back too.
+    // If even that append fails, memory keeps the write, as the log will.
+    private void revert(String contactId, Contact written, Contact previous,
+                        RuntimeException failure) {
+        synchronized (appendLock) {
+            if (contacts.get(contactId) != written) {
+                return;
+            }
+            if (!closed) {
+                try {
+                    if (previous == null) {
+                        appendDelete(contactId);
+                    } else {
+                        appendPut(previous);
+                    }
+                } catch (RuntimeException e) {
+                    failure.addSuppressed(e);
+                    return;
+                }
+            }
+            if (previous == null) {
+                contacts.remove(contactId);
+            } else {
+                contacts.put(contactId, previous);
+            }
+        }
+    }
+
+    // Group commit: the first waiter to take syncLock writes out the
+    // buffer and fsyncs everything appended so far; waiters queued
+    // behind it usually find their record already durable.
+    private void sync(long end) {
+        if (durableLsn >= end) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableLsn >= end) {
+                return;
+            }
+            long target;
+            synchronized (appendLock) {
+                ensureOpen();
+                writeBufferUnchecked();
+                target = appendedLsn;
+            }
+            // Compaction and close also take syncLock, so the channel
+            // cannot be swapped or closed under this force
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot sync contact log " + file, e);
+            }
+            durableLsn = target;
+        }
+    }
+
+    // Compacts if a write flagged the log as mostly dead records
+    private void maybeCompact() {
+        if (compactionDue) {
+            synchronized (syncLock) {
+                synchronized (appendLock) {
+                    if (!compactionDue || closed) {
+                        return;
+                    }
+                    try {
+                        rewrite();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot compact contact log " + file, e);
+                    }
+                }
+            }
+        }
+    }
+
+    // Periodic flush and compaction for interval mode; failures are
+    // logged and retried on the next run
+    private void flushInBackground() {
+        try {
+            synchronized (syncLock) {
+                synchronized (appendLock) {
+                    if (closed) {
+                        return;
+                    }
+                }
+                sync(Long.MAX_VALUE);
+            }
+            maybeCompact();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Contact log flush failed", e);
+        }
+    }
+
+    // Writes the buffer to the channel at the offsets its records belong
+    // to; caller holds appendLock. On failure the unwritten bytes stay
+    // buffered, so the next write carries on from the first byte not
+    // known to be written, overwriting whatever a torn write left there.
+    private void writeBuffer() throws IOException {
+        long offset = appendedBytes - buffer.position();
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+        } finally {
+            buffer.compact();
+        }
+    }
+
+    private void writeBufferUnchecked() {
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write contact log " + file, e);
+        }
+    }
+
+    // Writes every live contact to a new log and swaps it in.
+    // Caller holds syncLock and appendLock.
+    private void rewrite() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+        writeBuffer();
+        long savedBytes = appendedBytes;
+        long savedLsn = appendedLsn;
+        long savedRecords = logRecords;
+        FileChannel live = channel;
+        FileChannel out = opener.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            appendedBytes = 0;
+            logRecords = 0;
+            channel = out;
+            for (Contact contact : contacts.values()) {
+                appendPut(contact);
+            }
+            writeBuffer();
+            out.force(false);
+            // out keeps writing to the snapshot once it replaces the log
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // Keep appending to the old log as if nothing happened
+            channel = live;
+            buffer.clear();
+            appendedBytes = savedBytes;
+            appendedLsn = savedLsn;
+            logRecords = savedRecords;
+            try {
+                out.close();
+                Files.deleteIfExists(tmp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        try {
+            live.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot close replaced contact log " + file, e);
+        }
+        syncDirectory();
+        // The snapshot holds every live contact and has been fsynced
+        durableLsn = appendedLsn;
+        compactionDue = false;
+        long records = logRecords;
+        LOGGER.fine(() -> "Compacted contact log to " + records + " records");
+    }
+
+    // Makes the rename of a compacted log durable. Some platforms cannot
+    // open a directory for sync; the rename is still atomic there.
+    private void syncDirectory() {
+        Path dir = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Cannot sync directory " + dir, e);
+        }
+    }
+
+    // Rebuilds memory from the log and truncates any torn tail
+    private void replay() throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_BYTES);
+        long position = 0;
+        long valid = 0;
+        long records = 0;
+        while (position < fileSize) {
+            in.clear();
+            in.limit(HEADER_BYTES);
+            if (!readFully(in, position)) {
+                break;
+            }
+            in.flip();
+            int length = in.getInt();
+            int checksum = in.getInt();
+            if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                break;
+            }
+            in.clear();
+            in.limit(length);
+            if (!readFully(in, position + HEADER_BYTES)) {
+                break;
+            }
+            in.flip();
+            crc.reset();
+            crc.update(in.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            apply(in);
+            position += HEADER_BYTES + length;
+            valid = position;
+            records++;
+        }
+        if (valid < fileSize) {
+            long dropped = fileSize - valid;
+            LOGGER.warning(() -> "Truncating " + dropped + " bytes of torn contact log " + file);
+            channel.truncate(valid);
+        }
+        appendedBytes = valid;
+        logRecords = records;
+    }
+
+    // Applies one replayed record to memory
+    private void apply(ByteBuffer payload) {
+        byte op = payload.get();
+        if (op == OP_PUT) {
+            // Logged contacts were validated before they were written
+            Contact contact = ContactCodec.decode(payload);
+            contacts.put(contact.getContactId(), contact);
+        } else {
+            contacts.remove(ContactCodec.getString(payload));
+        }
+    }
+
+    private boolean readFully(ByteBuffer in, long position) throws IOException {
+        while (in.hasRemaining()) {
+            int read = channel.read(in, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Contact log is closed");
+        }
+    }
+}
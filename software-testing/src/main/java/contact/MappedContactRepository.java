@@ -0,0 +1,589 @@
+package contact;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Off-heap repository storing contacts in fixed-width slots.
+//
+// Records live outside the Java heap, either in a memory-mapped file or
+// in direct ByteBuffers, so tens of millions of contacts add nothing
+// for the garbage collector to trace. A Contact object is only built
+// when findById asks for one.
+//
+// Slot widths follow the ContactValidator bounds. Each text field is a
+// length byte followed by UTF-16 chars, so any valid value fits:
+//  state(1) | id(1+20) | first(1+20) | last(1+20) | phone(20) | address(1+60)
+//
+// Lookups go through an open-addressing index of slot numbers that
+// lives in the same file, so a mapped store reopens without rebuilding
+// or deserializing anything. Deleted slots go on a free list and are
+// reused. Deleting an index entry shifts later entries of its probe
+// chain back, as in HashContactRepository, so probes stay short however
+// many contacts come and go.
+//
+// File layout: header | index (int per bucket) | slots
+// Capacity is fixed when the store is created.
+//
+// Streams walk the slots in order, taking the read lock per contact.
+// Pages walk the index by home bucket in ContactPage order, so each
+// page costs its own size rather than a pass over the store.
+public class MappedContactRepository implements ContactRepository, AutoCloseable {
+
+    private static final int MAGIC = 0x434F4E54; // "CONT"
+    private static final int VERSION = 1;
+
+    // Header fields
+    private static final int HEADER_BYTES = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_BUCKETS = 12;
+    private static final int H_SIZE = 16;
+    private static final int H_HIGH_WATER = 20;
+    private static final int H_FREE_HEAD = 24;
+
+    // Slot fields
+    private static final int SLOT_BYTES = 152;
+    private static final int S_STATE = 0;
+    private static final int S_ID = 1;
+    private static final int S_FIRST = 22;
+    private static final int S_LAST = 43;
+    private static final int S_PHONE = 64;
+    private static final int S_ADDRESS = 84;
+    // A free slot stores the next free slot here instead of an ID
+    private static final int S_NEXT_FREE = 4;
+
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+
+    // Index entries hold slot + 1; 0 is empty
+    private static final int EMPTY = 0;
+
+    // Slots and buckets per mapped region, keeping each under 2 GB
+    private static final int SLOTS_PER_REGION = 1 << 22;
+    private static final int BUCKETS_PER_REGION = 1 << 28;
+
+    private final FileChannel channel;
+    private final ByteBuffer header;
+    private final ByteBuffer[] index;
+    private final ByteBuffer[] slots;
+    private final int capacity;
+    private final int bucketMask;
+
+    // Readers share the lock; add, replace and delete take it exclusively
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    // Creates a store in direct memory, lost when the process exits
+    public MappedContactRepository(int capacity) {
+        this(null, capacity);
+    }
+
+    // Opens the store in file, creating it with room for capacity
+    // contacts if it does not exist. An existing file keeps the
+    // capacity it was created with.
+    public MappedContactRepository(Path file, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        try {
+            if (file == null) {
+                channel = null;
+            } else {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            boolean existing = channel != null && channel.size() >= HEADER_BYTES;
+            header = region(0, HEADER_BYTES);
+            if (existing) {
+                if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != VERSION) {
+                    throw new IllegalArgumentException("Not a contact store: " + file);
+                }
+                capacity = header.getInt(H_CAPACITY);
+            }
+            int buckets = existing ? header.getInt(H_BUCKETS) : bucketsFor(capacity);
+            this.capacity = capacity;
+            this.bucketMask = buckets - 1;
+
+            long indexStart = HEADER_BYTES;
+            index = new ByteBuffer[(buckets + BUCKETS_PER_REGION - 1) / BUCKETS_PER_REGION];
+            for (int r = 0; r < index.length; r++) {
+                int count = Math.min(BUCKETS_PER_REGION, buckets - r * BUCKETS_PER_REGION);
+                index[r] = region(indexStart + (long) r * BUCKETS_PER_REGION * 4, count * 4);
+            }
+            long slotStart = indexStart + (long) buckets * 4;
+            slots = new ByteBuffer[(capacity + SLOTS_PER_REGION - 1) / SLOTS_PER_REGION];
+            for (int r = 0; r < slots.length; r++) {
+                int count = Math.min(SLOTS_PER_REGION, capacity - r * SLOTS_PER_REGION);
+                slots[r] = region(slotStart + (long) r * SLOTS_PER_REGION * SLOT_BYTES,
+                        count * SLOT_BYTES);
+            }
+
+            if (!existing) {
+                header.putInt(H_MAGIC, MAGIC);
+                header.putInt(H_VERSION, VERSION);
+                header.putInt(H_CAPACITY, capacity);
+                header.putInt(H_BUCKETS, buckets);
+                header.putInt(H_SIZE, 0);
+                header.putInt(H_HIGH_WATER, 0);
+                header.putInt(H_FREE_HEAD, -1);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open contact store " + file, e);
+        }
+    }
+
+    // Return number of stored contacts
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return header.getInt(H_SIZE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Maximum number of contacts the store can hold
+    public int capacity() {
+        return capacity;
+    }
+
+    // Adds a contact
+    // Prevents duplicate IDs or adding contact beyond capacity
+    @Override
+    public void add(Contact contact) {
+        String id = contact.getContactId();
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            int b = hash(id) & bucketMask;
+            for (int entry = bucket(b); entry != EMPTY; entry = bucket(b)) {
+                if (idEquals(entry - 1, id)) {
+                    throw new IllegalArgumentException("ID already exists");
+                }
+                b = (b + 1) & bucketMask;
+            }
+            int slot = allocateSlot();
+            writeSlot(slot, contact);
+            setBucket(b, slot + 1);
+            header.putInt(H_SIZE, header.getInt(H_SIZE) + 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Find a contact by ID, decoding it from its slot
+    @Override
+    public Contact findById(String contactId) {
+        if (contactId == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            int b = findBucket(contactId);
+            return b < 0 ? null : readSlot(bucket(b) - 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Overwrites the slot if its fields still match expected.
+    // Views are decoded per call, so this compares values, not identity.
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            int b = findBucket(expected.getContactId());
+            if (b < 0) {
+                return false;
+            }
+            int slot = bucket(b) - 1;
+            if (!slotMatches(slot, expected)) {
+                return false;
+            }
+            writeSlot(slot, replacement);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Deletes a contact by ID
+    @Override
+    public void deleteById(String contactId) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            int b = contactId == null ? -1 : findBucket(contactId);
+            if (b < 0) {
+                // ID not found
+                throw new IllegalArgumentException("Contact id does not exist");
+            }
+            int slot = bucket(b) - 1;
+            removeAt(b);
+            freeSlot(slot);
+            header.putInt(H_SIZE, header.getInt(H_SIZE) - 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Splits the used slot range for parallel streams
+    @Override
+    public Spliterator<Contact> spliterator() {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            return new SlotSpliterator(0, header.getInt(H_HIGH_WATER));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Visits home buckets from the cursor's onward in walk order,
+    // reading each bucket's entries from its probe chain
+    @Override
+    public ContactPage page(String cursor, int limit) {
+        ContactPage.checkLimit(limit);
+        int bits = Integer.numberOfTrailingZeros(bucketMask + 1);
+        int start = cursor == null ? 0 : ContactPage.orderKey(cursor) >>> (32 - bits);
+        List<Contact> page = new ArrayList<>();
+        List<Contact> bucket = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            for (int r = start; r <= bucketMask && page.size() < limit; r++) {
+                int home = Integer.reverse(r) >>> (32 - bits);
+                bucket.clear();
+                int b = home;
+                for (int entry = bucket(b); entry != EMPTY; entry = bucket(b)) {
+                    if ((slotHash(entry - 1) & bucketMask) == home) {
+                        bucket.add(readSlot(entry - 1));
+                    }
+                    b = (b + 1) & bucketMask;
+                }
+                bucket.sort((x, y) -> ContactPage.ID_ORDER.compare(x.getContactId(), y.getContactId()));
+                for (Contact contact : bucket) {
+                    if (page.size() < limit && (cursor == null
+                            || ContactPage.ID_ORDER.compare(contact.getContactId(), cursor) > 0)) {
+                        page.add(contact);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ContactPage.of(page, limit);
+    }
+
+    // Forces mapped changes to disk; a no-op for direct memory stores
+    public void flush() {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            if (channel != null) {
+                ((MappedByteBuffer) header).force();
+                for (ByteBuffer region : index) {
+                    ((MappedByteBuffer) region).force();
+                }
+                for (ByteBuffer region : slots) {
+                    ((MappedByteBuffer) region).force();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Flushes and closes the backing file
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        flush();
+        lock.writeLock().lock();
+        try {
+            closed = true;
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close contact store", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Walks slots [from, to), decoding the used ones
+    private final class SlotSpliterator implements Spliterator<Contact> {
+        private int from;
+        private final int to;
+
+        SlotSpliterator(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Contact> action) {
+            Contact next = null;
+            lock.readLock().lock();
+            try {
+                ensureOpen();
+                while (next == null && from < to) {
+                    int slot = from++;
+                    if (slotBuffer(slot).get(slotOffset(slot) + S_STATE) == USED) {
+                        next = readSlot(slot);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (next == null) {
+                return false;
+            }
+            action.accept(next);
+            return true;
+        }
+
+        @Override
+        public Spliterator<Contact> trySplit() {
+            int mid = (from + to) >>> 1;
+            if (mid - from < 64) {
+                return null;
+            }
+            Spliterator<Contact> prefix = new SlotSpliterator(from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL;
+        }
+    }
+
+    // Bucket holding contactId, or -1 if absent. The index always has
+    // more buckets than slots, so every probe chain ends at an empty one.
+    private int findBucket(String contactId) {
+        int b = hash(contactId) & bucketMask;
+        for (int entry = bucket(b); entry != EMPTY; entry = bucket(b)) {
+            if (idEquals(entry - 1, contactId)) {
+                return b;
+            }
+            b = (b + 1) & bucketMask;
+        }
+        return -1;
+    }
+
+    // Number of buckets a lookup of contactId visits, for tests
+    int probeLength(String contactId) {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            int probes = 1;
+            int b = hash(contactId) & bucketMask;
+            for (int entry = bucket(b); entry != EMPTY; entry = bucket(b)) {
+                if (idEquals(entry - 1, contactId)) {
+                    break;
+                }
+                b = (b + 1) & bucketMask;
+                probes++;
+            }
+            return probes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Clears bucket b and shifts later entries of the same probe chain
+    // back so lookups never stop early on a hole
+    private void removeAt(int b) {
+        int hole = b;
+        int j = (b + 1) & bucketMask;
+        for (int entry = bucket(j); entry != EMPTY; entry = bucket(j)) {
+            int home = slotHash(entry - 1) & bucketMask;
+            // Move entry j into the hole unless its home bucket lies
+            // cyclically in (hole, j]
+            if (((j - home) & bucketMask) >= ((j - hole) & bucketMask)) {
+                setBucket(hole, entry);
+                hole = j;
+            }
+            j = (j + 1) & bucketMask;
+        }
+        setBucket(hole, EMPTY);
+    }
+
+    // Takes a slot from the free list, or the next never-used one
+    private int allocateSlot() {
+        int free = header.getInt(H_FREE_HEAD);
+        if (free >= 0) {
+            header.putInt(H_FREE_HEAD, slotBuffer(free).getInt(slotOffset(free) + S_NEXT_FREE));
+            return free;
+        }
+        int next = header.getInt(H_HIGH_WATER);
+        if (next >= capacity) {
+            throw new IllegalStateException("Contact storage is full");
+        }
+        header.putInt(H_HIGH_WATER, next + 1);
+        return next;
+    }
+
+    private void freeSlot(int slot) {
+        ByteBuffer buf = slotBuffer(slot);
+        int base = slotOffset(slot);
+        buf.put(base + S_STATE, FREE);
+        buf.putInt(base + S_NEXT_FREE, header.getInt(H_FREE_HEAD));
+        header.putInt(H_FREE_HEAD, slot);
+    }
+
+    private void writeSlot(int slot, Contact contact) {
+        ByteBuffer buf = slotBuffer(slot);
+        int base = slotOffset(slot);
+        putChars(buf, base + S_ID, contact.getContactId(), true);
+        putChars(buf, base + S_FIRST, contact.getFirstName(), true);
+        putChars(buf, base + S_LAST, contact.getLastName(), true);
+        putChars(buf, base + S_PHONE, contact.getPhoneNumber(), false);
+        putChars(buf, base + S_ADDRESS, contact.getAddress(), true);
+        // Mark used last so a half-written slot is never live
+        buf.put(base + S_STATE, USED);
+    }
+
+    private Contact readSlot(int slot) {
+        ByteBuffer buf = slotBuffer(slot);
+        int base = slotOffset(slot);
+        // Stored contacts were validated before they were written
+        return Contact.ofValidated(
+                getChars(buf, base + S_ID, -1),
+                getChars(buf, base + S_FIRST, -1),
+                getChars(buf, base + S_LAST, -1),
+                getChars(buf, base + S_PHONE, 10),
+                getChars(buf, base + S_ADDRESS, -1));
+    }
+
+    // Compares the stored ID with key without decoding the slot
+    private boolean idEquals(int slot, String key) {
+        ByteBuffer buf = slotBuffer(slot);
+        int at = slotOffset(slot) + S_ID;
+        int length = buf.get(at);
+        if (length != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buf.getChar(at + 1 + 2 * i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // hash() of the stored ID, computed without decoding the slot
+    private int slotHash(int slot) {
+        ByteBuffer buf = slotBuffer(slot);
+        int at = slotOffset(slot) + S_ID;
+        int length = buf.get(at);
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + buf.getChar(at + 1 + 2 * i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private boolean slotMatches(int slot, Contact expected) {
+        ByteBuffer buf = slotBuffer(slot);
+        int base = slotOffset(slot);
+        return getChars(buf, base + S_FIRST, -1).equals(expected.getFirstName())
+                && getChars(buf, base + S_LAST, -1).equals(expected.getLastName())
+                && getChars(buf, base + S_PHONE, 10).equals(expected.getPhoneNumber())
+                && getChars(buf, base + S_ADDRESS, -1).equals(expected.getAddress());
+    }
+
+    // Writes value as UTF-16 chars, preceded by a length byte if prefixed
+    private static void putChars(ByteBuffer buf, int at, String value, boolean prefixed) {
+        if (prefixed) {
+            buf.put(at++, (byte) value.length());
+        }
+        for (int i = 0; i < value.length(); i++) {
+            buf.putChar(at + 2 * i, value.charAt(i));
+        }
+    }
+
+    // Reads a field written by putChars; fixedLength < 0 means prefixed
+    private static String getChars(ByteBuffer buf, int at, int fixedLength) {
+        int length = fixedLength;
+        if (length < 0) {
+            length = buf.get(at++);
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = buf.getChar(at + 2 * i);
+        }
+        return new String(chars);
+    }
+
+    private int bucket(int b) {
+        return index[b / BUCKETS_PER_REGION].getInt((b % BUCKETS_PER_REGION) * 4);
+    }
+
+    private void setBucket(int b, int entry) {
+        index[b / BUCKETS_PER_REGION].putInt((b % BUCKETS_PER_REGION) * 4, entry);
+    }
+
+    private ByteBuffer slotBuffer(int slot) {
+        return slots[slot / SLOTS_PER_REGION];
+    }
+
+    private static int slotOffset(int slot) {
+        return (slot % SLOTS_PER_REGION) * SLOT_BYTES;
+    }
+
+    // Maps part of the file, or allocates direct memory without one
+    private ByteBuffer region(long position, int size) throws IOException {
+        if (channel == null) {
+            return ByteBuffer.allocateDirect(size);
+        }
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Contact store is closed");
+        }
+    }
+
+    // Power of two with at least two buckets per slot
+    private static int bucketsFor(int capacity) {
+        int buckets = Integer.highestOneBit(capacity) << 2;
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Capacity too large");
+        }
+        return buckets;
+    }
+
+    // String.hashCode is fixed by its spec, so hashes stay valid across
+    // processes that reopen the same file
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
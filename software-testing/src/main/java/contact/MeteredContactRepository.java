@@ -0,0 +1,197 @@
+package contact;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Repository decorator that counts and times every call.
+//
+// Wraps any ContactRepository and keeps, per operation, the number of
+// calls, the number that threw, and their total duration. Counters are
+// LongAdders so concurrent callers do not contend on them, and
+// snapshot() can be read by a scraper at any time without locking.
+public class MeteredContactRepository implements ContactRepository {
+
+    // Operations tracked, in snapshot key order
+    private static final String[] OPERATIONS =
+            {"add", "addBatch", "deleteById", "findById", "replace"};
+    private static final int ADD = 0;
+    private static final int ADD_BATCH = 1;
+    private static final int DELETE = 2;
+    private static final int FIND = 3;
+    private static final int REPLACE = 4;
+
+    private final ContactRepository delegate;
+    private final LongAdder[] calls = adders();
+    private final LongAdder[] errors = adders();
+    private final LongAdder[] nanos = adders();
+
+    public MeteredContactRepository(ContactRepository delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void add(Contact contact) {
+        long start = System.nanoTime();
+        try {
+            delegate.add(contact);
+        } catch (RuntimeException e) {
+            errors[ADD].increment();
+            throw e;
+        } finally {
+            record(ADD, start);
+        }
+    }
+
+    @Override
+    public List<Contact> addBatch(List<Contact> contacts) {
+        long start = System.nanoTime();
+        try {
+            return delegate.addBatch(contacts);
+        } catch (RuntimeException e) {
+            errors[ADD_BATCH].increment();
+            throw e;
+        } finally {
+            record(ADD_BATCH, start);
+        }
+    }
+
+    @Override
+    public Contact findById(String contactId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(contactId);
+        } catch (RuntimeException e) {
+            errors[FIND].increment();
+            throw e;
+        } finally {
+            record(FIND, start);
+        }
+    }
+
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        long start = System.nanoTime();
+        try {
+            return delegate.replace(expected, replacement);
+        } catch (RuntimeException e) {
+            errors[REPLACE].increment();
+            throw e;
+        } finally {
+            record(REPLACE, start);
+        }
+    }
+
+    @Override
+    public void deleteById(String contactId) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteById(contactId);
+        } catch (RuntimeException e) {
+            errors[DELETE].increment();
+            throw e;
+        } finally {
+            record(DELETE, start);
+        }
+    }
+
+    // Secondary lookups, searches and walks pass straight through,
+    // unmetered
+
+    @Override
+    public List<Contact> findByPhoneNumber(String phoneNumber) {
+        return delegate.findByPhoneNumber(phoneNumber);
+    }
+
+    @Override
+    public List<Contact> findByLastName(String lastName) {
+        return delegate.findByLastName(lastName);
+    }
+
+    @Override
+    public List<Contact> findByFirstName(String firstName) {
+        return delegate.findByFirstName(firstName);
+    }
+
+    @Override
+    public Spliterator<Contact> spliterator() {
+        return delegate.spliterator();
+    }
+
+    @Override
+    public ContactPage page(String cursor, int limit) {
+        return delegate.page(cursor, limit);
+    }
+
+    @Override
+    public List<Contact> searchByPrefix(String prefix, int limit) {
+        return delegate.searchByPrefix(prefix, limit);
+    }
+
+    @Override
+    public List<Contact> searchFuzzy(String query, int limit) {
+        return delegate.searchFuzzy(query, limit);
+    }
+
+    @Override
+    public ContactRepository snapshotView() {
+        return delegate.snapshotView();
+    }
+
+    // Calls made to one operation, such as "findById"
+    public long getCalls(String operation) {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            if (OPERATIONS[i].equals(operation)) {
+                return calls[i].sum();
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + operation);
+    }
+
+    // Point-in-time copy of every counter, keyed by metric name:
+    //  repository.<op>.calls   calls made
+    //  repository.<op>.errors  calls that threw
+    //  repository.<op>.nanos   total time spent
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            String prefix = "repository." + OPERATIONS[i];
+            snapshot.put(prefix + ".calls", calls[i].sum());
+            snapshot.put(prefix + ".errors", errors[i].sum());
+            snapshot.put(prefix + ".nanos", nanos[i].sum());
+        }
+        return snapshot;
+    }
+
+    // Reset counters to zero
+    public void reset() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            calls[i].reset();
+            errors[i].reset();
+            nanos[i].reset();
+        }
+    }
+
+    private void record(int op, long start) {
+        nanos[op].add(System.nanoTime() - start);
+        calls[op].increment();
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[OPERATIONS.length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,143 @@
+package contact;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+
+// Repository decorator that adds prefix and typo-tolerant search over
+// first name, last name and address.
+//
+// Wraps any ContactRepository and keeps a ContactSearchIndex in step
+// with every add, replace and delete, so contacts added, updated or
+// deleted through ContactService are searchable straight away. Setters
+// called directly on a stored Contact bypass the repository and are not
+// seen.
+//
+// Writes to the same contactId are serialized by a striped lock so the
+// store and the index change together; searches never lock. Exact
+// lookups on phone and names are forwarded, so this can wrap an
+// IndexedContactRepository or be wrapped by one.
+public class SearchableContactRepository implements ContactRepository {
+
+    private final ContactRepository delegate;
+    private final ContactSearchIndex index = new ContactSearchIndex();
+    private final ContactStripes stripes = new ContactStripes();
+
+    // Indexes the contacts already stored, so a reopened persistent store
+    // is searchable at once. A non-empty store that cannot be iterated
+    // throws UnsupportedOperationException. Nothing else may write to the
+    // store while this runs.
+    public SearchableContactRepository(ContactRepository delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        this.delegate = delegate;
+        if (delegate.size() > 0) {
+            delegate.spliterator().forEachRemaining(index::add);
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void add(Contact contact) {
+        synchronized (stripes.of(contact.getContactId())) {
+            delegate.add(contact);
+            index.add(contact);
+        }
+    }
+
+    // Holds every stripe so no single-ID write interleaves with the batch
+    @Override
+    public List<Contact> addBatch(List<Contact> contacts) {
+        return stripes.withAll(() -> {
+            List<Contact> rejected = delegate.addBatch(contacts);
+            Set<Contact> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+            skipped.addAll(rejected);
+            for (Contact contact : contacts) {
+                if (!skipped.contains(contact)) {
+                    index.add(contact);
+                }
+            }
+            return rejected;
+        });
+    }
+
+    @Override
+    public Contact findById(String contactId) {
+        return delegate.findById(contactId);
+    }
+
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        synchronized (stripes.of(expected.getContactId())) {
+            if (!delegate.replace(expected, replacement)) {
+                return false;
+            }
+            index.remove(expected);
+            index.add(replacement);
+            return true;
+        }
+    }
+
+    @Override
+    public void deleteById(String contactId) {
+        if (contactId == null) {
+            delegate.deleteById(null);
+            return;
+        }
+        synchronized (stripes.of(contactId)) {
+            Contact existing = delegate.findById(contactId);
+            delegate.deleteById(contactId);
+            if (existing != null) {
+                index.remove(existing);
+            }
+        }
+    }
+
+    @Override
+    public List<Contact> findByPhoneNumber(String phoneNumber) {
+        return delegate.findByPhoneNumber(phoneNumber);
+    }
+
+    @Override
+    public List<Contact> findByLastName(String lastName) {
+        return delegate.findByLastName(lastName);
+    }
+
+    @Override
+    public List<Contact> findByFirstName(String firstName) {
+        return delegate.findByFirstName(firstName);
+    }
+
+    @Override
+    public Spliterator<Contact> spliterator() {
+        return delegate.spliterator();
+    }
+
+    @Override
+    public ContactPage page(String cursor, int limit) {
+        return delegate.page(cursor, limit);
+    }
+
+    @Override
+    public List<Contact> searchByPrefix(String prefix, int limit) {
+        return index.searchByPrefix(prefix, limit);
+    }
+
+    @Override
+    public List<Contact> searchFuzzy(String query, int limit) {
+        return index.searchFuzzy(query, limit);
+    }
+
+    // The view has no search index; only the store is frozen
+    @Override
+    public ContactRepository snapshotView() {
+        return delegate.snapshotView();
+    }
+}
@@ -0,0 +1,239 @@
+package contact;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// Repository that hash-partitions contacts across independent shards.
+//
+// Each contactId always routes to the same shard, so duplicate IDs are
+// still caught by that shard's own check. Every shard has its own
+// read-write lock: finds share it, writes take it alone, and calls on
+// different shards never contend. Shards can therefore be plain
+// single-threaded stores such as HashContactRepository.
+//
+// The shard is picked from the top bits of a multiplicative hash, not
+// the low bits the shards' own hash tables use, so each shard still
+// spreads its contacts over all of its buckets.
+//
+// size() sums the shards. Secondary lookups and searches are not
+// sharded; wrap this in IndexedContactRepository or
+// SearchableContactRepository for those.
+public class ShardedContactRepository implements ContactRepository, AutoCloseable {
+
+    private final ContactRepository[] shards;
+    private final ReadWriteLock[] locks;
+
+    // One HashContactRepository shard per available core
+    public ShardedContactRepository() {
+        this(Runtime.getRuntime().availableProcessors(), HashContactRepository::new);
+    }
+
+    // shardCount shards, each created by factory
+    public ShardedContactRepository(int shardCount, Supplier<ContactRepository> factory) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        if (factory == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        shards = new ContactRepository[shardCount];
+        locks = new ReadWriteLock[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = factory.get();
+            if (shards[i] == null) {
+                throw new IllegalArgumentException("Repository cannot be null");
+            }
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // Sum of shard sizes; may be stale under concurrent writes
+    @Override
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < shards.length; i++) {
+            locks[i].readLock().lock();
+            try {
+                size += shards[i].size();
+            } finally {
+                locks[i].readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void add(Contact contact) {
+        int s = shardOf(contact.getContactId());
+        locks[s].writeLock().lock();
+        try {
+            shards[s].add(contact);
+        } finally {
+            locks[s].writeLock().unlock();
+        }
+    }
+
+    // Splits the batch by shard and hands each shard its part in one call
+    @Override
+    public List<Contact> addBatch(List<Contact> contacts) {
+        List<List<Contact>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            parts.add(new ArrayList<>());
+        }
+        for (Contact contact : contacts) {
+            parts.get(shardOf(contact.getContactId())).add(contact);
+        }
+        List<Contact> rejected = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (parts.get(i).isEmpty()) {
+                continue;
+            }
+            locks[i].writeLock().lock();
+            try {
+                rejected.addAll(shards[i].addBatch(parts.get(i)));
+            } finally {
+                locks[i].writeLock().unlock();
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public Contact findById(String contactId) {
+        if (contactId == null) {
+            return null;
+        }
+        int s = shardOf(contactId);
+        locks[s].readLock().lock();
+        try {
+            return shards[s].findById(contactId);
+        } finally {
+            locks[s].readLock().unlock();
+        }
+    }
+
+    // The shard's own replace runs under its write lock, so even the
+    // check-then-act default is atomic here
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        int s = shardOf(expected.getContactId());
+        locks[s].writeLock().lock();
+        try {
+            return shards[s].replace(expected, replacement);
+        } finally {
+            locks[s].writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(String contactId) {
+        if (contactId == null) {
+            // ID not found
+            throw new IllegalArgumentException("Contact id does not exist");
+        }
+        int s = shardOf(contactId);
+        locks[s].writeLock().lock();
+        try {
+            shards[s].deleteById(contactId);
+        } finally {
+            locks[s].writeLock().unlock();
+        }
+    }
+
+    // Walks the shards one after another; parallel streams split by
+    // shard. Each shard is copied under its read lock when the walk
+    // reaches it, as page() reads it, so writes alongside cannot tear the
+    // walk. Contacts stored for the whole walk are seen once, others may
+    // or may not be. Holds one shard's contacts at a time.
+    @Override
+    public Spliterator<Contact> spliterator() {
+        return IntStream.range(0, shards.length).boxed()
+                .flatMap(i -> copyOf(i).stream())
+                .spliterator();
+    }
+
+    private List<Contact> copyOf(int shard) {
+        locks[shard].readLock().lock();
+        try {
+            List<Contact> contacts = new ArrayList<>(shards[shard].size());
+            shards[shard].spliterator().forEachRemaining(contacts::add);
+            return contacts;
+        } finally {
+            locks[shard].readLock().unlock();
+        }
+    }
+
+    // Takes a page from every shard and merges them in walk order
+    @Override
+    public ContactPage page(String cursor, int limit) {
+        ContactPage.checkLimit(limit);
+        PriorityQueue<Contact> merged = new PriorityQueue<>(
+                (a, b) -> ContactPage.ID_ORDER.compare(a.getContactId(), b.getContactId()));
+        for (int i = 0; i < shards.length; i++) {
+            locks[i].readLock().lock();
+            try {
+                merged.addAll(shards[i].page(cursor, limit).getContacts());
+            } finally {
+                locks[i].readLock().unlock();
+            }
+        }
+        List<Contact> page = new ArrayList<>(Math.min(limit, merged.size()));
+        while (page.size() < limit && !merged.isEmpty()) {
+            page.add(merged.poll());
+        }
+        return ContactPage.of(page, limit);
+    }
+
+    // Closes every shard that holds files or memory, even if one fails.
+    // The first failure is thrown unchecked, later ones suppressed by it.
+    @Override
+    public void close() {
+        RuntimeException failure = null;
+        for (ContactRepository shard : shards) {
+            if (!(shard instanceof AutoCloseable)) {
+                continue;
+            }
+            try {
+                ((AutoCloseable) shard).close();
+            } catch (Exception e) {
+                RuntimeException wrapped;
+                if (e instanceof RuntimeException) {
+                    wrapped = (RuntimeException) e;
+                } else if (e instanceof IOException) {
+                    wrapped = new UncheckedIOException("Cannot close shard", (IOException) e);
+                } else {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    wrapped = new IllegalStateException("Cannot close shard", e);
+                }
+                if (failure == null) {
+                    failure = wrapped;
+                } else {
+                    failure.addSuppressed(wrapped);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Fibonacci hashing: the top bits of the product decide the shard
+    private int shardOf(String contactId) {
+        long h = (contactId.hashCode() * 0x9E3779B9L) & 0xffffffffL;
+        return (int) ((h * shards.length) >>> 32);
+    }
+}
@@ -0,0 +1,491 @@
+package contact;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Thread-safe repository with O(1) point-in-time snapshots.
+//
+// Contacts live in a persistent hash trie. A write copies only the path
+// from the root to the changed entry, at most eight small arrays, and
+// publishes a new immutable version. Published versions are never
+// changed again, so snapshotView() just hands out the current one: no copy,
+// no lock. Reads and snapshots never lock; writers take a lock only
+// among themselves.
+//
+// The trie is keyed by ContactPage.orderKey, top bits first, so an
+// in-order walk is the page walk order and page() seeks straight to
+// the cursor instead of scanning.
+//
+// Snapshots hold the stored Contact objects, not copies. ContactService
+// never changes a stored contact in place, but calling its setters
+// directly would show through every snapshot holding it.
+public class SnapshotContactRepository implements ContactRepository {
+
+    private static final int BITS = 5;
+    // Shift of the last level; below it every key is the same
+    private static final int MAX_SHIFT = 30;
+    private static final int MAX_DEPTH = MAX_SHIFT / BITS + 2;
+
+    private static final Node EMPTY = new Node(null, 0, new Object[0]);
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Version current = new Version(EMPTY, 0);
+
+    @Override
+    public int size() {
+        return current.size;
+    }
+
+    @Override
+    public void add(Contact contact) {
+        String contactId = contact.getContactId();
+        writeLock.lock();
+        try {
+            Version base = current;
+            Edit edit = new Edit();
+            Node root = add(base.root, 0, ContactPage.orderKey(contactId), contact, edit);
+            if (edit.previous != null) {
+                throw new IllegalArgumentException("ID already exists");
+            }
+            current = new Version(root, base.size + 1);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Builds the whole batch into one new version. Nodes created by the
+    // batch are updated in place until it is published, so each path is
+    // copied once per batch rather than once per contact.
+    @Override
+    public List<Contact> addBatch(List<Contact> contacts) {
+        List<Contact> rejected = new ArrayList<>();
+        writeLock.lock();
+        try {
+            Version base = current;
+            Edit edit = new Edit();
+            Node root = base.root;
+            int size = base.size;
+            for (Contact contact : contacts) {
+                edit.previous = null;
+                root = add(root, 0, ContactPage.orderKey(contact.getContactId()), contact, edit);
+                if (edit.previous != null) {
+                    rejected.add(contact);
+                } else {
+                    size++;
+                }
+            }
+            current = new Version(root, size);
+        } finally {
+            writeLock.unlock();
+        }
+        return rejected;
+    }
+
+    @Override
+    public Contact findById(String contactId) {
+        return current.findById(contactId);
+    }
+
+    // Compare-and-set under the write lock; compares by identity
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        String contactId = expected.getContactId();
+        int key = ContactPage.orderKey(contactId);
+        writeLock.lock();
+        try {
+            Version base = current;
+            if (find(base.root, key, contactId) != expected) {
+                return false;
+            }
+            current = new Version(set(base.root, 0, key, replacement, new Edit()), base.size);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(String contactId) {
+        if (contactId == null) {
+            // ID not found
+            throw new IllegalArgumentException("Contact id does not exist");
+        }
+        writeLock.lock();
+        try {
+            Version base = current;
+            Edit edit = new Edit();
+            Node root = remove(base.root, 0, ContactPage.orderKey(contactId), contactId, edit);
+            if (edit.previous == null) {
+                // ID not found
+                throw new IllegalArgumentException("Contact id does not exist");
+            }
+            current = new Version(root, base.size - 1);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Walks the version current at the call, so unlike other thread-safe
+    // stores the walk is exact, not weakly consistent
+    @Override
+    public Spliterator<Contact> spliterator() {
+        return current.spliterator();
+    }
+
+    @Override
+    public ContactPage page(String cursor, int limit) {
+        return current.page(cursor, limit);
+    }
+
+    @Override
+    public ContactRepository snapshotView() {
+        return current;
+    }
+
+    // One published state of the trie. It is also the read-only view
+    // snapshotView() returns.
+    private static final class Version implements ContactRepository {
+        final Node root;
+        final int size;
+
+        Version(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void add(Contact contact) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public List<Contact> addBatch(List<Contact> contacts) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public Contact findById(String contactId) {
+            if (contactId == null) {
+                return null;
+            }
+            return find(root, ContactPage.orderKey(contactId), contactId);
+        }
+
+        @Override
+        public boolean replace(Contact expected, Contact replacement) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public void deleteById(String contactId) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public Spliterator<Contact> spliterator() {
+            return Spliterators.spliterator(new TrieIterator(root), size,
+                    Spliterator.SIZED | Spliterator.NONNULL | Spliterator.DISTINCT
+                            | Spliterator.IMMUTABLE);
+        }
+
+        @Override
+        public ContactPage page(String cursor, int limit) {
+            ContactPage.checkLimit(limit);
+            List<Contact> page = new ArrayList<>(Math.min(limit, size));
+            int key = cursor == null ? 0 : ContactPage.orderKey(cursor);
+            collect(root, 0, key, cursor, cursor != null, page, limit);
+            return ContactPage.of(page, limit);
+        }
+
+        @Override
+        public ContactRepository snapshotView() {
+            return this;
+        }
+    }
+
+    // Ownership token for one write, and where it reports the contact it
+    // found. Nodes created under a token may be updated in place until
+    // the version holding them is published.
+    private static final class Edit {
+        Contact previous;
+    }
+
+    // Trie node. Above MAX_SHIFT each set bit of bitmap is a slot and
+    // array holds, in slot order, a Contact or a child Node for it.
+    // Below it all keys are equal, bitmap is unused and array holds the
+    // colliding contacts sorted by ID.
+    private static final class Node {
+        final Edit edit;
+        int bitmap;
+        Object[] array;
+
+        Node(Edit edit, int bitmap, Object[] array) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        Node setAt(int i, Object entry, Edit edit) {
+            if (this.edit == edit) {
+                array[i] = entry;
+                return this;
+            }
+            Object[] copy = array.clone();
+            copy[i] = entry;
+            return new Node(edit, bitmap, copy);
+        }
+
+        Node insertAt(int i, int bit, Object entry, Edit edit) {
+            Object[] grown = new Object[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, i);
+            grown[i] = entry;
+            System.arraycopy(array, i, grown, i + 1, array.length - i);
+            if (this.edit == edit) {
+                bitmap |= bit;
+                array = grown;
+                return this;
+            }
+            return new Node(edit, bitmap | bit, grown);
+        }
+
+        Node removeAt(int i, int bit, Edit edit) {
+            Object[] shrunk = new Object[array.length - 1];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 1, shrunk, i, array.length - i - 1);
+            if (this.edit == edit) {
+                bitmap &= ~bit;
+                array = shrunk;
+                return this;
+            }
+            return new Node(edit, bitmap & ~bit, shrunk);
+        }
+    }
+
+    // Slot of key at this level, keeping the key's unsigned order
+    private static int slot(int key, int shift) {
+        return (key << shift) >>> (32 - BITS);
+    }
+
+    private static Contact find(Node node, int key, String contactId) {
+        for (int shift = 0; ; shift += BITS) {
+            if (shift > MAX_SHIFT) {
+                int j = collisionIndex(node, contactId);
+                return j >= 0 ? (Contact) node.array[j] : null;
+            }
+            int bit = 1 << slot(key, shift);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object entry = node.array[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (entry instanceof Node) {
+                node = (Node) entry;
+            } else {
+                Contact contact = (Contact) entry;
+                return contact.getContactId().equals(contactId) ? contact : null;
+            }
+        }
+    }
+
+    // Returns node with contact added, or node unchanged with
+    // edit.previous set if the ID is already stored
+    private static Node add(Node node, int shift, int key, Contact contact, Edit edit) {
+        String contactId = contact.getContactId();
+        if (shift > MAX_SHIFT) {
+            int j = collisionIndex(node, contactId);
+            if (j >= 0) {
+                edit.previous = (Contact) node.array[j];
+                return node;
+            }
+            return node.insertAt(-j - 1, 0, contact, edit);
+        }
+        int bit = 1 << slot(key, shift);
+        int i = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            return node.insertAt(i, bit, contact, edit);
+        }
+        Object entry = node.array[i];
+        if (entry instanceof Node) {
+            Node child = (Node) entry;
+            Node added = add(child, shift + BITS, key, contact, edit);
+            return added == child ? node : node.setAt(i, added, edit);
+        }
+        Contact stored = (Contact) entry;
+        if (stored.getContactId().equals(contactId)) {
+            edit.previous = stored;
+            return node;
+        }
+        // Two contacts share the slot: move both one level down
+        Node pair = pair(stored, ContactPage.orderKey(stored.getContactId()),
+                contact, key, shift + BITS, edit);
+        return node.setAt(i, pair, edit);
+    }
+
+    private static Node pair(Contact a, int keyA, Contact b, int keyB, int shift, Edit edit) {
+        if (shift > MAX_SHIFT) {
+            boolean aFirst = a.getContactId().compareTo(b.getContactId()) < 0;
+            return new Node(edit, 0, aFirst ? new Object[] {a, b} : new Object[] {b, a});
+        }
+        int slotA = slot(keyA, shift);
+        int slotB = slot(keyB, shift);
+        if (slotA == slotB) {
+            return new Node(edit, 1 << slotA,
+                    new Object[] {pair(a, keyA, b, keyB, shift + BITS, edit)});
+        }
+        return new Node(edit, (1 << slotA) | (1 << slotB),
+                slotA < slotB ? new Object[] {a, b} : new Object[] {b, a});
+    }
+
+    // Returns node with the stored contact for replacement's ID swapped
+    // for replacement; the caller has checked it is stored
+    private static Node set(Node node, int shift, int key, Contact replacement, Edit edit) {
+        if (shift > MAX_SHIFT) {
+            return node.setAt(collisionIndex(node, replacement.getContactId()), replacement, edit);
+        }
+        int bit = 1 << slot(key, shift);
+        int i = Integer.bitCount(node.bitmap & (bit - 1));
+        Object entry = node.array[i];
+        if (entry instanceof Node) {
+            return node.setAt(i, set((Node) entry, shift + BITS, key, replacement, edit), edit);
+        }
+        return node.setAt(i, replacement, edit);
+    }
+
+    // Returns node without contactId, setting edit.previous to the
+    // removed contact. A child left holding one contact is folded into
+    // its parent, so the trie never keeps a chain of near-empty nodes.
+    private static Node remove(Node node, int shift, int key, String contactId, Edit edit) {
+        if (shift > MAX_SHIFT) {
+            int j = collisionIndex(node, contactId);
+            if (j < 0) {
+                return node;
+            }
+            edit.previous = (Contact) node.array[j];
+            return node.removeAt(j, 0, edit);
+        }
+        int bit = 1 << slot(key, shift);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int i = Integer.bitCount(node.bitmap & (bit - 1));
+        Object entry = node.array[i];
+        if (entry instanceof Node) {
+            Node removed = remove((Node) entry, shift + BITS, key, contactId, edit);
+            if (edit.previous == null) {
+                return node;
+            }
+            if (removed.array.length == 1 && removed.array[0] instanceof Contact) {
+                return node.setAt(i, removed.array[0], edit);
+            }
+            return node.setAt(i, removed, edit);
+        }
+        Contact stored = (Contact) entry;
+        if (!stored.getContactId().equals(contactId)) {
+            return node;
+        }
+        edit.previous = stored;
+        return node.removeAt(i, bit, edit);
+    }
+
+    // Binary search of a collision node; -(insertion point) - 1 if absent
+    private static int collisionIndex(Node node, String contactId) {
+        int low = 0;
+        int high = node.array.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = ((Contact) node.array[mid]).getContactId().compareTo(contactId);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // Adds contacts after cursor to page in walk order, skipping every
+    // subtree that lies wholly before the cursor. onPath is true while
+    // node sits on the cursor key's path.
+    private static void collect(Node node, int shift, int key, String cursor, boolean onPath,
+                                List<Contact> page, int limit) {
+        int from = 0;
+        int pathEntry = -1;
+        if (onPath && shift <= MAX_SHIFT) {
+            int bit = 1 << slot(key, shift);
+            from = Integer.bitCount(node.bitmap & (bit - 1));
+            if ((node.bitmap & bit) != 0) {
+                pathEntry = from;
+            }
+        }
+        Object[] array = node.array;
+        for (int i = from; i < array.length && page.size() < limit; i++) {
+            boolean entryOnPath = onPath && (shift > MAX_SHIFT || i == pathEntry);
+            Object entry = array[i];
+            if (entry instanceof Node) {
+                collect((Node) entry, shift + BITS, key, cursor, entryOnPath, page, limit);
+            } else if (!entryOnPath
+                    || ContactPage.ID_ORDER.compare(((Contact) entry).getContactId(), cursor) > 0) {
+                page.add((Contact) entry);
+            }
+        }
+    }
+
+    // Depth-first walk of one version, in walk order
+    private static final class TrieIterator implements Iterator<Contact> {
+        private final Node[] nodes = new Node[MAX_DEPTH];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth;
+        private Contact next;
+
+        TrieIterator(Node root) {
+            nodes[0] = root;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (positions[depth] == node.array.length) {
+                    depth--;
+                    continue;
+                }
+                Object entry = node.array[positions[depth]++];
+                if (entry instanceof Node) {
+                    depth++;
+                    nodes[depth] = (Node) entry;
+                    positions[depth] = 0;
+                } else {
+                    next = (Contact) entry;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Contact next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Contact contact = next;
+            advance();
+            return contact;
+        }
+    }
+}
@@ -17,6 +17,20 @@ public class ValidationException extends RuntimeException {
         this.field = field;
         this.reason = reason;
     }
+
+    // Variant that can skip capturing the stack trace
+    protected ValidationException(String field, String reason,
+                                  boolean writableStackTrace) {
+        super(field + ": " + reason, null, false, writableStackTrace);
+        this.field = field;
+        this.reason = reason;
+    }
+
+    // Creates an exception without a stack trace for hot paths where
+    // invalid input is routine and the trace is never read
+    public static ValidationException stackless(String field, String reason) {
+        return new ValidationException(field, reason, false);
+    }
     public String getField() {
         return field;
     }
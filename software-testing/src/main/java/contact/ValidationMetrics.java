@@ -1,23 +1,51 @@
 package contact;
 
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 //
 // Tracks validation failures across the application.
 //
-// Provide a counter for how many validation failures occurred and
-// logs the field and reason
+// Counts failures in total, per field and per reason, and times
+// validation calls. Counters are LongAdders, which stripe increments
+// across cells so threads failing validation at the same time do not
+// contend on one shared value.
 //
-// Uses AtomicInteger so increments are thread-safe if
-// validation is called from multiple threads.
+// WARNING logs are sampled to LOG_LIMIT_PER_SECOND lines per second;
+// the count of lines dropped is reported on the next line that does get
+// logged. Lines go out through ContactLog, so a bad import never waits
+// on the handler.
 //
 
 public class ValidationMetrics {
 
-    // Count of validation failures with AtomicInteger
-    // to maintain concurrency
-    private static final AtomicInteger failureCount = new AtomicInteger();
+    // Maximum WARNING lines logged per one second window
+    static final int LOG_LIMIT_PER_SECOND = 10;
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    // Total failures plus breakdowns keyed by field and by reason
+    private static final LongAdder failureCount = new LongAdder();
+    private static final ConcurrentHashMap<String, LongAdder> failuresByField =
+            new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, LongAdder> failuresByReason =
+            new ConcurrentHashMap<>();
+
+    // Number of validation calls timed and their total duration
+    private static final LongAdder validationCount = new LongAdder();
+    private static final LongAdder validationNanos = new LongAdder();
+
+    // Log rate limiter state: start of the current window, lines logged
+    // in it, and lines dropped since the last one that was logged
+    private static final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private static final AtomicInteger loggedInWindow = new AtomicInteger();
+    private static final AtomicLong suppressed = new AtomicLong();
 
     // Logger for recording validation failures
     private static final Logger LOGGER =
@@ -28,18 +56,87 @@ public class ValidationMetrics {
     private ValidationMetrics() {}
 
     public static void recordFailure(String field, String reason) {
-        // Increment counter
-        failureCount.incrementAndGet();
-        // Log at warning to highlight invalid input
-        LOGGER.warning(() -> "Validation failure on " + field + ": " + reason);
+        recordFailure(null, field, reason);
+    }
+
+    // Records a failure of the contact with contactId, which may be null
+    public static void recordFailure(String contactId, String field, String reason) {
+        // Increment counters
+        failureCount.increment();
+        counter(failuresByField, field).increment();
+        counter(failuresByReason, reason).increment();
+        // Log at warning to highlight invalid input, within the rate limit
+        if (tryAcquireLogSlot()) {
+            long dropped = suppressed.getAndSet(0);
+            ContactLog.log(LOGGER, Level.WARNING, "validate", contactId, field,
+                    dropped > 0 ? reason + " (" + dropped + " similar messages suppressed)" : reason);
+        } else {
+            suppressed.incrementAndGet();
+        }
+    }
+
+    // Records how long one validation call took
+    public static void recordValidation(long nanos) {
+        validationCount.increment();
+        validationNanos.add(nanos);
     }
 
     public static int getFailureCount() {
-        return failureCount.get();
+        return failureCount.intValue();
     }
 
-    // Reset counter to zero
+    // Failures recorded against one field, such as "phoneNumber"
+    public static long getFailureCount(String field) {
+        LongAdder adder = failuresByField.get(field);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    // Point-in-time copy of every counter, keyed by metric name:
+    //  validation.failures               total failures
+    //  validation.failures.field.<name>  failures per field
+    //  validation.failures.reason.<text> failures per reason
+    //  validation.calls / validation.nanos  timed validation calls
+    //  validation.log.suppressed         WARNING lines dropped
+    // Reading sums each adder without blocking writers.
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        snapshot.put("validation.failures", failureCount.sum());
+        failuresByField.forEach((field, adder) ->
+                snapshot.put("validation.failures.field." + field, adder.sum()));
+        failuresByReason.forEach((reason, adder) ->
+                snapshot.put("validation.failures.reason." + reason, adder.sum()));
+        snapshot.put("validation.calls", validationCount.sum());
+        snapshot.put("validation.nanos", validationNanos.sum());
+        snapshot.put("validation.log.suppressed", suppressed.get());
+        return snapshot;
+    }
+
+    // Reset counters to zero
     public static void reset() {
-        failureCount.set(0);
+        failureCount.reset();
+        failuresByField.clear();
+        failuresByReason.clear();
+        validationCount.reset();
+        validationNanos.reset();
+        suppressed.set(0);
+        loggedInWindow.set(0);
+        windowStart.set(System.nanoTime());
+    }
+
+    // Returns the adder for key, creating it on first use
+    private static LongAdder counter(ConcurrentHashMap<String, LongAdder> counters,
+                                     String key) {
+        LongAdder adder = counters.get(key);
+        return adder != null ? adder : counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    // True if this failure may be logged in the current window
+    private static boolean tryAcquireLogSlot() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            loggedInWindow.set(0);
+        }
+        return loggedInWindow.incrementAndGet() <= LOG_LIMIT_PER_SECOND;
     }
 }
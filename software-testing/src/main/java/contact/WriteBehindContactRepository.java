@@ -0,0 +1,556 @@
+package contact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Repository decorator that buffers writes and applies them downstream
+// in batches.
+//
+// add, replace and deleteById return once the write is pending; a
+// background flusher applies the pending writes every flushInterval, or
+// as soon as batchSize of them are waiting. Pending writes are keyed by
+// contactId, so a later write to an ID replaces the earlier one and only
+// the final state of each ID reaches the store: a delete or replace for
+// IDs it held, then one addBatch for the rest.
+//
+// Writes check the ID at call time against the current view: the ID's
+// pending or in-flight write, or else the store, read outside the lock.
+// A write the store still refuses when the flush applies it, because
+// something else changed the store meanwhile, shows up as a Failure.
+//
+// Reads see pending writes. findById checks the pending and in-flight
+// writes before the store; lookups, searches and walks that the store
+// answers on its own apply the pending writes first, leaving failures
+// for flush() or close() to report.
+//
+// A downstream failure drops the affected writes and records them as
+// Failures. The next flush() or close() throws IllegalStateException
+// naming how many failed; getFailures() lists the latest 1024. The
+// background flusher logs failures and leaves them for the caller.
+//
+// Writers wait once 16 batches are pending, so a stalled store cannot
+// grow the buffer without bound.
+public class WriteBehindContactRepository implements ContactRepository, AutoCloseable {
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 5;
+    private static final int MAX_PENDING_BATCHES = 16;
+    private static final int MAX_FAILURES_KEPT = 1024;
+
+    private static final Logger LOGGER =
+            Logger.getLogger(WriteBehindContactRepository.class.getName());
+
+    // A write that could not be applied downstream
+    public static final class Failure {
+        private final String contactId;
+        private final String operation;
+        private final RuntimeException cause;
+
+        Failure(String contactId, String operation, RuntimeException cause) {
+            this.contactId = contactId;
+            this.operation = operation;
+            this.cause = cause;
+        }
+
+        public String getContactId() {
+            return contactId;
+        }
+
+        // "add", "replace" or "delete"
+        public String getOperation() {
+            return operation;
+        }
+
+        public RuntimeException getCause() {
+            return cause;
+        }
+    }
+
+    // Final state of one ID: contact is null for a delete. stored says
+    // whether the store is expected to hold the ID before this write, so
+    // the flush knows to replace or delete it; expected is the contact it
+    // should hold then, or null if not known.
+    private static final class Pending {
+        final Contact contact;
+        final boolean stored;
+        final Contact expected;
+
+        Pending(Contact contact, boolean stored, Contact expected) {
+            this.contact = contact;
+            this.stored = stored;
+            this.expected = expected;
+        }
+
+        // Change this write makes to the stored count
+        int sizeDelta() {
+            return (contact != null ? 1 : 0) - (stored ? 1 : 0);
+        }
+    }
+
+    private final ContactRepository delegate;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+
+    // Guards pending, inFlight, the counters below and closed
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private Map<String, Pending> pending = new LinkedHashMap<>();
+    // Writes taken by the running flush, still visible to reads
+    private Map<String, Pending> inFlight = Collections.emptyMap();
+    // Store count as of the last flush; only flushes write the store
+    private int storedCount;
+    private int sizeDelta;
+    // Batches applied so far, so a write can tell its store read is stale
+    private long appliedBatches;
+    private boolean flushQueued;
+    private boolean closed;
+
+    // One flush at a time, so batches reach the store in order
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final List<Failure> failures = new ArrayList<>();
+    private int unreportedFailures;
+
+    // Batches of up to 500 writes, flushed at least every 5 ms
+    public WriteBehindContactRepository(ContactRepository delegate) {
+        this(delegate, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    public WriteBehindContactRepository(ContactRepository delegate, int batchSize,
+                                        long flushIntervalMillis) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        if (batchSize <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Batch size and flush interval must be positive");
+        }
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        storedCount = delegate.size();
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "contact-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushInBackground,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Stored count plus the net effect of pending writes, assuming they
+    // all succeed. Does not wait for a flush in progress.
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return storedCount + sizeDelta;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Queues the add; throws at once if the ID is already in the view
+    @Override
+    public void add(Contact contact) {
+        String id = contact.getContactId();
+        withView(id, (current, stored) -> {
+            if (current != null ? current.contact != null : stored != null) {
+                throw new IllegalArgumentException("ID already exists");
+            }
+            put(id, current != null ? next(id, contact) : new Pending(contact, false, null));
+            return null;
+        });
+    }
+
+    @Override
+    public Contact findById(String contactId) {
+        if (contactId == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            Pending current = pendingFor(contactId);
+            if (current != null) {
+                return current.contact;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Not pending, so no flush can change it underneath this read
+        return delegate.findById(contactId);
+    }
+
+    // Queues the replacement if the view still matches expected.
+    // Compares field values, since stores that decode on read return a
+    // new object per call.
+    @Override
+    public boolean replace(Contact expected, Contact replacement) {
+        String id = expected.getContactId();
+        return withView(id, (current, stored) -> {
+            Contact visible = current != null ? current.contact : stored;
+            if (visible == null || !sameValues(visible, expected)) {
+                return false;
+            }
+            put(id, current != null ? next(id, replacement) : new Pending(replacement, true, stored));
+            return true;
+        });
+    }
+
+    // Queues the delete; throws at once if the ID is not in the view
+    @Override
+    public void deleteById(String contactId) {
+        if (contactId == null) {
+            throw new IllegalArgumentException("Contact id does not exist");
+        }
+        withView(contactId, (current, stored) -> {
+            if (current != null ? current.contact == null : stored == null) {
+                // ID not found
+                throw new IllegalArgumentException("Contact id does not exist");
+            }
+            Pending write = current != null ? next(contactId, null) : new Pending(null, true, stored);
+            if (write.stored) {
+                put(contactId, write);
+            } else {
+                // Added and deleted before reaching the store; nothing to write
+                sizeDelta -= pending.remove(contactId).sizeDelta();
+            }
+            return null;
+        });
+    }
+
+    // Lookups, searches and walks come from the store, once the pending
+    // writes are applied
+
+    @Override
+    public List<Contact> findByPhoneNumber(String phoneNumber) {
+        applyForRead();
+        return delegate.findByPhoneNumber(phoneNumber);
+    }
+
+    @Override
+    public List<Contact> findByLastName(String lastName) {
+        applyForRead();
+        return delegate.findByLastName(lastName);
+    }
+
+    @Override
+    public List<Contact> findByFirstName(String firstName) {
+        applyForRead();
+        return delegate.findByFirstName(firstName);
+    }
+
+    @Override
+    public Spliterator<Contact> spliterator() {
+        applyForRead();
+        return delegate.spliterator();
+    }
+
+    @Override
+    public ContactPage page(String cursor, int limit) {
+        applyForRead();
+        return delegate.page(cursor, limit);
+    }
+
+    @Override
+    public List<Contact> searchByPrefix(String prefix, int limit) {
+        applyForRead();
+        return delegate.searchByPrefix(prefix, limit);
+    }
+
+    @Override
+    public List<Contact> searchFuzzy(String query, int limit) {
+        applyForRead();
+        return delegate.searchFuzzy(query, limit);
+    }
+
+    // Applies pending writes first so the view includes every write
+    // accepted so far
+    @Override
+    public ContactRepository snapshotView() {
+        applyForRead();
+        return delegate.snapshotView();
+    }
+
+    // Writes waiting to be applied, not counting a flush in progress
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Latest writes that failed downstream, oldest first
+    public List<Failure> getFailures() {
+        synchronized (failures) {
+            return new ArrayList<>(failures);
+        }
+    }
+
+    // Applies every pending write. Throws IllegalStateException if any
+    // write failed since the last flush or close that threw.
+    public void flush() {
+        flushLock.lock();
+        try {
+            applyPending();
+        } finally {
+            flushLock.unlock();
+        }
+        int failed;
+        RuntimeException cause;
+        synchronized (failures) {
+            failed = unreportedFailures;
+            cause = failed == 0 ? null : failures.get(failures.size() - 1).getCause();
+            unreportedFailures = 0;
+        }
+        if (failed > 0) {
+            throw new IllegalStateException("Write-behind failed for " + failed + " contacts", cause);
+        }
+    }
+
+    // Stops the flusher and applies everything still pending
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.shutdown();
+        boolean interrupted = false;
+        try {
+            while (!flusher.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Wait out a flush in progress
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        flush();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Applies pending writes before a read the store answers. Failures
+    // stay recorded for the next flush() or close() to report.
+    private void applyForRead() {
+        flushLock.lock();
+        try {
+            applyPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Periodic and size-triggered flush; failures are logged and kept
+    // for the next flush() or close() to report
+    private void flushInBackground() {
+        lock.lock();
+        try {
+            flushQueued = false;
+        } finally {
+            lock.unlock();
+        }
+        flushLock.lock();
+        try {
+            applyPending();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Contact write-behind flush failed", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Takes the pending writes and applies them; caller holds flushLock
+    private void applyPending() {
+        Map<String, Pending> batch;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            inFlight = batch;
+            pending = new LinkedHashMap<>();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        // flushLock orders this read after the last flush's write
+        int stored = storedCount;
+        try {
+            apply(batch);
+            stored = delegate.size();
+        } finally {
+            lock.lock();
+            try {
+                inFlight = Collections.emptyMap();
+                storedCount = stored;
+                appliedBatches++;
+                for (Pending write : batch.values()) {
+                    sizeDelta -= write.sizeDelta();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        LOGGER.fine(() -> "Flushed " + batch.size() + " contact writes");
+    }
+
+    // Replaces or deletes IDs the store held, then adds the rest in one
+    // batch. Replacing in place means a failed write leaves the stored
+    // contact as it was.
+    private void apply(Map<String, Pending> batch) {
+        List<Contact> adds = new ArrayList<>(batch.size());
+        for (Map.Entry<String, Pending> entry : batch.entrySet()) {
+            String id = entry.getKey();
+            Pending write = entry.getValue();
+            if (!write.stored) {
+                if (write.contact != null) {
+                    adds.add(write.contact);
+                }
+                continue;
+            }
+            String operation = write.contact == null ? "delete" : "replace";
+            try {
+                if (write.contact == null) {
+                    delegate.deleteById(id);
+                } else {
+                    Contact expected = write.expected != null
+                            ? write.expected : delegate.findById(id);
+                    if (expected == null) {
+                        throw new IllegalArgumentException("Contact id does not exist");
+                    }
+                    if (!delegate.replace(expected, write.contact)) {
+                        throw new IllegalStateException("Contact changed in the store");
+                    }
+                }
+            } catch (RuntimeException e) {
+                fail(id, operation, e);
+            }
+        }
+        if (adds.isEmpty()) {
+            return;
+        }
+        try {
+            for (Contact rejected : delegate.addBatch(adds)) {
+                fail(rejected.getContactId(), "add",
+                        new IllegalArgumentException("ID already exists"));
+            }
+        } catch (RuntimeException e) {
+            for (Contact contact : adds) {
+                fail(contact.getContactId(), "add", e);
+            }
+        }
+    }
+
+    private void fail(String contactId, String operation, RuntimeException cause) {
+        synchronized (failures) {
+            failures.add(new Failure(contactId, operation, cause));
+            if (failures.size() > MAX_FAILURES_KEPT) {
+                failures.remove(0);
+            }
+            unreportedFailures++;
+        }
+    }
+
+    // Runs write under lock with the ID's view: its pending or in-flight
+    // write, or else stored, what the store holds. The store is read
+    // without the lock and read again if a batch was applied meanwhile,
+    // since that may have been a write to this ID.
+    private <T> T withView(String id, BiFunction<Pending, Contact, T> write) {
+        long seen = -1;
+        Contact stored = null;
+        while (true) {
+            lock.lock();
+            try {
+                awaitRoom();
+                Pending current = pendingFor(id);
+                if (current != null || seen == appliedBatches) {
+                    return write.apply(current, stored);
+                }
+                seen = appliedBatches;
+            } finally {
+                lock.unlock();
+            }
+            stored = delegate.findById(id);
+        }
+    }
+
+    // Latest write for id, pending or in flight; caller holds lock
+    private Pending pendingFor(String id) {
+        Pending current = pending.get(id);
+        return current != null ? current : inFlight.get(id);
+    }
+
+    // Write of contact following the pending or in-flight one for id.
+    // Keeps what the store should hold before the batch it joins.
+    // Caller holds lock.
+    private Pending next(String id, Contact contact) {
+        Pending queued = pending.get(id);
+        if (queued != null) {
+            return new Pending(contact, queued.stored, queued.expected);
+        }
+        Contact flushed = inFlight.get(id).contact;
+        return new Pending(contact, flushed != null, flushed);
+    }
+
+    // Records a write, replacing any earlier one for the same ID;
+    // caller holds lock
+    private void put(String id, Pending write) {
+        Pending previous = pending.put(id, write);
+        if (previous != null) {
+            sizeDelta -= previous.sizeDelta();
+        }
+        sizeDelta += write.sizeDelta();
+        if (pending.size() >= batchSize && !flushQueued && !closed) {
+            flushQueued = true;
+            flusher.execute(this::flushInBackground);
+        }
+    }
+
+    // Waits while the buffer is full; caller holds lock
+    private void awaitRoom() {
+        if (closed) {
+            throw new IllegalStateException("Repository is closed");
+        }
+        boolean interrupted = false;
+        while (pending.size() >= batchSize * MAX_PENDING_BATCHES && !closed) {
+            try {
+                notFull.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (closed) {
+            throw new IllegalStateException("Repository is closed");
+        }
+    }
+
+    private static boolean sameValues(Contact a, Contact b) {
+        return a == b || (a.getContactId().equals(b.getContactId())
+                && a.getFirstName().equals(b.getFirstName())
+                && a.getLastName().equals(b.getLastName())
+                && a.getPhoneNumber().equals(b.getPhoneNumber())
+                && a.getAddress().equals(b.getAddress()));
+    }
+}
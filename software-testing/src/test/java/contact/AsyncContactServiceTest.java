@@ -0,0 +1,153 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+// Unit tests for AsyncContactService
+// Covers results, failures and errors through futures, per-ID ordering,
+// parallelism across IDs and backpressure on a full queue.
+class AsyncContactServiceTest {
+
+    // Blocks lookups of "slow" until released, to hold a lane busy
+    private static final class GatedRepository extends ConcurrentContactRepository {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public Contact findById(String contactId) {
+            if ("slow".equals(contactId)) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.findById(contactId);
+        }
+    }
+
+    private AsyncContactService async;
+
+    @AfterEach
+    void tearDown() {
+        if (async != null) {
+            async.close();
+        }
+    }
+
+    // Verifies each operation completes with the service's result
+    @Test
+    void completesOperations() throws Exception {
+        async = new AsyncContactService(new ContactService(new ConcurrentContactRepository()));
+
+        async.addContact(contact("1")).get(5, TimeUnit.SECONDS);
+        async.updateContact("1", "Ann", null, null, null).get(5, TimeUnit.SECONDS);
+        assertEquals("Ann", async.getContactById("1").get(5, TimeUnit.SECONDS).getFirstName());
+        async.deleteContact("1").get(5, TimeUnit.SECONDS);
+        assertNull(async.getContactById("1").get(5, TimeUnit.SECONDS));
+    }
+
+    // Verifies service failures complete the future exceptionally
+    @Test
+    void failuresCompleteExceptionally() {
+        async = new AsyncContactService(new ContactService(new ConcurrentContactRepository()));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> async.updateContact("1", null, null, "123", null).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        e = assertThrows(ExecutionException.class,
+                () -> async.deleteContact("missing").get(5, TimeUnit.SECONDS));
+        assertEquals("Contact id does not exist", e.getCause().getMessage());
+    }
+
+    // Verifies an Error thrown by the service still completes the future
+    // and leaves the lane working
+    @Test
+    void errorsCompleteExceptionally() throws Exception {
+        async = new AsyncContactService(new ContactService(new ConcurrentContactRepository() {
+            @Override
+            public Contact findById(String contactId) {
+                if ("boom".equals(contactId)) {
+                    throw new StackOverflowError("Simulated");
+                }
+                return super.findById(contactId);
+            }
+        }), 1, 16);
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> async.getContactById("boom").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, e.getCause());
+        assertNull(async.getContactById("1").get(5, TimeUnit.SECONDS));
+    }
+
+    // Verifies calls on one ID apply in submission order
+    @Test
+    void keepsOrderPerId() throws Exception {
+        async = new AsyncContactService(new ContactService(new ConcurrentContactRepository()), 4, 1024);
+
+        async.addContact(contact("1"));
+        CompletableFuture<Void> last = null;
+        for (int i = 0; i < 500; i++) {
+            last = async.updateContact("1", "N" + i, null, null, null);
+        }
+        last.get(5, TimeUnit.SECONDS);
+        assertEquals("N499", async.getContactById("1").get(5, TimeUnit.SECONDS).getFirstName());
+    }
+
+    // Verifies a stalled ID does not hold up IDs on other lanes
+    @Test
+    void runsOtherIdsInParallel() throws Exception {
+        GatedRepository repo = new GatedRepository();
+        async = new AsyncContactService(new ContactService(repo), 64, 16);
+
+        CompletableFuture<Contact> slow = async.getContactById("slow");
+        assertTrue(repo.entered.await(5, TimeUnit.SECONDS));
+        // Find an ID on another lane; with 64 lanes one of the first few is
+        for (int i = 0; i < 8; i++) {
+            CompletableFuture<Void> added = async.addContact(contact("id" + i));
+            try {
+                added.get(200, TimeUnit.MILLISECONDS);
+                assertFalse(slow.isDone());
+                repo.release.countDown();
+                slow.get(5, TimeUnit.SECONDS);
+                return;
+            } catch (TimeoutException sameLane) {
+                // Queued behind "slow"; try the next ID
+            }
+        }
+        repo.release.countDown();
+        fail("Every ID waited behind the stalled lane");
+    }
+
+    // Verifies a full lane rejects instead of blocking the caller
+    @Test
+    void rejectsWhenQueueFull() throws Exception {
+        GatedRepository repo = new GatedRepository();
+        async = new AsyncContactService(new ContactService(repo), 1, 1);
+
+        CompletableFuture<Contact> running = async.getContactById("slow");
+        assertTrue(repo.entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Contact> queued = async.getContactById("a");
+        CompletableFuture<Contact> rejected = async.getContactById("b");
+
+        assertEquals(1, async.getQueuedCount());
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+
+        repo.release.countDown();
+        assertNull(running.get(5, TimeUnit.SECONDS));
+        assertNull(queued.get(5, TimeUnit.SECONDS));
+    }
+}
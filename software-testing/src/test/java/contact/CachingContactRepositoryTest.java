@@ -0,0 +1,126 @@
+package contact;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Unit tests for CachingContactRepository
+// Covers read-through hits, negative caching, invalidation on writes,
+// LRU eviction and the hit-rate metrics. A MeteredContactRepository
+// underneath counts the lookups that reach storage.
+class CachingContactRepositoryTest {
+
+    private MeteredContactRepository store;
+    private CachingContactRepository cache;
+    private ContactService contactService;
+
+    @BeforeEach
+    void setUp() {
+        store = new MeteredContactRepository(new HashContactRepository());
+        cache = new CachingContactRepository(store, 4);
+        contactService = new ContactService(cache);
+        contactService.addContact(new Contact("1", "Bob", "Smith", "1111111111", "Addr"));
+    }
+
+    // Verifies repeat lookups are served without touching storage
+    @Test
+    void readsThrough() {
+        assertEquals("Bob", contactService.getContactById("1").getFirstName());
+        assertEquals("Bob", contactService.getContactById("1").getFirstName());
+        assertEquals(1, store.getCalls("findById"));
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    // Verifies missing IDs are cached until the ID is added
+    @Test
+    void cachesMissingIds() {
+        assertNull(cache.findById("2"));
+        assertNull(cache.findById("2"));
+        assertEquals(1, store.getCalls("findById"));
+        assertEquals(1L, cache.snapshot().get("cache.hits.negative"));
+
+        contactService.addContact(new Contact("2", "Ann", "Jones", "2222222222", "Addr"));
+        assertEquals("Ann", cache.findById("2").getFirstName());
+    }
+
+    // Verifies deletes drop the cached contact
+    @Test
+    void deleteInvalidates() {
+        contactService.getContactById("1");
+        contactService.deleteContact("1");
+
+        assertNull(cache.findById("1"));
+        assertEquals(2, store.getCalls("findById"));
+    }
+
+    // Verifies updates are visible on the next read
+    @Test
+    void updateInvalidates() {
+        contactService.getContactById("1");
+        contactService.updateContact("1", "Robert", null, null, null);
+
+        assertEquals("Robert", contactService.getContactById("1").getFirstName());
+        assertEquals(1L, cache.snapshot().get("cache.invalidations"));
+    }
+
+    // Verifies batch adds replace cached misses for their IDs
+    @Test
+    void batchAddInvalidates() {
+        assertNull(cache.findById("2"));
+        contactService.addAll(Arrays.asList(
+                new Contact("2", "Ann", "Jones", "2222222222", "Addr")));
+
+        assertEquals("Ann", cache.findById("2").getFirstName());
+    }
+
+    // Verifies the bound holds and the least recently used ID goes first
+    @Test
+    void evictsLeastRecentlyUsed() {
+        CachingContactRepository small = new CachingContactRepository(store, 2);
+        small.findById("1");
+        small.findById("x");
+        small.findById("1");
+        small.findById("y");
+
+        assertEquals(2, small.getCachedCount());
+        assertEquals(1L, small.snapshot().get("cache.evictions"));
+        long before = store.getCalls("findById");
+        small.findById("1");
+        assertEquals(before, store.getCalls("findById"));
+        small.findById("x");
+        assertEquals(before + 1, store.getCalls("findById"));
+    }
+
+    // Verifies the snapshot keys and that reset clears counters only
+    @Test
+    void snapshotAndReset() {
+        cache.findById("1");
+        cache.findById("1");
+
+        Map<String, Long> snapshot = cache.snapshot();
+        assertEquals(1L, snapshot.get("cache.hits"));
+        assertEquals(1L, snapshot.get("cache.misses"));
+        assertEquals(1L, snapshot.get("cache.size"));
+
+        cache.reset();
+        assertEquals(0.0, cache.getHitRate());
+        assertEquals(1, cache.getCachedCount());
+    }
+
+    // Verifies the service constructor wires the cache in
+    @Test
+    void serviceConstructorAddsCache() {
+        MeteredContactRepository counted = new MeteredContactRepository(new HashContactRepository());
+        ContactService cached = new ContactService(counted, 100);
+        cached.addContact(new Contact("1", "Bob", "Smith", "1111111111", "Addr"));
+        cached.getContactById("1");
+        cached.getContactById("1");
+
+        assertEquals(1, counted.getCalls("findById"));
+        assertThrows(IllegalArgumentException.class, () -> new ContactService(counted, 0));
+    }
+}
@@ -0,0 +1,64 @@
+package contact;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+// Unit tests for ContactCodec round trips and encoded sizes.
+class ContactCodecTest {
+
+    // Verifies every field survives encode and decode on heap and
+    // direct buffers, and encodedSize matches the bytes written
+    @ParameterizedTest
+    @MethodSource("contacts")
+    void roundTrips(Contact contact) {
+        for (ByteBuffer buffer : new ByteBuffer[] {
+                ByteBuffer.allocate(ContactCodec.MAX_ENCODED_BYTES),
+                ByteBuffer.allocateDirect(ContactCodec.MAX_ENCODED_BYTES)}) {
+            ContactCodec.encode(contact, buffer);
+            assertEquals(ContactCodec.encodedSize(contact), buffer.position());
+            buffer.flip();
+
+            Contact decoded = ContactCodec.decode(buffer);
+            assertFalse(buffer.hasRemaining());
+            assertEquals(contact.getContactId(), decoded.getContactId());
+            assertEquals(contact.getFirstName(), decoded.getFirstName());
+            assertEquals(contact.getLastName(), decoded.getLastName());
+            assertEquals(contact.getPhoneNumber(), decoded.getPhoneNumber());
+            assertEquals(contact.getAddress(), decoded.getAddress());
+        }
+    }
+
+    // Verifies a typical ASCII contact packs to one byte per char plus
+    // length bytes, with the phone in five bytes
+    @Test
+    void packsAsciiContactCompactly() {
+        Contact contact = new Contact("15555", "Bob", "Smith",
+                "1234567890", "8850 West Mayfield");
+        // flags + (1+5) + (1+3) + (1+5) + 5 + (1+18)
+        assertEquals(41, ContactCodec.encodedSize(contact));
+    }
+
+    // Supplies Latin-1, UTF-8, surrogate-pair and non-ASCII digit cases
+    static Stream<Arguments> contacts() {
+        return Stream.of(
+                Arguments.of(new Contact("15555", "Bob", "Smith",
+                        "0000000001", "8850 West Mayfield")),
+                Arguments.of(new Contact("ABCDEFGHIJ", "Zoë", "Ñúñez",
+                        "9999999999", "123456789012345678901234567890")),
+                Arguments.of(new Contact("1", "李", "Ωmega",
+                        "1234567890", "東京都 1-2-3")),
+                Arguments.of(new Contact("2", "😀", "Smith",
+                        "1234567890", "Addr")),
+                Arguments.of(new Contact("3", "Bob", "Smith",
+                        "١٢٣٤٥٦٧٨٩٠", "Addr")),
+                Arguments.of(new Contact("", "", "",
+                        "1234567890", "")));
+    }
+}
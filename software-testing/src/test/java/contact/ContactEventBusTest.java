@@ -0,0 +1,195 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+// Unit tests for ContactEventBus and the events ContactService publishes
+// Covers event contents, batch adds, fan-out to several subscribers,
+// ordering under concurrent publishers, backpressure and close.
+class ContactEventBusTest {
+
+    // Collects every event it receives
+    private static final class Recorder implements ContactEventBus.Subscriber {
+        final List<ContactEvent> events = Collections.synchronizedList(new ArrayList<>());
+        volatile int batches;
+
+        @Override
+        public void onEvents(List<ContactEvent> batch) {
+            batches++;
+            events.addAll(batch);
+        }
+    }
+
+    // Verifies adds, updates and deletes publish the matching events
+    @Test
+    void publishesServiceChanges() {
+        ContactEventBus bus = new ContactEventBus();
+        Recorder recorder = new Recorder();
+        bus.subscribe("test", recorder);
+        ContactService contactService = new ContactService(new HashContactRepository(), bus);
+
+        contactService.addContact(contact("1"));
+        contactService.updateContact("1", "Ann", null, null, null);
+        contactService.deleteContact("1");
+        assertThrows(IllegalArgumentException.class, () -> contactService.deleteContact("1"));
+        bus.close();
+
+        List<ContactEvent> events = recorder.events;
+        assertEquals(3, events.size());
+        assertEquals(ContactEvent.Type.ADD, events.get(0).getType());
+        assertEquals("Bob", events.get(0).getAfter().getFirstName());
+        assertEquals(ContactEvent.Type.UPDATE, events.get(1).getType());
+        assertEquals("Bob", events.get(1).getBefore().getFirstName());
+        assertEquals("Ann", events.get(1).getAfter().getFirstName());
+        assertEquals(ContactEvent.Type.DELETE, events.get(2).getType());
+        assertEquals("1", events.get(2).getContactId());
+        assertNull(events.get(2).getAfter());
+    }
+
+    // Verifies batch adds publish only the contacts actually stored
+    @Test
+    void publishesStoredBatchContacts() {
+        ContactEventBus bus = new ContactEventBus();
+        Recorder recorder = new Recorder();
+        bus.subscribe("test", recorder);
+        ContactService contactService = new ContactService(new HashContactRepository(), bus);
+        contactService.addContact(contact("1"));
+
+        contactService.addAll(Arrays.asList(contact("1"), contact("2"), contact("2"), contact("3")));
+        bus.close();
+
+        List<String> ids = new ArrayList<>();
+        recorder.events.forEach(e -> ids.add(e.getContactId()));
+        assertEquals(Arrays.asList("1", "2", "3"), ids);
+    }
+
+    // Verifies every subscriber sees every event, each publisher's in
+    // order, while a small ring forces publishers to wait
+    @Test
+    void fansOutInOrderUnderBackpressure() throws Exception {
+        ContactEventBus bus = new ContactEventBus(64);
+        Recorder fast = new Recorder();
+        Recorder slow = new Recorder();
+        bus.subscribe("fast", fast);
+        bus.subscribe("slow", batch -> {
+            slow.onEvents(batch);
+            Thread.onSpinWait();
+        });
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String prefix = "T" + t + "-";
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        bus.publish(ContactEvent.deleted(prefix + i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        bus.close();
+
+        for (Recorder recorder : Arrays.asList(fast, slow)) {
+            assertEquals(threads * perThread, recorder.events.size());
+            int[] next = new int[threads];
+            for (ContactEvent event : recorder.events) {
+                String[] parts = event.getContactId().substring(1).split("-");
+                int thread = Integer.parseInt(parts[0]);
+                assertEquals(next[thread]++, Integer.parseInt(parts[1]));
+            }
+        }
+        assertTrue(fast.batches < threads * perThread);
+        assertEquals(0, bus.getBacklog());
+    }
+
+    // Verifies a failing subscriber keeps receiving later batches
+    @Test
+    void survivesSubscriberFailure() {
+        ContactEventBus bus = new ContactEventBus();
+        Recorder recorder = new Recorder();
+        bus.subscribe("failing", batch -> {
+            recorder.onEvents(batch);
+            throw new IllegalStateException("Simulated failure");
+        });
+
+        bus.publish(ContactEvent.deleted("1"));
+        bus.publish(ContactEvent.deleted("2"));
+        bus.close();
+        assertEquals(2, recorder.events.size());
+    }
+
+    // Verifies a subscriber throwing an Error keeps its thread and does
+    // not hold publishers back
+    @Test
+    void survivesSubscriberError() {
+        ContactEventBus bus = new ContactEventBus(4);
+        Recorder recorder = new Recorder();
+        bus.subscribe("failing", batch -> {
+            recorder.onEvents(batch);
+            throw new StackOverflowError("Simulated failure");
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 100; i++) {
+                bus.publish(ContactEvent.deleted(Integer.toString(i)));
+            }
+        });
+        bus.close();
+        assertEquals(100, recorder.events.size());
+    }
+
+    // Verifies a subscriber that joins after the ring has wrapped with no
+    // subscribers still gates publishers and sees every later event
+    @Test
+    void subscribesAfterRingWraps() {
+        ContactEventBus bus = new ContactEventBus(8);
+        for (int i = 0; i < 20; i++) {
+            bus.publish(ContactEvent.deleted("early" + i));
+        }
+        Recorder recorder = new Recorder();
+        bus.subscribe("late", recorder);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 100; i++) {
+                bus.publish(ContactEvent.deleted(Integer.toString(i)));
+            }
+        });
+        bus.close();
+        assertEquals(100, recorder.events.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.toString(i), recorder.events.get(i).getContactId());
+        }
+    }
+
+    // Verifies close drops later events and refuses new subscribers
+    @Test
+    void closeStopsPublishing() {
+        ContactEventBus bus = new ContactEventBus(4);
+        Recorder recorder = new Recorder();
+        bus.subscribe("test", recorder);
+        bus.close();
+
+        bus.publish(ContactEvent.deleted("1"));
+        assertTrue(recorder.events.isEmpty());
+        assertThrows(IllegalStateException.class, () -> bus.subscribe("late", new Recorder()));
+    }
+}
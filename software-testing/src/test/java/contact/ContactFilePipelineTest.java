@@ -0,0 +1,138 @@
+package contact;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Unit tests for ContactFileImporter, ContactFileExporter and
+// ContactFileFormat
+// Covers both formats, quoting and escapes, the rejects file, records
+// split across chunks, line breaks and an export/import round trip.
+class ContactFilePipelineTest {
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, String... lines) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    // Verifies CSV rows are stored and bad rows reported with line,
+    // field and reason
+    @Test
+    void importsCsvWithRejects() throws IOException {
+        Path file = write("in.csv",
+                ContactFileFormat.HEADER,
+                "1,Bob,Smith,1234567890,12 Main Street",
+                "2,\"Ann\",\"O\"\"Neil\",1234567890,\"4 Elm, Apt 2\"",
+                "",
+                "3,Bob,Smith,12345,Addr",
+                "1,Dup,Smith,1234567890,Addr",
+                "4,Bob,Smith",
+                "5,\"Bob,Smith,1234567890,Addr");
+        Path rejects = dir.resolve("rejects.csv");
+        ContactService contactService = new ContactService();
+
+        ContactFileImporter.Result result =
+                new ContactFileImporter(contactService).importFile(file, ContactFileFormat.CSV, rejects);
+
+        assertEquals(6, result.getRows());
+        assertEquals(2, result.getAccepted());
+        assertEquals(4, result.getRejected());
+        assertEquals("O\"Neil", contactService.getContactById("2").getLastName());
+        assertEquals("4 Elm, Apt 2", contactService.getContactById("2").getAddress());
+        List<String> lines = Files.readAllLines(rejects);
+        assertEquals(ContactFileImporter.REJECTS_HEADER, lines.get(0));
+        assertEquals("5,3,phoneNumber,Length must be 10", lines.get(1));
+        assertEquals("6,1,,Duplicate ID in batch", lines.get(2));
+        assertEquals("7,,,Expected 5 fields", lines.get(3));
+        assertEquals("8,,,Malformed CSV row", lines.get(4));
+    }
+
+    // Verifies NDJSON rows with escapes, extra keys and missing fields
+    @Test
+    void importsNdjson() throws IOException {
+        Path file = write("in.ndjson",
+                "{\"contactId\":\"1\",\"firstName\":\"Bob\",\"lastName\":\"Sm\\u00efth\","
+                        + "\"phoneNumber\":\"1234567890\",\"address\":\"12 \\\"Main\\\" St\",\"x\":null}",
+                " { \"contactId\" : \"2\" , \"firstName\" : \"Ann\" } ",
+                "not json");
+        Path rejects = dir.resolve("rejects.csv");
+        ContactService contactService = new ContactService();
+
+        ContactFileImporter.Result result =
+                new ContactFileImporter(contactService).importFile(file, ContactFileFormat.NDJSON, rejects);
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertEquals("Smïth", contactService.getContactById("1").getLastName());
+        assertEquals("12 \"Main\" St", contactService.getContactById("1").getAddress());
+        List<String> lines = Files.readAllLines(rejects);
+        assertTrue(lines.get(1).startsWith("2,2,lastName,"));
+        assertEquals("3,,,Malformed JSON row", lines.get(2));
+    }
+
+    // Verifies records split across small chunks keep their line numbers
+    // and an exported file imports back unchanged
+    @Test
+    void roundTripsAcrossChunks() throws IOException {
+        ContactService source = new ContactService();
+        for (int i = 0; i < 5000; i++) {
+            source.addContact(new Contact("C" + i, "First" + (i % 7), "Last,\"" + (i % 3),
+                    "1234567890", "é " + i + " Street"));
+        }
+        for (ContactFileFormat format : ContactFileFormat.values()) {
+            Path file = dir.resolve("out." + format);
+            assertEquals(5000, ContactFileExporter.export(source.streamContacts(), file, format));
+
+            ContactService target = new ContactService();
+            ContactFileImporter.Result result =
+                    new ContactFileImporter(target, 3, 4096).importFile(file, format, null);
+            assertEquals(5000, result.getAccepted(), format.toString());
+            assertEquals(0, result.getRejected());
+            Contact copy = target.getContactById("C42");
+            assertEquals("Last,\"0", copy.getLastName());
+            assertEquals("é 42 Street", copy.getAddress());
+        }
+    }
+
+    // Verifies a line break fails a CSV export, where the importer would
+    // split the record, and round trips through NDJSON
+    @Test
+    void keepsLineBreaksOutOfCsv() throws IOException {
+        ContactService source = new ContactService();
+        source.addContact(new Contact("1", "Bob", "Smith", "1234567890", "12 Main\nApt 2"));
+        Path csv = dir.resolve("out.csv");
+        assertThrows(IllegalArgumentException.class,
+                () -> ContactFileExporter.export(source.streamContacts(), csv, ContactFileFormat.CSV));
+
+        Path ndjson = dir.resolve("out.ndjson");
+        ContactFileExporter.export(source.streamContacts(), ndjson, ContactFileFormat.NDJSON);
+        ContactService target = new ContactService();
+        ContactFileImporter.Result result =
+                new ContactFileImporter(target).importFile(ndjson, ContactFileFormat.NDJSON, null);
+        assertEquals(1, result.getAccepted());
+        assertEquals("12 Main\nApt 2", target.getContactById("1").getAddress());
+    }
+
+    // Verifies a record longer than a chunk fails the import
+    @Test
+    void rejectsOversizedRecord() throws IOException {
+        char[] filler = new char[200];
+        Arrays.fill(filler, 'x');
+        Path file = write("huge.csv", "1,Bob,Smith,1234567890," + new String(filler));
+
+        ContactFileImporter importer = new ContactFileImporter(new ContactService(), 2, 64);
+        assertThrows(IOException.class, () -> importer.importFile(file, ContactFileFormat.CSV, null));
+    }
+}
@@ -0,0 +1,160 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Unit tests for ContactHttpServer
+// Covers each endpoint with its error statuses, bulk import in both
+// formats and pipelined requests on one connection.
+class ContactHttpServerTest {
+
+    private static final String BOB =
+            "{\"contactId\":\"1\",\"firstName\":\"Bob\",\"lastName\":\"Smith\","
+                    + "\"phoneNumber\":\"1234567890\",\"address\":\"12 Main Street\"}";
+
+    private ContactService contactService;
+    private ContactHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        contactService = new ContactService(new ConcurrentContactRepository());
+        server = new ContactHttpServer(contactService);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String type)
+            throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + server.getPort() + path));
+        if (type != null) {
+            request.header("Content-Type", type);
+        }
+        request.method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body));
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Verifies add, get, update and delete with their success and error
+    // statuses
+    @Test
+    void crud() throws Exception {
+        HttpResponse<String> added = send("POST", "/contacts", BOB, null);
+        assertEquals(201, added.statusCode());
+        assertEquals("/contacts/1", added.headers().firstValue("Location").orElse(null));
+        assertEquals(409, send("POST", "/contacts", BOB, null).statusCode());
+
+        HttpResponse<String> found = send("GET", "/contacts/1", null, null);
+        assertEquals(200, found.statusCode());
+        assertEquals(BOB + "\n", found.body());
+        assertEquals(404, send("GET", "/contacts/2", null, null).statusCode());
+
+        assertEquals(204, send("PATCH", "/contacts/1", "{\"firstName\":\"Ann\"}", null).statusCode());
+        assertEquals("Ann", contactService.getContactById("1").getFirstName());
+        assertEquals("Smith", contactService.getContactById("1").getLastName());
+        assertEquals(404, send("PATCH", "/contacts/2", "{}", null).statusCode());
+
+        assertEquals(204, send("DELETE", "/contacts/1", null, null).statusCode());
+        assertEquals(404, send("DELETE", "/contacts/1", null, null).statusCode());
+        assertEquals(405, send("PUT", "/contacts/1", "{}", null).statusCode());
+    }
+
+    // Verifies bad input is answered with 400 and the reason
+    @Test
+    void rejectsBadInput() throws Exception {
+        HttpResponse<String> invalid = send("POST", "/contacts",
+                BOB.replace("1234567890", "123"), null);
+        assertEquals(400, invalid.statusCode());
+        assertEquals("{\"error\":\"Length must be 10\",\"field\":\"phoneNumber\"}\n", invalid.body());
+
+        HttpResponse<String> malformed = send("POST", "/contacts", "{\"contactId\":", null);
+        assertEquals(400, malformed.statusCode());
+        assertEquals("{\"error\":\"Malformed JSON row\"}\n", malformed.body());
+
+        contactService.addContact(contact("1"));
+        assertEquals(400, send("PATCH", "/contacts/1", "{\"contactId\":\"2\"}", null).statusCode());
+        assertEquals("Bob", contactService.getContactById("1").getFirstName());
+    }
+
+    // Verifies paths that only share the /contacts prefix are not routed
+    // to a contact
+    @Test
+    void rejectsPrefixPaths() throws Exception {
+        contactService.addContact(contact("1"));
+
+        assertEquals(404, send("GET", "/contactsX1", null, null).statusCode());
+        assertEquals(404, send("DELETE", "/contacts1", null, null).statusCode());
+        assertEquals(404, send("POST", "/contactsX", BOB, null).statusCode());
+        assertEquals(404, send("GET", "/contacts/1/x", null, null).statusCode());
+        assertNotNull(contactService.getContactById("1"));
+    }
+
+    // Verifies bulk NDJSON and CSV bodies report rejected rows by line
+    @Test
+    void bulk() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            body.append(BOB.replace("\"1\"", "\"B" + i + "\"")).append('\n');
+        }
+        body.append("{bad\n").append(BOB).append('\n').append(BOB).append('\n');
+        HttpResponse<String> ndjson = send("POST", "/contacts/bulk", body.toString(), null);
+        assertEquals(200, ndjson.statusCode());
+        assertEquals("{\"rows\":3003,\"accepted\":3001,\"rejected\":2,\"rejections\":["
+                + "{\"line\":3001,\"contactId\":null,\"field\":null,\"reason\":\"Malformed JSON row\"},"
+                + "{\"line\":3003,\"contactId\":\"1\",\"field\":null,\"reason\":\"Duplicate ID in batch\"}]}\n",
+                ndjson.body());
+        assertEquals(3001, contactService.getSize());
+
+        String csv = ContactFileFormat.HEADER + "\r\nC1,Ann,Lee,1234567890,\"1 Elm, Apt 2\"\r\n"
+                + "C2,Ann,Lee,12,Addr\r\n";
+        HttpResponse<String> imported = send("POST", "/contacts/bulk", csv, "text/csv");
+        assertTrue(imported.body().startsWith("{\"rows\":2,\"accepted\":1,\"rejected\":1,"),
+                imported.body());
+        assertTrue(imported.body().contains("\"line\":3,\"contactId\":\"C2\",\"field\":\"phoneNumber\""));
+        assertEquals("1 Elm, Apt 2", contactService.getContactById("C1").getAddress());
+    }
+
+    // Verifies requests written back to back on one connection are all
+    // answered, in order
+    @Test
+    void pipelinedRequests() throws Exception {
+        contactService.addContact(contact("1"));
+        String request = "GET /contacts/1 HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                + "GET /contacts/2 HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                + "DELETE /contacts/1 HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            socket.setSoTimeout(10_000);
+            OutputStream out = socket.getOutputStream();
+            out.write(request.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            ByteArrayOutputStream replies = new ByteArrayOutputStream();
+            in.transferTo(replies);
+            String text = replies.toString(StandardCharsets.UTF_8);
+            int ok = text.indexOf("HTTP/1.1 200");
+            int missing = text.indexOf("HTTP/1.1 404");
+            int deleted = text.indexOf("HTTP/1.1 204");
+            assertTrue(ok >= 0 && ok < missing && missing < deleted, text);
+        }
+        assertNull(contactService.getContactById("1"));
+    }
+}
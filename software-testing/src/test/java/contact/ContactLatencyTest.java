@@ -0,0 +1,145 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+// Unit tests for ContactLatency and LatencyHistogram
+// Covers the off switch, sampling, per-operation and per-phase counts,
+// failed calls, reset, histogram precision and the JFR events.
+class ContactLatencyTest {
+
+    @TempDir
+    Path dir;
+
+    private ContactService contactService;
+
+    @BeforeEach
+    void setUp() {
+        ContactLatency.enable();
+        ContactLatency.reset();
+        contactService = new ContactService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ContactLatency.disable();
+    }
+
+    // Verifies each operation and the repository calls it makes are
+    // counted, and calls that throw are not
+    @Test
+    void recordsOperationsAndPhases() {
+        contactService.addContact(contact("1"));
+        contactService.getContactById("1");
+        contactService.getContactById("2");
+        contactService.updateContact("1", "Ann", null, null, null);
+        assertThrows(ValidationException.class,
+                () -> contactService.updateContact("1", null, null, "123", null));
+        contactService.deleteContact("1");
+        assertThrows(IllegalArgumentException.class, () -> contactService.deleteContact("1"));
+
+        Map<String, Long> snapshot = ContactLatency.snapshot();
+        assertEquals(1, snapshot.get("latency.service.add.count"));
+        assertEquals(2, snapshot.get("latency.service.get.count"));
+        assertEquals(1, snapshot.get("latency.service.update.count"));
+        assertEquals(1, snapshot.get("latency.service.update.validation.count"));
+        assertEquals(1, snapshot.get("latency.service.delete.count"));
+        assertEquals(1, snapshot.get("latency.repository.add.count"));
+        assertEquals(4, snapshot.get("latency.repository.findById.count"));
+        assertEquals(1, snapshot.get("latency.repository.replace.count"));
+        assertEquals(1, snapshot.get("latency.repository.deleteById.count"));
+        assertTrue(snapshot.get("latency.service.update.max")
+                >= snapshot.get("latency.service.update.p50"));
+
+        ContactLatency.reset();
+        assertEquals(0, ContactLatency.snapshot().get("latency.service.get.count"));
+    }
+
+    // Verifies nothing is recorded while off
+    @Test
+    void offSwitch() {
+        ContactLatency.disable();
+        contactService.addContact(contact("1"));
+        assertFalse(ContactLatency.isEnabled());
+        assertTrue(ContactLatency.snapshot().isEmpty());
+
+        ContactLatency.enable();
+        contactService.getContactById("1");
+        assertEquals(1, ContactLatency.snapshot().get("latency.service.get.count"));
+        assertEquals(0, ContactLatency.snapshot().get("latency.service.add.count"));
+    }
+
+    // Verifies sampling times only some calls and takes powers of two
+    @Test
+    void sampling() {
+        ContactLatency.disable();
+        ContactLatency.enable(16);
+        contactService.addContact(contact("1"));
+        for (int i = 0; i < 16_000; i++) {
+            contactService.getContactById("1");
+        }
+        long timed = ContactLatency.snapshot().get("latency.service.get.count");
+        assertTrue(timed > 500 && timed < 2000, Long.toString(timed));
+        assertThrows(IllegalArgumentException.class, () -> ContactLatency.enable(10));
+    }
+
+    // Verifies every value maps to a bucket whose top is within 1/32 of it
+    @Test
+    void histogramPrecision() {
+        long[] values = {0, 1, 63, 64, 65, 127, 128, 1000, 123_456, 1L << 40, Long.MAX_VALUE};
+        int last = -1;
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(bucket >= last && bucket < LatencyHistogram.BUCKETS);
+            last = bucket;
+            long top = LatencyHistogram.highestValue(bucket);
+            if (value < 1L << 41) {
+                assertTrue(top >= value && top - value <= value / 32, value + " -> " + top);
+            }
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        long[] counts = histogram.counts();
+        long p50 = LatencyHistogram.valueAtPercentile(counts, 1000, 50);
+        long p99 = LatencyHistogram.valueAtPercentile(counts, 1000, 99);
+        assertEquals(500_000, p50, 500_000 / 32);
+        assertEquals(990_000, p99, 990_000 / 32);
+    }
+
+    // Verifies recorded operations reach a JFR recording
+    @Test
+    void emitsJfrEvents() throws Exception {
+        Path file = dir.resolve("latency.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("contact.Operation");
+            recording.start();
+            contactService.addContact(contact("1"));
+            contactService.getContactById("1");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(2, events.size());
+        assertEquals("service.add", events.get(0).getString("operation"));
+        assertEquals("1", events.get(0).getString("contactId"));
+        assertTrue(events.get(0).getLong("elapsed") > 0);
+        assertEquals("service.get", events.get(1).getString("operation"));
+    }
+}
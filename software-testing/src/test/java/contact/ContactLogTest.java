@@ -0,0 +1,215 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Unit tests for ContactLog
+// Covers service traces, validation warnings, the level switch and
+// dropping under overload without blocking callers.
+class ContactLogTest {
+
+    // Keeps every record published to the loggers it is attached to
+    private static final class Capture extends Handler {
+        final List<LogRecord> records = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(LogRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        String messages() {
+            StringBuilder text = new StringBuilder();
+            for (LogRecord record : records) {
+                text.append(record.getMessage()).append('\n');
+            }
+            return text.toString();
+        }
+    }
+
+    private static final Logger SERVICE = Logger.getLogger(ContactService.class.getName());
+    private static final Logger METRICS = Logger.getLogger(ValidationMetrics.class.getName());
+
+    private final Capture capture = new Capture();
+
+    @BeforeEach
+    void setUp() {
+        ContactLog.flush(5000);
+        ValidationMetrics.reset();
+        for (Logger logger : new Logger[] {SERVICE, METRICS}) {
+            logger.addHandler(capture);
+            logger.setUseParentHandlers(false);
+            logger.setLevel(Level.FINE);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        ContactLog.flush(5000);
+        ContactLog.setLevel(Level.ALL);
+        for (Logger logger : new Logger[] {SERVICE, METRICS}) {
+            logger.removeHandler(capture);
+            logger.setUseParentHandlers(true);
+            logger.setLevel(null);
+        }
+    }
+
+    // Verifies service calls are written as logfmt records stamped with
+    // the calling thread
+    @Test
+    void writesServiceTraces() {
+        ContactService contactService = new ContactService();
+        contactService.addContact(contact("1"));
+        contactService.getContactById("2");
+        assertThrows(IllegalArgumentException.class,
+                () -> contactService.updateContact("2", "Ann", null, null, null));
+        assertTrue(ContactLog.flush(5000));
+
+        assertEquals("op=add contactId=1\n"
+                + "op=get contactId=2 reason=\"Not found\"\n"
+                + "op=update contactId=2\n"
+                + "op=update contactId=2 reason=\"Contact ID does not exist\"\n",
+                capture.messages());
+        LogRecord warning = capture.records.get(3);
+        assertEquals(Level.WARNING, warning.getLevel());
+        assertEquals(SERVICE.getName(), warning.getLoggerName());
+        assertEquals(Thread.currentThread().getId(), warning.getLongThreadID());
+    }
+
+    // Verifies control characters in a value are escaped, so a value
+    // cannot forge a second log line
+    @Test
+    void escapesControlCharacters() {
+        ContactLog.log(SERVICE, Level.WARNING, "get", "1\nop=add", null, "a\tb\r\u0001");
+        assertTrue(ContactLog.flush(5000));
+
+        assertEquals("op=get contactId=\"1\\nop=add\" reason=\"a\\tb\\r\\u0001\"\n",
+                capture.messages());
+    }
+
+    // Verifies FINE traces follow the logger's level while validation
+    // warnings are queued, and setLevel caps both
+    @Test
+    void queuesOnlyAtLevel() {
+        SERVICE.setLevel(Level.INFO);
+        ContactService contactService = new ContactService();
+        contactService.addContact(contact("1"));
+        assertThrows(ValidationException.class,
+                () -> new Contact("2", "Bob", "Smith", "123", "Addr"));
+        assertTrue(ContactLog.flush(5000));
+
+        assertEquals("op=validate contactId=2 field=phoneNumber reason=\"Length must be 10\"\n",
+                capture.messages());
+        assertEquals(METRICS.getName(), capture.records.get(0).getLoggerName());
+
+        capture.records.clear();
+        SERVICE.setLevel(Level.FINE);
+        ContactLog.setLevel(Level.INFO);
+        contactService.getContactById("2");
+        ContactLog.setLevel(Level.ALL);
+        contactService.getContactById("3");
+        assertTrue(ContactLog.flush(5000));
+        assertEquals("op=get contactId=3 reason=\"Not found\"\n", capture.messages());
+    }
+
+    // Verifies a handler throwing an Error does not stop the writer
+    @Test
+    void survivesHandlerError() {
+        Logger failing = Logger.getLogger("contact.ContactLogTest.failing");
+        failing.setUseParentHandlers(false);
+        List<String> messages = new CopyOnWriteArrayList<>();
+        failing.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+                if (messages.size() == 1) {
+                    throw new StackOverflowError("Simulated failure");
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        ContactLog.log(failing, Level.WARNING, "first", null, null, null);
+        ContactLog.log(failing, Level.WARNING, "second", null, null, null);
+        assertTrue(ContactLog.flush(5000));
+        assertEquals(List.of("op=first", "op=second"), messages);
+    }
+
+    // Verifies a stalled handler makes the ring drop entries instead of
+    // blocking callers, and the loss is reported once it recovers
+    @Test
+    void dropsWhenFull() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> messages = new CopyOnWriteArrayList<>();
+        Logger slow = Logger.getLogger("contact.ContactLogTest.slow");
+        slow.setUseParentHandlers(false);
+        slow.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+                stalled.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        try {
+            long droppedBefore = ContactLog.snapshot().get("log.dropped");
+            ContactLog.log(slow, Level.WARNING, "first", null, null, null);
+            assertTrue(stalled.await(5, TimeUnit.SECONDS));
+
+            int capacity = ContactLog.snapshot().get("log.capacity").intValue();
+            for (int i = 0; i < capacity + 100; i++) {
+                ContactLog.log(slow, Level.WARNING, "flood", Integer.toString(i), null, null);
+            }
+            assertEquals(100, ContactLog.snapshot().get("log.dropped") - droppedBefore);
+        } finally {
+            release.countDown();
+        }
+        assertTrue(ContactLog.flush(10_000));
+
+        int capacity = ContactLog.snapshot().get("log.capacity").intValue();
+        assertEquals(capacity + 1, messages.size());
+        assertEquals("op=first", messages.get(0));
+        assertEquals("op=flood contactId=0 dropped=100", messages.get(1));
+        assertEquals("op=flood contactId=" + (capacity - 1), messages.get(capacity));
+    }
+}
@@ -0,0 +1,182 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+// Unit tests for streams and cursor pages over every repository.
+// Covers walk order, exactly-once delivery under concurrent adds and
+// deletes, and parallel splitting.
+class ContactPaginationTest {
+
+    @TempDir
+    static Path dir;
+
+    private final List<ContactRepository> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeRepositories() throws Exception {
+        for (ContactRepository repo : opened) {
+            if (repo instanceof AutoCloseable) {
+                ((AutoCloseable) repo).close();
+            }
+        }
+    }
+
+    private ContactRepository open(Function<Integer, ContactRepository> factory, int capacity) {
+        ContactRepository repo = factory.apply(capacity);
+        opened.add(repo);
+        return repo;
+    }
+
+    // Supplies each repository, sized for the contacts the tests add
+    static Stream<Arguments> repositories() {
+        return Stream.of(
+                Arguments.of("hash", (Function<Integer, ContactRepository>) n -> new HashContactRepository()),
+                Arguments.of("concurrent", (Function<Integer, ContactRepository>) n -> new ConcurrentContactRepository()),
+                Arguments.of("mapped", (Function<Integer, ContactRepository>) n -> new MappedContactRepository(n)),
+                Arguments.of("log", (Function<Integer, ContactRepository>) n ->
+                        new LogContactRepository(dir.resolve("page-" + System.nanoTime() + ".log"), 5)),
+                Arguments.of("snapshot", (Function<Integer, ContactRepository>) n -> new SnapshotContactRepository()),
+                Arguments.of("jdbc", (Function<Integer, ContactRepository>) n ->
+                        new JdbcContactRepository("jdbc:h2:mem:page" + System.nanoTime())),
+                Arguments.of("indexed", (Function<Integer, ContactRepository>) n ->
+                        new IndexedContactRepository(new HashContactRepository())));
+    }
+
+    private static List<String> ids(List<Contact> contacts) {
+        return contacts.stream().map(Contact::getContactId).collect(Collectors.toList());
+    }
+
+    // Walks every page from the start
+    private static List<String> walk(ContactRepository repo, int limit) {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ContactPage page = repo.page(cursor, limit);
+            assertTrue(page.getContacts().size() <= limit);
+            seen.addAll(ids(page.getContacts()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+
+    // Verifies pages return every contact once, in walk order
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void pagesCoverEveryContactInOrder(String name, Function<Integer, ContactRepository> factory) {
+        ContactRepository repo = open(factory, 2000);
+        for (int i = 0; i < 1000; i++) {
+            repo.add(contact(i));
+        }
+
+        List<String> seen = walk(repo, 37);
+        List<String> expected = new ArrayList<>(seen);
+        expected.sort(ContactPage.ID_ORDER);
+        assertEquals(expected, seen);
+        assertEquals(1000, new HashSet<>(seen).size());
+    }
+
+    // Verifies contacts stored for the whole walk are returned exactly
+    // once while others are added and deleted between pages
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void cursorSurvivesAddsAndDeletes(String name, Function<Integer, ContactRepository> factory) {
+        ContactRepository repo = open(factory, 4000);
+        for (int i = 0; i < 1000; i++) {
+            repo.add(contact(i));
+        }
+        Set<String> stable = new HashSet<>();
+        for (int i = 0; i < 1000; i += 2) {
+            stable.add("ID" + i);
+        }
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int next = 1000;
+        int deleted = 1;
+        do {
+            ContactPage page = repo.page(cursor, 50);
+            seen.addAll(ids(page.getContacts()));
+            cursor = page.getNextCursor();
+            // Grow the store past a resize and churn the odd IDs
+            for (int i = 0; i < 100 && next < 3000; i++) {
+                repo.add(contact(next++));
+            }
+            if (deleted < 1000) {
+                repo.deleteById("ID" + deleted);
+                deleted += 2;
+            }
+        } while (cursor != null);
+
+        assertEquals(seen.size(), new HashSet<>(seen).size());
+        assertTrue(seen.containsAll(stable));
+    }
+
+    // Verifies streams see every contact, sequentially and in parallel
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void streamsEveryContact(String name, Function<Integer, ContactRepository> factory) {
+        ContactRepository repo = open(factory, 5000);
+        for (int i = 0; i < 5000; i++) {
+            repo.add(contact(i));
+        }
+
+        assertEquals(5000, repo.stream().count());
+        assertEquals(5000, repo.stream().parallel().map(Contact::getContactId).distinct().count());
+        Spliterator<Contact> split = repo.spliterator();
+        assertNotNull(split.trySplit());
+    }
+
+    // Verifies the service exposes both and rejects bad page sizes
+    @Test
+    void serviceStreamsAndPages() {
+        ContactService contactService = new ContactService();
+        contactService.addContact(contact(1));
+        contactService.addContact(contact(2));
+
+        assertEquals(2, contactService.streamContacts().count());
+        ContactPage page = contactService.getContacts(null, 10);
+        assertEquals(2, page.getContacts().size());
+        assertFalse(page.hasMore());
+        assertThrows(IllegalArgumentException.class, () -> contactService.getContacts(null, 0));
+    }
+
+    // Verifies a full page hands back the last ID as its cursor
+    @Test
+    void fullPageHasCursor() {
+        ContactRepository repo = new ConcurrentContactRepository();
+        repo.add(contact(1));
+        repo.add(contact(2));
+
+        ContactPage first = repo.page(null, 1);
+        assertTrue(first.hasMore());
+        assertEquals(first.getContacts().get(0).getContactId(), first.getNextCursor());
+        ContactPage second = repo.page(first.getNextCursor(), 1);
+        assertNotEquals(first.getNextCursor(), second.getContacts().get(0).getContactId());
+        assertTrue(repo.page(second.getNextCursor(), 1).getContacts().isEmpty());
+    }
+
+    // Verifies stores that cannot enumerate say so
+    @Test
+    void failingRepositoryCannotStream() {
+        assertThrows(UnsupportedOperationException.class,
+                () -> new FailingRepository().stream());
+    }
+}
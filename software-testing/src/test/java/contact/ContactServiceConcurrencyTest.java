@@ -0,0 +1,195 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Multi-threaded stress tests for ContactService backed by
+// ConcurrentContactRepository.
+// Threads are released together by a latch to maximise overlap.
+class ContactServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 2_000;
+
+    private ExecutorService pool;
+    private ContactService contactService;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(THREADS);
+        contactService = new ContactService(new ConcurrentContactRepository());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pool.shutdownNow();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // Runs every task once the start latch opens and waits for all results
+    private <T> List<T> runTogether(List<Callable<T>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (Callable<T> task : tasks) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    // Verifies concurrent adds of distinct IDs are all stored
+    @Test
+    void concurrentAddsOfDistinctIds() throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < PER_THREAD; i++) {
+                    contactService.addContact(contact("T" + thread + "-" + i));
+                }
+                return null;
+            });
+        }
+        runTogether(tasks);
+
+        assertEquals(THREADS * PER_THREAD, contactService.getSize());
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < PER_THREAD; i++) {
+                assertNotNull(contactService.getContactById("T" + t + "-" + i));
+            }
+        }
+    }
+
+    // Verifies exactly one thread wins when all add the same IDs
+    @Test
+    void duplicateAddIsAtomic() throws Exception {
+        AtomicInteger rejected = new AtomicInteger();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                int added = 0;
+                for (int i = 0; i < PER_THREAD; i++) {
+                    try {
+                        contactService.addContact(contact("ID" + i));
+                        added++;
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return added;
+            });
+        }
+        int added = runTogether(tasks).stream().mapToInt(Integer::intValue).sum();
+
+        assertEquals(PER_THREAD, added, "Each ID should be added exactly once");
+        assertEquals(PER_THREAD * (THREADS - 1), rejected.get());
+        assertEquals(PER_THREAD, contactService.getSize());
+    }
+
+    // Verifies mixed add, read and delete traffic leaves a consistent size
+    @Test
+    void mixedAddFindDelete() throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < PER_THREAD; i++) {
+                    String id = "T" + thread + "-" + i;
+                    contactService.addContact(contact(id));
+                    assertNotNull(contactService.getContactById(id));
+                    // Delete every other contact this thread added
+                    if (i % 2 == 0) {
+                        contactService.deleteContact(id);
+                    }
+                }
+                return null;
+            });
+        }
+        runTogether(tasks);
+
+        assertEquals(THREADS * PER_THREAD / 2, contactService.getSize());
+    }
+
+    // Verifies readers never observe a mix of two concurrent updates
+    @Test
+    void concurrentUpdatesAreAtomic() throws Exception {
+        contactService.addContact(new Contact("hot", "Ann", "Alpha",
+                "1111111111", "1 A St"));
+        AtomicInteger torn = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean writer = t % 2 == 0;
+            tasks.add(() -> {
+                for (int i = 0; i < PER_THREAD; i++) {
+                    if (writer && i % 2 == 0) {
+                        contactService.updateContact("hot", "Ann", "Alpha",
+                                "1111111111", "1 A St");
+                    } else if (writer) {
+                        contactService.updateContact("hot", "Bea", "Beta",
+                                "2222222222", "2 B St");
+                    } else {
+                        Contact c = contactService.getContactById("hot");
+                        boolean allA = c.getFirstName().equals("Ann")
+                                && c.getLastName().equals("Alpha")
+                                && c.getPhoneNumber().equals("1111111111")
+                                && c.getAddress().equals("1 A St");
+                        boolean allB = c.getFirstName().equals("Bea")
+                                && c.getLastName().equals("Beta")
+                                && c.getPhoneNumber().equals("2222222222")
+                                && c.getAddress().equals("2 B St");
+                        if (!allA && !allB) {
+                            torn.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        runTogether(tasks);
+
+        assertEquals(0, torn.get(), "Readers saw a half-applied update");
+        assertEquals(1, contactService.getSize());
+    }
+
+    // Verifies only one of many concurrent deletes of one ID succeeds
+    @Test
+    void concurrentDeleteOfSameIdSucceedsOnce() throws Exception {
+        contactService.addContact(contact("shared"));
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                try {
+                    contactService.deleteContact("shared");
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            });
+        }
+        long deleted = runTogether(tasks).stream().filter(Boolean::booleanValue).count();
+
+        assertEquals(1, deleted);
+        assertEquals(0, contactService.getSize());
+    }
+}
@@ -4,6 +4,11 @@
 package contact;
 //import testing and assertion libraries
 import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -97,6 +102,24 @@ class ContactServiceTest {
 		assertEquals("8818 East Brooks", updated.getAddress());
 	}
 
+	// Tests a failing field leaves the contact untouched
+	@Test
+	void testUpdateContactIsAllOrNothing() {
+		Contact contact = new Contact("15555", "Bob", "Smith",
+				"1234567890", "8850 West Mayfield");
+		contactService.addContact(contact);
+
+		assertThrows(ValidationException.class,
+				() -> contactService.updateContact("15555", "Bobby", "Blue",
+						"bad", "8818 East Brooks"));
+
+		Contact unchanged = contactService.getContactById("15555");
+		assertEquals("Bob", unchanged.getFirstName(),
+				"Valid fields should not apply when another field fails");
+		assertEquals("Smith", unchanged.getLastName());
+		assertEquals("1234567890", unchanged.getPhoneNumber());
+	}
+
 	// Tests retrieving an unknown ID returns null
 	@Test
 	void testGetContactByIdReturnsNullWhenMissing() {
@@ -118,9 +141,10 @@ class ContactServiceTest {
 		assertEquals(0, contactService.getSize(), "Size should be 0");
 	}
 
-	// Tests the repository capacity limit of 100
+	// Tests the array repository capacity limit of 100
 	@Test
 	void testRepositoryCapacityLimit() {
+		contactService = new ContactService(new ArrayContactRepository());
 		// Fill repository to its max capacity.
 		for (int i = 0; i < 100; i++) {
 			contactService.addContact(new Contact(
@@ -140,6 +164,76 @@ class ContactServiceTest {
 				"Should throw when storage is full");
 	}
 
+	// Tests the default repository has no capacity ceiling
+	@Test
+	void testDefaultRepositoryIsUnbounded() {
+		for (int i = 0; i < 1000; i++) {
+			contactService.addContact(new Contact(
+					String.format("ID%05d", i), "Bob", "Smith",
+					String.format("%010d", i), "Addr " + i));
+		}
+		assertEquals(1000, contactService.getSize());
+		assertEquals("Addr 999", contactService.getContactById("ID00999").getAddress());
+	}
+
+	// Tests bulk add reports duplicates in the batch and in the store
+	@Test
+	void testAddAllReportsDuplicates() {
+		contactService.addContact(new Contact("1", "Bob", "Smith",
+				"1234567890", "Addr"));
+		ImportReport report = contactService.addAll(Arrays.asList(
+				new Contact("1", "Ann", "Lee", "1234567890", "Addr"),
+				new Contact("2", "Ann", "Lee", "1234567890", "Addr"),
+				new Contact("2", "Dup", "Lee", "1234567890", "Addr"),
+				null,
+				new Contact("3", "Cal", "Ray", "1234567890", "Addr")));
+
+		assertEquals(2, report.getAccepted());
+		assertEquals(3, report.getRejected());
+		assertEquals(0, report.getRejections().get(0).getIndex());
+		assertEquals("ID already exists", report.getRejections().get(0).getReason());
+		assertEquals(2, report.getRejections().get(1).getIndex());
+		assertEquals("Duplicate ID in batch", report.getRejections().get(1).getReason());
+		assertEquals(3, report.getRejections().get(2).getIndex());
+		assertEquals(3, contactService.getSize());
+		assertEquals("Ann", contactService.getContactById("2").getFirstName(),
+				"First occurrence of a duplicated ID should win");
+	}
+
+	// Tests row import keeps going past invalid rows
+	@Test
+	void testImportRowsReportsInvalidFields() {
+		ImportReport report = contactService.importRows(Arrays.asList(
+				new String[] {"1", "Bob", "Smith", "1234567890", "Addr"},
+				new String[] {"2", "Bob", "Smith", "12345", "Addr"},
+				new String[] {"3", "Bob"},
+				new String[] {"4", "Bob", "Smith", "1234567890", "Addr"}));
+
+		assertEquals(2, report.getAccepted());
+		assertEquals(2, report.getRejected());
+		ImportReport.Rejection badPhone = report.getRejections().get(0);
+		assertEquals(1, badPhone.getIndex());
+		assertEquals("2", badPhone.getContactId());
+		assertEquals("phoneNumber", badPhone.getField());
+		assertEquals("Length must be 10", badPhone.getReason());
+		assertEquals("Expected 5 fields", report.getRejections().get(1).getReason());
+		assertNotNull(contactService.getContactById("4"));
+	}
+
+	// Tests a large batch lands in one call
+	@Test
+	void testAddAllLargeBatch() {
+		List<Contact> batch = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++) {
+			batch.add(new Contact("ID" + i, "Bob", "Smith",
+					String.format("%010d", i), "Addr"));
+		}
+		ImportReport report = contactService.addAll(batch);
+		assertEquals(100_000, report.getAccepted());
+		assertFalse(report.hasRejections());
+		assertEquals(100_000, contactService.getSize());
+	}
+
 	// Dependency injection tests
 
 	// Verifies that the addContact method correctly propagates exceptions thrown
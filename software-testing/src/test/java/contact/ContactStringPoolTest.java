@@ -0,0 +1,107 @@
+package contact;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Unit tests for ContactStringPool
+// Covers sharing through the constructor, setters, imports and decoding,
+// the off switch, the size bound and the savings counters.
+class ContactStringPoolTest {
+
+    @BeforeEach
+    void setUp() {
+        ContactStringPool.enable(1024);
+        ContactStringPool.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ContactStringPool.disable();
+        ContactStringPool.reset();
+    }
+
+    // Fresh copies of the text, as a parser would produce them
+    private static Contact contact(String id) {
+        return new Contact(id, new String("Bob"), new String("Smith"), "1234567890",
+                new String("12 Main Street"));
+    }
+
+    // Verifies equal fields share one instance across contacts
+    @Test
+    void sharesEqualFields() {
+        Contact a = contact("1");
+        Contact b = contact("2");
+
+        assertSame(a.getFirstName(), b.getFirstName());
+        assertSame(a.getLastName(), b.getLastName());
+        assertSame(a.getAddress(), b.getAddress());
+
+        b.setLastName(new String("Jones"));
+        Contact c = contact("3").withUpdates(null, new String("Jones"), null, null);
+        assertSame(b.getLastName(), c.getLastName());
+    }
+
+    // Verifies imports and decoded records are pooled too
+    @Test
+    void poolsImportsAndDecoding() {
+        ContactService contactService = new ContactService();
+        contactService.importRows(Arrays.asList(
+                new String[] {"1", new String("Ann"), new String("Lee"), "1234567890", new String("Addr")},
+                new String[] {"2", new String("Ann"), new String("Lee"), "1234567890", new String("Addr")}));
+        assertSame(contactService.getContactById("1").getFirstName(),
+                contactService.getContactById("2").getFirstName());
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        ContactCodec.encode(contact("9"), buffer);
+        buffer.flip();
+        Contact decoded = ContactCodec.decode(buffer);
+        assertSame(contact("8").getLastName(), decoded.getLastName());
+    }
+
+    // Verifies the counters report hits and estimated savings
+    @Test
+    void reportsSavings() {
+        Contact a = contact("1");
+        Contact b = contact("2");
+
+        Map<String, Long> snapshot = ContactStringPool.snapshot();
+        // Pooled strings are weakly held; keep their contacts reachable
+        Reference.reachabilityFence(a);
+        Reference.reachabilityFence(b);
+        assertEquals(3, snapshot.get("intern.misses"));
+        assertEquals(3, snapshot.get("intern.hits"));
+        assertTrue(snapshot.get("intern.bytes.saved") > 0);
+        assertEquals(1024, snapshot.get("intern.capacity"));
+    }
+
+    // Verifies the table never holds more strings than its size
+    @Test
+    void staysBounded() {
+        ContactStringPool.enable(8);
+        for (int i = 0; i < 1000; i++) {
+            ContactStringPool.intern("Name" + i);
+        }
+        Map<String, Long> snapshot = ContactStringPool.snapshot();
+        assertTrue(snapshot.get("intern.size") <= 8);
+        assertTrue(snapshot.get("intern.evictions") > 0);
+    }
+
+    // Verifies contacts keep their own strings while the pool is off
+    @Test
+    void offByDefault() {
+        ContactStringPool.disable();
+        assertFalse(ContactStringPool.isEnabled());
+
+        assertNotSame(contact("1").getLastName(), contact("2").getLastName());
+        assertEquals(0, ContactStringPool.snapshot().get("intern.misses"));
+        assertThrows(IllegalArgumentException.class, () -> ContactStringPool.enable(0));
+    }
+}
@@ -0,0 +1,63 @@
+package contact;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Unit tests for the non-throwing ContactValidator checks
+// and the stackless exception path.
+class ContactValidatorTest {
+
+    @BeforeEach
+    void resetMetrics() {
+        ValidationMetrics.reset();
+    }
+
+    // Verifies a valid contact produces an empty mask
+    @Test
+    void validFieldsReturnZero() {
+        assertEquals(0, ContactValidator.checkAll("1", "Bob", "Smith",
+                "1234567890", "Addr"));
+    }
+
+    // Verifies each failing field sets its own rule bit
+    @Test
+    void checkAllCollectsEveryFailedRule() {
+        int failed = ContactValidator.checkAll(null, "Bobbbybobington", "Smith",
+                "123efg4567", null);
+        assertEquals(ContactValidator.ID_NULL
+                | ContactValidator.FIRST_NAME_TOO_LONG
+                | ContactValidator.PHONE_DIGITS
+                | ContactValidator.ADDRESS_NULL, failed);
+    }
+
+    // Verifies field and reason follow the first failed rule
+    @Test
+    void firstFailedRuleMatchesThrowingOrder() {
+        // A short phone with letters reports length first, like validatePhone
+        int failed = ContactValidator.checkPhone("12a");
+        assertEquals(ContactValidator.PHONE_LENGTH | ContactValidator.PHONE_DIGITS, failed);
+        assertEquals("phoneNumber", ContactValidator.fieldOf(failed));
+        assertEquals("Length must be 10", ContactValidator.reasonOf(failed));
+    }
+
+    // Verifies checks do not record metrics on their own
+    @Test
+    void checksDoNotRecordFailures() {
+        ContactValidator.checkAll(null, null, null, null, null);
+        assertEquals(0, ValidationMetrics.getFailureCount());
+    }
+
+    // Verifies requireValid throws a stackless exception and records it
+    @Test
+    void requireValidThrowsStacklessException() {
+        assertDoesNotThrow(() -> ContactValidator.requireValid(0));
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> ContactValidator.requireValid(ContactValidator.ADDRESS_TOO_LONG));
+        assertEquals("address", ex.getField());
+        assertEquals("Length must be <= 30", ex.getReason());
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals(1, ValidationMetrics.getFailureCount());
+    }
+}
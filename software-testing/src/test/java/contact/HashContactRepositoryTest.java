@@ -0,0 +1,80 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Unit tests for HashContactRepository
+// Covers duplicate and missing IDs, growth past the initial table,
+// and lookups staying correct after deletes shift probe chains.
+class HashContactRepositoryTest {
+
+    private HashContactRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        repo = new HashContactRepository();
+    }
+
+    // Builds a valid contact for the given index
+    // Verifies duplicate IDs are rejected like the array repository
+    @Test
+    void rejectsDuplicateId() {
+        repo.add(contact(1));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> repo.add(contact(1)));
+        assertEquals("ID already exists", ex.getMessage());
+        assertEquals(1, repo.size());
+    }
+
+    // Verifies deleting an unknown ID throws
+    @Test
+    void deleteMissingIdThrows() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> repo.deleteById("missing"));
+        assertEquals("Contact id does not exist", ex.getMessage());
+    }
+
+    // Verifies unknown and null IDs return null
+    @Test
+    void findMissingIdReturnsNull() {
+        assertNull(repo.findById("missing"));
+        assertNull(repo.findById(null));
+    }
+
+    // Verifies the table grows well past the old 100 contact limit
+    @Test
+    void growsWithoutCapacityLimit() {
+        for (int i = 0; i < 10_000; i++) {
+            repo.add(contact(i));
+        }
+        assertEquals(10_000, repo.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("ID" + i, repo.findById("ID" + i).getContactId());
+        }
+    }
+
+    // Verifies entries remain reachable after interleaved deletes
+    @Test
+    void deletesKeepRemainingEntriesReachable() {
+        for (int i = 0; i < 5_000; i++) {
+            repo.add(contact(i));
+        }
+        for (int i = 0; i < 5_000; i += 2) {
+            repo.deleteById("ID" + i);
+        }
+        assertEquals(2_500, repo.size());
+        for (int i = 0; i < 5_000; i++) {
+            if (i % 2 == 0) {
+                assertNull(repo.findById("ID" + i));
+            } else {
+                assertNotNull(repo.findById("ID" + i));
+            }
+        }
+        // Deleted IDs can be added again
+        repo.add(contact(0));
+        assertEquals(2_501, repo.size());
+    }
+}
@@ -0,0 +1,112 @@
+package contact;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Unit tests for IndexedContactRepository
+// Covers phone and name lookups, sort order, and index maintenance
+// through ContactService updates, deletes and batch adds.
+class IndexedContactRepositoryTest {
+
+    private ContactService contactService;
+
+    @BeforeEach
+    void setUp() {
+        contactService = new ContactService(
+                new IndexedContactRepository(new HashContactRepository()));
+        contactService.addContact(new Contact("1", "Bob", "Smith", "1111111111", "Addr"));
+        contactService.addContact(new Contact("2", "Ann", "Smith", "2222222222", "Addr"));
+        contactService.addContact(new Contact("3", "Bob", "Jones", "1111111111", "Addr"));
+        contactService.addContact(new Contact("4", "Ann", "Smith", "4444444444", "Addr"));
+    }
+
+    private static List<String> ids(List<Contact> contacts) {
+        return contacts.stream().map(Contact::getContactId).collect(Collectors.toList());
+    }
+
+    // Verifies phone lookups return every contact sharing the number
+    @Test
+    void findsByPhoneNumber() {
+        assertEquals(Arrays.asList("3", "1"),
+                ids(contactService.getContactsByPhoneNumber("1111111111")));
+        assertTrue(contactService.getContactsByPhoneNumber("9999999999").isEmpty());
+        assertTrue(contactService.getContactsByPhoneNumber(null).isEmpty());
+    }
+
+    // Verifies name lookups come back sorted by first name, then ID
+    @Test
+    void findsByNameInSortedOrder() {
+        assertEquals(Arrays.asList("2", "4", "1"),
+                ids(contactService.getContactsByLastName("Smith")));
+        assertEquals(Arrays.asList("3", "1"),
+                ids(contactService.getContactsByFirstName("Bob")));
+    }
+
+    // Verifies updates move a contact between index entries
+    @Test
+    void updateMaintainsIndexes() {
+        contactService.updateContact("1", "Zed", "Jones", "5555555555", null);
+
+        assertEquals(Arrays.asList("3"),
+                ids(contactService.getContactsByPhoneNumber("1111111111")));
+        assertEquals(Arrays.asList("1"),
+                ids(contactService.getContactsByPhoneNumber("5555555555")));
+        assertEquals(Arrays.asList("2", "4"),
+                ids(contactService.getContactsByLastName("Smith")));
+        assertEquals(Arrays.asList("3", "1"),
+                ids(contactService.getContactsByLastName("Jones")));
+        assertEquals("Zed", contactService.getContactsByFirstName("Zed").get(0).getFirstName());
+        assertEquals(Arrays.asList("3"), ids(contactService.getContactsByFirstName("Bob")));
+    }
+
+    // Verifies deletes drop the contact from every index
+    @Test
+    void deleteMaintainsIndexes() {
+        contactService.deleteContact("2");
+
+        assertEquals(Arrays.asList("4", "1"),
+                ids(contactService.getContactsByLastName("Smith")));
+        assertEquals(Arrays.asList("4"), ids(contactService.getContactsByFirstName("Ann")));
+        assertTrue(contactService.getContactsByPhoneNumber("2222222222").isEmpty());
+    }
+
+    // Verifies batch adds index only the contacts actually stored
+    @Test
+    void batchAddIndexesStoredContacts() {
+        ImportReport report = contactService.addAll(Arrays.asList(
+                new Contact("1", "Dup", "Dup", "0000000000", "Addr"),
+                new Contact("5", "Cal", "Smith", "0000000000", "Addr")));
+
+        assertEquals(1, report.getAccepted());
+        assertEquals(Arrays.asList("5"),
+                ids(contactService.getContactsByPhoneNumber("0000000000")));
+        assertTrue(contactService.getContactsByLastName("Dup").isEmpty());
+    }
+
+    // Verifies contacts already in the store are indexed on wrap
+    @Test
+    void indexesExistingContacts() {
+        HashContactRepository store = new HashContactRepository();
+        store.add(new Contact("1", "Bob", "Smith", "1111111111", "Addr"));
+        store.add(new Contact("2", "Ann", "Smith", "2222222222", "Addr"));
+        IndexedContactRepository indexed = new IndexedContactRepository(store);
+
+        assertEquals(Arrays.asList("1"), ids(indexed.findByPhoneNumber("1111111111")));
+        assertEquals(Arrays.asList("2", "1"), ids(indexed.findByLastName("Smith")));
+        assertEquals(Arrays.asList("2"), ids(indexed.findByFirstName("Ann")));
+    }
+
+    // Verifies repositories without indexes reject secondary lookups
+    @Test
+    void plainRepositoryDoesNotSupportLookups() {
+        ContactService plain = new ContactService();
+        assertThrows(UnsupportedOperationException.class,
+                () -> plain.getContactsByLastName("Smith"));
+    }
+}
@@ -0,0 +1,136 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Unit tests for JdbcContactRepository on embedded H2
+// Covers CRUD through ContactService, duplicate mapping, batch adds and
+// deletes, reopening a file database and concurrent duplicate adds.
+class JdbcContactRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private JdbcContactRepository repo;
+    private ContactService contactService;
+
+    @BeforeEach
+    void setUp() {
+        repo = new JdbcContactRepository("jdbc:h2:mem:test" + System.nanoTime());
+        contactService = new ContactService(repo);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repo.close();
+    }
+
+    // Verifies add, find, update and delete through the service
+    @Test
+    void crud() {
+        contactService.addContact(contact("1"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> contactService.addContact(contact("1")));
+        assertEquals("ID already exists", e.getMessage());
+
+        contactService.updateContact("1", "Ann", null, null, "9 Elm Street");
+        Contact stored = contactService.getContactById("1");
+        assertEquals("Ann", stored.getFirstName());
+        assertEquals("9 Elm Street", stored.getAddress());
+        assertEquals(1, contactService.getSize());
+
+        contactService.deleteContact("1");
+        assertNull(contactService.getContactById("1"));
+        assertThrows(IllegalArgumentException.class, () -> contactService.deleteContact("1"));
+        assertEquals(0, contactService.getSize());
+    }
+
+    // Verifies replace fails once another writer changed the row
+    @Test
+    void replaceComparesValues() {
+        repo.add(contact("1"));
+        Contact stale = repo.findById("1");
+        assertTrue(repo.replace(stale, stale.withUpdates("Ann", null, null, null)));
+        assertFalse(repo.replace(stale, stale.withUpdates("Cal", null, null, null)));
+        assertEquals("Ann", repo.findById("1").getFirstName());
+    }
+
+    // Verifies batches over several ID chunks reject only stored IDs
+    @Test
+    void batches() {
+        for (int i = 0; i < 600; i += 3) {
+            repo.add(contact("C" + i));
+        }
+        List<Contact> batch = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            batch.add(contact("C" + i));
+        }
+
+        assertEquals(200, repo.addBatch(batch).size());
+        assertEquals(600, repo.size());
+        assertEquals(Arrays.asList("X"), repo.deleteBatch(Arrays.asList("C0", "X", "C1")));
+        assertEquals(598, repo.size());
+        assertNull(repo.findById("C1"));
+    }
+
+    // Verifies contacts survive closing and reopening a file database
+    @Test
+    void persistsToFile() {
+        String url = "jdbc:h2:" + dir.resolve("contacts").toAbsolutePath();
+        JdbcContactRepository file = new JdbcContactRepository(url, 2);
+        file.add(contact("1"));
+        file.close();
+
+        JdbcContactRepository reopened = new JdbcContactRepository(url, 2);
+        assertEquals("Bob", reopened.findById("1").getFirstName());
+        reopened.close();
+        assertThrows(IllegalStateException.class, () -> reopened.findById("1"));
+    }
+
+    // Verifies the primary key lets exactly one racing add of an ID win
+    @Test
+    void concurrentDuplicates() throws Exception {
+        int threads = 8;
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        try {
+                            repo.add(contact("C" + i));
+                            added.incrementAndGet();
+                        } catch (IllegalArgumentException e) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(200, added.get());
+        assertEquals(200 * (threads - 1), duplicates.get());
+        assertEquals(200, repo.size());
+    }
+}
@@ -0,0 +1,322 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Unit tests for LogContactRepository
+// Covers replay after reopen, torn tails, compaction and
+// concurrent group-committed writers.
+class LogContactRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    // Channel that can be told to fail writes. A failing write first
+    // puts half its bytes in the file, like a write torn by the error.
+    private static final class FaultyChannel extends FileChannel {
+        final FileChannel delegate;
+        volatile boolean failWrites;
+
+        FaultyChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        private void tear(ByteBuffer src, long position) throws IOException {
+            ByteBuffer half = src.duplicate();
+            half.limit(half.position() + half.remaining() / 2);
+            delegate.write(half, position);
+            throw new IOException("Simulated write failure");
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failWrites) {
+                tear(src, delegate.position());
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            if (failWrites) {
+                tear(src, position);
+            }
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            if (failWrites) {
+                throw new IOException("Simulated write failure");
+            }
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target)
+                throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count)
+                throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+
+    // Verifies adds, updates and deletes survive a reopen
+    @Test
+    void replaysLogOnReopen() {
+        Path log = dir.resolve("contacts.log");
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            ContactService service = new ContactService(repo);
+            service.addContact(contact(1));
+            service.addContact(contact(2));
+            service.addContact(contact(3));
+            service.updateContact("ID2", "Bobby", null, null, "New Addr");
+            service.deleteContact("ID3");
+        }
+
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            assertEquals(2, repo.size());
+            assertEquals("Bob", repo.findById("ID1").getFirstName());
+            assertEquals("Bobby", repo.findById("ID2").getFirstName());
+            assertEquals("New Addr", repo.findById("ID2").getAddress());
+            assertNull(repo.findById("ID3"));
+            assertThrows(IllegalArgumentException.class, () -> repo.add(contact(1)));
+        }
+    }
+
+    // Verifies a partially written trailing record is dropped on replay
+    @Test
+    void truncatesTornTail() throws IOException {
+        Path log = dir.resolve("contacts.log");
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            repo.add(contact(1));
+            repo.add(contact(2));
+        }
+        long intact = Files.size(log);
+        // Simulate a crash midway through writing a third record
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            assertEquals(2, repo.size());
+            assertEquals(intact, repo.logSize());
+            repo.add(contact(3));
+        }
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            assertEquals(3, repo.size());
+        }
+    }
+
+    // Verifies compaction drops dead records and keeps live contacts
+    @Test
+    void compactionRewritesLiveContacts() {
+        Path log = dir.resolve("contacts.log");
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            ContactService service = new ContactService(repo);
+            for (int i = 0; i < 100; i++) {
+                service.addContact(contact(i));
+            }
+            for (int i = 0; i < 100; i++) {
+                service.updateContact("ID" + i, "Upd", null, null, null);
+            }
+            for (int i = 50; i < 100; i++) {
+                service.deleteContact("ID" + i);
+            }
+            long before = repo.logSize();
+            repo.compact();
+            assertTrue(repo.logSize() < before / 3, "Compaction should shrink the log");
+            repo.add(contact(500));
+        }
+
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            assertEquals(51, repo.size());
+            assertEquals("Upd", repo.findById("ID0").getFirstName());
+            assertNotNull(repo.findById("ID500"));
+            assertNull(repo.findById("ID50"));
+        }
+    }
+
+    // Verifies a failed compaction leaves the old log in use
+    @Test
+    void failedCompactionKeepsLog() throws IOException {
+        Path log = dir.resolve("contacts.log");
+        // A directory where the snapshot goes makes the rewrite fail
+        Files.createDirectories(dir.resolve("contacts.log.compact").resolve("blocker"));
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            repo.add(contact(1));
+            repo.deleteById("ID1");
+            repo.add(contact(2));
+            long before = repo.logSize();
+            assertThrows(UncheckedIOException.class, repo::compact);
+            assertEquals(before, repo.logSize());
+            repo.add(contact(3));
+        }
+
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            assertEquals(2, repo.size());
+            assertNull(repo.findById("ID1"));
+            assertNotNull(repo.findById("ID3"));
+        }
+    }
+
+    // Verifies a write torn by an I/O error is neither lost from the
+    // buffer nor duplicated, and the failed add stays undone after reopen
+    @Test
+    void failedWriteKeepsLogIntact() {
+        Path log = dir.resolve("contacts.log");
+        List<FaultyChannel> channels = new ArrayList<>();
+        LogContactRepository.ChannelOpener opener = (Path path, OpenOption... options) -> {
+            FaultyChannel channel = new FaultyChannel(FileChannel.open(path, options));
+            channels.add(channel);
+            return channel;
+        };
+        long size;
+        try (LogContactRepository repo = new LogContactRepository(log, 0, opener)) {
+            repo.add(contact(1));
+            channels.get(0).failWrites = true;
+            assertThrows(UncheckedIOException.class, () -> repo.add(contact(2)));
+            assertNull(repo.findById("ID2"));
+            assertThrows(UncheckedIOException.class, repo::flush);
+
+            channels.get(0).failWrites = false;
+            repo.add(contact(3));
+            size = repo.logSize();
+        }
+
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            assertEquals(size, repo.logSize());
+            assertEquals(2, repo.size());
+            assertNotNull(repo.findById("ID1"));
+            assertNull(repo.findById("ID2"));
+            assertNotNull(repo.findById("ID3"));
+        }
+    }
+
+    // Verifies interval mode persists buffered writes on close
+    @Test
+    void intervalModeFlushesOnClose() {
+        Path log = dir.resolve("contacts.log");
+        try (LogContactRepository repo = new LogContactRepository(log, 50)) {
+            for (int i = 0; i < 1_000; i++) {
+                repo.add(contact(i));
+            }
+        }
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            assertEquals(1_000, repo.size());
+        }
+    }
+
+    // Verifies concurrent writers all land in the log
+    @Test
+    void concurrentWritersShareGroupCommit() throws Exception {
+        Path log = dir.resolve("contacts.log");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        repo.add(contact(thread * 1_000 + i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        try (LogContactRepository repo = new LogContactRepository(log)) {
+            assertEquals(800, repo.size());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Unit tests for MappedContactRepository
+// Covers slot round-trips at the field bounds, capacity, slot reuse,
+// service updates, probe lengths under churn and reopening a mapped file.
+class MappedContactRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    // Verifies maximum-width and non-ASCII fields survive the slot layout
+    @Test
+    void roundTripsFieldsAtTheirBounds() {
+        try (MappedContactRepository repo = new MappedContactRepository(4)) {
+            repo.add(new Contact("ABCDEFGHIJ", "Zoë", "Ñúñez-Ortí",
+                    "0123456789", "123456789012345678901234567890"));
+            Contact found = repo.findById("ABCDEFGHIJ");
+            assertEquals("Zoë", found.getFirstName());
+            assertEquals("Ñúñez-Ortí", found.getLastName());
+            assertEquals("0123456789", found.getPhoneNumber());
+            assertEquals("123456789012345678901234567890", found.getAddress());
+            assertNull(repo.findById("ABCDEFGHI"));
+        }
+    }
+
+    // Verifies duplicate, missing and overflow cases match the array repository
+    @Test
+    void enforcesDuplicatesAndCapacity() {
+        try (MappedContactRepository repo = new MappedContactRepository(2)) {
+            repo.add(contact(1));
+            assertThrows(IllegalArgumentException.class, () -> repo.add(contact(1)));
+            assertThrows(IllegalArgumentException.class, () -> repo.deleteById("ID9"));
+            repo.add(contact(2));
+            assertThrows(IllegalStateException.class, () -> repo.add(contact(3)));
+
+            // A deleted slot is reused
+            repo.deleteById("ID1");
+            repo.add(contact(3));
+            assertEquals(2, repo.size());
+            assertNull(repo.findById("ID1"));
+            assertEquals("Addr 3", repo.findById("ID3").getAddress());
+        }
+    }
+
+    // Verifies service updates work even though each lookup is a new view
+    @Test
+    void serviceUpdatesThroughValueReplace() {
+        try (MappedContactRepository repo = new MappedContactRepository(16)) {
+            ContactService service = new ContactService(repo);
+            service.addContact(contact(1));
+            service.updateContact("ID1", "Bobby", null, "5555555555", null);
+
+            Contact updated = service.getContactById("ID1");
+            assertEquals("Bobby", updated.getFirstName());
+            assertEquals("5555555555", updated.getPhoneNumber());
+            assertEquals("Smith", updated.getLastName());
+
+            // A stale view no longer matches the stored record
+            assertFalse(repo.replace(contact(1), contact(1)));
+        }
+    }
+
+    // Verifies probe chains stay short after many add/delete cycles
+    // with distinct IDs
+    @Test
+    void probesStayShortUnderChurn() {
+        try (MappedContactRepository repo = new MappedContactRepository(64)) {
+            for (int i = 0; i < 32; i++) {
+                repo.add(contact(i));
+            }
+            for (int i = 100; i < 100_000; i++) {
+                repo.add(contact(i));
+                repo.deleteById("ID" + i);
+            }
+            assertEquals(32, repo.size());
+            for (int i = 0; i < 32; i++) {
+                assertEquals("Addr " + i, repo.findById("ID" + i).getAddress());
+            }
+            int longest = 0;
+            for (int i = 100_000; i < 101_000; i++) {
+                longest = Math.max(longest, repo.probeLength("ID" + i));
+            }
+            assertTrue(longest < 16, "Longest miss probed " + longest + " buckets");
+        }
+    }
+
+    // Verifies a mapped store reopens with its records and free list
+    @Test
+    void reopensMappedFile() {
+        Path file = dir.resolve("contacts.dat");
+        try (MappedContactRepository repo = new MappedContactRepository(file, 1_000)) {
+            for (int i = 0; i < 1_000; i++) {
+                repo.add(contact(i));
+            }
+            repo.deleteById("ID7");
+        }
+
+        // Capacity comes from the file, not the argument
+        try (MappedContactRepository repo = new MappedContactRepository(file, 1)) {
+            assertEquals(1_000, repo.capacity());
+            assertEquals(999, repo.size());
+            assertEquals("Addr 500", repo.findById("ID500").getAddress());
+            assertNull(repo.findById("ID7"));
+            repo.add(contact(7));
+            assertThrows(IllegalStateException.class, () -> repo.add(contact(1_000)));
+        }
+    }
+}
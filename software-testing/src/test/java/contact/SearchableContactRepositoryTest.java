@@ -0,0 +1,194 @@
+package contact;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Unit tests for SearchableContactRepository and ContactSearchIndex
+// Covers prefix and fuzzy search, ranking, limits, the fuzzy count
+// filter, and index maintenance through ContactService updates, deletes
+// and batch adds.
+class SearchableContactRepositoryTest {
+
+    private ContactService contactService;
+
+    @BeforeEach
+    void setUp() {
+        contactService = new ContactService(
+                new SearchableContactRepository(new HashContactRepository()));
+        contactService.addContact(new Contact("1", "Jonathan", "Smith", "1111111111", "8850 West Mayfield"));
+        contactService.addContact(new Contact("2", "Jon", "Smithers", "2222222222", "12 Main Street"));
+        contactService.addContact(new Contact("3", "Anna", "Jones", "3333333333", "4 Mayflower Road"));
+        contactService.addContact(new Contact("4", "Maya", "Brown", "4444444444", "9 Elm Street"));
+    }
+
+    private static List<String> ids(List<Contact> contacts) {
+        return contacts.stream().map(Contact::getContactId).collect(Collectors.toList());
+    }
+
+    // Verifies prefixes match names and address words, case-insensitively,
+    // with exact terms ranked ahead of longer ones
+    @Test
+    void searchesByPrefix() {
+        assertEquals(Arrays.asList("2", "3", "1"), ids(contactService.searchContacts("jon", 10)));
+        assertEquals(Arrays.asList("1", "2"), ids(contactService.searchContacts("SMITH", 10)));
+        assertEquals(Arrays.asList("1", "3"), ids(contactService.searchContacts("mayf", 10)));
+        assertEquals(Arrays.asList("1"), ids(contactService.searchContacts("8850 we", 10)));
+        assertTrue(contactService.searchContacts("zzz", 10).isEmpty());
+        assertTrue(contactService.searchContacts("", 10).isEmpty());
+        assertTrue(contactService.searchContacts(null, 10).isEmpty());
+    }
+
+    // Verifies name matches outrank address matches on the same prefix
+    @Test
+    void ranksNamesAboveAddresses() {
+        assertEquals(Arrays.asList("4", "1", "3"), ids(contactService.searchContacts("may", 10)));
+    }
+
+    // Verifies only the best k results come back
+    @Test
+    void limitsResults() {
+        assertEquals(Arrays.asList("2"), ids(contactService.searchContacts("jon", 1)));
+        assertTrue(contactService.searchContacts("jon", 0).isEmpty());
+    }
+
+    // Verifies a short term still wins when many longer terms with the
+    // prefix sort before it
+    @Test
+    void prefixFindsShortTermAfterLongerOnes() {
+        ContactSearchIndex index = new ContactSearchIndex();
+        for (int i = 0; i < 26 * 26; i++) {
+            String name = "Ma" + (char) ('a' + i / 26) + (char) ('a' + i % 26) + "well";
+            index.add(new Contact(Integer.toString(i), name, "Smith", "0000000000", "Addr"));
+        }
+        index.add(new Contact("short", "Mz", "Smith", "0000000000", "Addr"));
+
+        assertEquals(Arrays.asList("short"), ids(index.searchByPrefix("m", 1)));
+        assertEquals("short", index.searchByPrefix("m", 5).get(0).getContactId());
+    }
+
+    // Verifies the bigram filter passes only a small share of same-length
+    // terms to the edit distance check, and never drops a real match
+    @Test
+    void fuzzyFilterPrunesCandidates() {
+        String[] syllables = {"an", "bel", "cor", "da", "el", "fin", "gar", "ha", "is", "jo",
+            "ka", "lin", "mar", "no", "or", "pe", "ra", "sto", "tin", "wen"};
+        Random random = new Random(42);
+        ContactSearchIndex index = new ContactSearchIndex();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int s = 2 + random.nextInt(2); s > 0; s--) {
+                name.append(syllables[random.nextInt(syllables.length)]);
+            }
+            names.add(name.toString());
+            index.add(new Contact(Integer.toString(i), name.toString(), "Smith",
+                    "0000000000", "Addr"));
+        }
+        index.add(new Contact("typo", "marlinsto", "Smith", "0000000000", "Addr"));
+
+        long sameLength = names.stream().filter(n -> Math.abs(n.length() - 9) <= 2).count();
+        assertTrue(index.fuzzyCandidates("marlnisto") < sameLength / 10,
+                index.fuzzyCandidates("marlnisto") + " of " + sameLength);
+        assertTrue(ids(index.searchFuzzy("marlnisto", 10)).contains("typo"));
+
+        List<String> found = ids(index.searchFuzzy("daelfin", names.size()));
+        for (int i = 0; i < names.size(); i++) {
+            if (ContactSearchIndex.boundedDistance("daelfin", names.get(i), 2) <= 2) {
+                assertTrue(found.contains(Integer.toString(i)), names.get(i));
+            }
+        }
+    }
+
+    // Verifies typos within the edit budget still match
+    @Test
+    void searchesFuzzy() {
+        assertEquals(Arrays.asList("1"), ids(contactService.searchContactsFuzzy("Jonathon", 10)));
+        assertEquals(Arrays.asList("1"), ids(contactService.searchContactsFuzzy("smiht", 10)));
+        assertEquals(Arrays.asList("3"), ids(contactService.searchContactsFuzzy("Jnoes", 10)));
+        assertTrue(contactService.searchContactsFuzzy("Wellington", 10).isEmpty());
+    }
+
+    // Verifies prefix completions keep their length-based score in fuzzy
+    // search, ranking above typos of the same size
+    @Test
+    void fuzzyRanksPrefixAboveTypo() {
+        ContactSearchIndex index = new ContactSearchIndex();
+        index.add(new Contact("typo", "Bob", "Amith", "0000000000", "Addr"));
+        index.add(new Contact("prefix", "Bob", "Smithy", "0000000000", "Addr"));
+
+        assertEquals(Arrays.asList("prefix", "typo"), ids(index.searchFuzzy("smith", 10)));
+    }
+
+    // Verifies contacts already in the store are searchable on wrap
+    @Test
+    void indexesExistingContacts() {
+        HashContactRepository store = new HashContactRepository();
+        store.add(new Contact("1", "Jonathan", "Smith", "1111111111", "8850 West Mayfield"));
+        SearchableContactRepository searchable = new SearchableContactRepository(store);
+
+        assertEquals(Arrays.asList("1"), ids(searchable.searchByPrefix("jon", 10)));
+        assertEquals(Arrays.asList("1"), ids(searchable.searchFuzzy("smiht", 10)));
+    }
+
+    // Verifies updates move a contact between terms
+    @Test
+    void updateMaintainsIndex() {
+        contactService.updateContact("1", "Nathan", null, null, "77 Ocean Drive");
+
+        assertEquals(Arrays.asList("2", "3"), ids(contactService.searchContacts("jon", 10)));
+        assertEquals(Arrays.asList("1"), ids(contactService.searchContacts("nath", 10)));
+        assertEquals(Arrays.asList("1"), ids(contactService.searchContacts("ocean", 10)));
+        assertEquals(Arrays.asList("3"), ids(contactService.searchContacts("mayf", 10)));
+    }
+
+    // Verifies deletes drop the contact from search
+    @Test
+    void deleteMaintainsIndex() {
+        contactService.deleteContact("2");
+
+        assertEquals(Arrays.asList("3", "1"), ids(contactService.searchContacts("jon", 10)));
+        assertTrue(contactService.searchContacts("main", 10).isEmpty());
+        assertTrue(contactService.searchContactsFuzzy("smithres", 10).isEmpty());
+    }
+
+    // Verifies batch adds index only the contacts actually stored
+    @Test
+    void batchAddIndexesStoredContacts() {
+        ImportReport report = contactService.addAll(Arrays.asList(
+                new Contact("1", "Dup", "Dup", "0000000000", "Addr"),
+                new Contact("5", "Cal", "Smith", "0000000000", "Addr")));
+
+        assertEquals(1, report.getAccepted());
+        assertEquals(Arrays.asList("5"), ids(contactService.searchContacts("cal", 10)));
+        assertTrue(contactService.searchContacts("dup", 10).isEmpty());
+    }
+
+    // Verifies search and exact lookups work through both decorators
+    @Test
+    void composesWithIndexedRepository() {
+        ContactService both = new ContactService(new IndexedContactRepository(
+                new SearchableContactRepository(new HashContactRepository())));
+        both.addContact(new Contact("1", "Bob", "Smith", "1111111111", "Addr"));
+
+        assertEquals(Arrays.asList("1"), ids(both.searchContacts("bo", 10)));
+        assertEquals(Arrays.asList("1"), ids(both.getContactsByLastName("Smith")));
+    }
+
+    // Verifies the bounded distance stops at the budget
+    @Test
+    void boundsEditDistance() {
+        assertEquals(0, ContactSearchIndex.boundedDistance("smith", "smith", 2));
+        assertEquals(1, ContactSearchIndex.boundedDistance("smith", "smyth", 2));
+        assertEquals(1, ContactSearchIndex.boundedDistance("smith", "smiht", 2));
+        assertEquals(2, ContactSearchIndex.boundedDistance("smith", "msiht", 2));
+        assertEquals(3, ContactSearchIndex.boundedDistance("smith", "jones", 2));
+    }
+}
@@ -0,0 +1,198 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+// Unit tests for ShardedContactRepository
+// Covers routing, duplicate detection, aggregated size, batches, walks,
+// closing shards and a multi-threaded add/find/delete mix over
+// single-threaded shards.
+class ShardedContactRepositoryTest {
+
+    // Verifies every shard is closed even when some fail, and the first
+    // checked failure comes back unchecked
+    @Test
+    void closesEveryShard() {
+        AtomicInteger closed = new AtomicInteger();
+        class ClosingShard extends HashContactRepository implements AutoCloseable {
+            @Override
+            public void close() throws IOException {
+                if (closed.incrementAndGet() % 2 == 0) {
+                    throw new IOException("Shard " + closed.get());
+                }
+            }
+        }
+        ShardedContactRepository repo = new ShardedContactRepository(4, ClosingShard::new);
+
+        UncheckedIOException failure = assertThrows(UncheckedIOException.class, repo::close);
+        assertEquals(4, closed.get());
+        assertEquals("Shard 2", failure.getCause().getMessage());
+        assertEquals(1, failure.getSuppressed().length);
+    }
+
+    // Verifies CRUD and duplicate detection across shards
+    @Test
+    void routesById() {
+        ContactService contactService = new ContactService(
+                new ShardedContactRepository(4, HashContactRepository::new));
+        for (int i = 0; i < 100; i++) {
+            contactService.addContact(contact("C" + i));
+        }
+
+        assertEquals(100, contactService.getSize());
+        assertThrows(IllegalArgumentException.class,
+                () -> contactService.addContact(contact("C42")));
+        contactService.updateContact("C42", "Ann", null, null, null);
+        assertEquals("Ann", contactService.getContactById("C42").getFirstName());
+        contactService.deleteContact("C42");
+        assertNull(contactService.getContactById("C42"));
+        assertThrows(IllegalArgumentException.class, () -> contactService.deleteContact("C42"));
+        assertThrows(IllegalArgumentException.class, () -> contactService.deleteContact(null));
+        assertEquals(99, contactService.getSize());
+    }
+
+    // Verifies contacts spread over every shard, so capped shards add up
+    @Test
+    void spreadsAcrossShards() {
+        ShardedContactRepository repo = new ShardedContactRepository(4, ArrayContactRepository::new);
+        for (int i = 0; i < 300; i++) {
+            repo.add(contact("C" + i));
+        }
+        assertEquals(300, repo.size());
+        assertEquals(4, repo.getShardCount());
+    }
+
+    // Verifies batches split by shard and report stored IDs
+    @Test
+    void addsBatches() {
+        ShardedContactRepository repo = new ShardedContactRepository(8, HashContactRepository::new);
+        repo.add(contact("1"));
+
+        List<Contact> rejected = repo.addBatch(Arrays.asList(contact("1"), contact("2"), contact("3")));
+        assertEquals(1, rejected.size());
+        assertEquals("1", rejected.get(0).getContactId());
+        assertEquals(3, repo.size());
+    }
+
+    // Verifies streams and merged pages cover every shard in walk order
+    @Test
+    void walksEveryShard() {
+        ShardedContactRepository repo = new ShardedContactRepository(4, HashContactRepository::new);
+        for (int i = 0; i < 1000; i++) {
+            repo.add(contact("C" + i));
+        }
+
+        assertEquals(1000, repo.stream().parallel().count());
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ContactPage page = repo.page(cursor, 64);
+            page.getContacts().forEach(c -> seen.add(c.getContactId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        List<String> expected = new ArrayList<>(seen);
+        expected.sort(ContactPage.ID_ORDER);
+        assertEquals(expected, seen);
+        assertEquals(1000, new HashSet<>(seen).size());
+    }
+
+    // Verifies a stream is done reading each shard before it hands out
+    // its contacts, so writes made while consuming it cannot tear a walk
+    // of a single-threaded shard
+    @Test
+    void streamsDoNotOverlapShardWrites() {
+        AtomicInteger openWalks = new AtomicInteger();
+        AtomicInteger overlapping = new AtomicInteger();
+        class ProbeShard extends HashContactRepository {
+            @Override
+            public Spliterator<Contact> spliterator() {
+                Spliterator<Contact> walk = super.spliterator();
+                openWalks.incrementAndGet();
+                return new Spliterators.AbstractSpliterator<Contact>(
+                        walk.estimateSize(), walk.characteristics()) {
+                    @Override
+                    public boolean tryAdvance(Consumer<? super Contact> action) {
+                        if (walk.tryAdvance(action)) {
+                            return true;
+                        }
+                        openWalks.decrementAndGet();
+                        return false;
+                    }
+                };
+            }
+
+            @Override
+            public void add(Contact contact) {
+                if (openWalks.get() > 0) {
+                    overlapping.incrementAndGet();
+                }
+                super.add(contact);
+            }
+        }
+        ShardedContactRepository repo = new ShardedContactRepository(1, ProbeShard::new);
+        for (int i = 0; i < 10; i++) {
+            repo.add(contact("k" + i));
+        }
+
+        AtomicInteger added = new AtomicInteger();
+        long seen = repo.stream()
+                .peek(c -> repo.add(contact("n" + added.getAndIncrement())))
+                .count();
+        assertEquals(10, seen);
+        assertEquals(10, added.get());
+        assertEquals(0, overlapping.get());
+    }
+
+    // Verifies per-shard locks keep single-threaded shards consistent
+    // under a mixed workload from many threads
+    @Test
+    void concurrentMixedWorkload() throws Exception {
+        ShardedContactRepository repo = new ShardedContactRepository(8, HashContactRepository::new);
+        int threads = 8;
+        int perThread = 2_000;
+        AtomicInteger found = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        String id = thread + "-" + i;
+                        repo.add(contact(id));
+                        if (repo.findById(id) != null) {
+                            found.incrementAndGet();
+                        }
+                        if (i % 2 == 0) {
+                            repo.deleteById(id);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(threads * perThread, found.get());
+        assertEquals(threads * perThread / 2, repo.size());
+    }
+}
@@ -0,0 +1,174 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Unit tests for SnapshotContactRepository
+// Covers CRUD, hash collisions, batches, frozen snapshots through
+// ContactService, and exact snapshot walks under concurrent writes.
+class SnapshotContactRepositoryTest {
+
+    private SnapshotContactRepository repo;
+    private ContactService contactService;
+
+    @BeforeEach
+    void setUp() {
+        repo = new SnapshotContactRepository();
+        contactService = new ContactService(repo);
+    }
+
+    private static List<String> ids(ContactRepository repository) {
+        return repository.stream().map(Contact::getContactId).collect(Collectors.toList());
+    }
+
+    // Verifies add, find, update and delete, including missing IDs
+    @Test
+    void crud() {
+        for (int i = 0; i < 5000; i++) {
+            contactService.addContact(contact("C" + i));
+        }
+        assertEquals(5000, contactService.getSize());
+        assertThrows(IllegalArgumentException.class, () -> contactService.addContact(contact("C7")));
+
+        contactService.updateContact("C7", "Ann", null, null, null);
+        assertEquals("Ann", contactService.getContactById("C7").getFirstName());
+        for (int i = 0; i < 5000; i += 2) {
+            contactService.deleteContact("C" + i);
+        }
+        assertEquals(2500, contactService.getSize());
+        assertNull(contactService.getContactById("C0"));
+        assertNotNull(contactService.getContactById("C1"));
+        assertThrows(IllegalArgumentException.class, () -> contactService.deleteContact("C0"));
+        assertThrows(IllegalArgumentException.class, () -> contactService.deleteContact(null));
+        assertNull(contactService.getContactById(null));
+    }
+
+    // Verifies IDs with equal hash codes are kept apart
+    @Test
+    void hashCollisions() {
+        List<String> colliding = Arrays.asList("AaAa", "AaBB", "BBAa", "BBBB");
+        for (String id : colliding) {
+            repo.add(contact(id));
+        }
+        assertEquals(4, repo.size());
+        for (String id : colliding) {
+            assertEquals(id, repo.findById(id).getContactId());
+        }
+        assertThrows(IllegalArgumentException.class, () -> repo.add(contact("BBAa")));
+
+        repo.deleteById("AaBB");
+        repo.deleteById("BBBB");
+        repo.deleteById("AaAa");
+        assertEquals(Arrays.asList("BBAa"), ids(repo));
+        assertEquals("BBAa", repo.page(null, 10).getContacts().get(0).getContactId());
+    }
+
+    // Verifies batches reject stored IDs and store the rest
+    @Test
+    void addsBatches() {
+        repo.add(contact("1"));
+        List<Contact> rejected = repo.addBatch(Arrays.asList(contact("1"), contact("2"), contact("3")));
+
+        assertEquals(1, rejected.size());
+        assertEquals("1", rejected.get(0).getContactId());
+        assertEquals(3, repo.size());
+        assertNotNull(repo.findById("3"));
+    }
+
+    // Verifies a snapshot keeps its contents while the store changes
+    @Test
+    void snapshotIsFrozen() {
+        for (int i = 0; i < 100; i++) {
+            contactService.addContact(contact("C" + i));
+        }
+        ContactRepository snapshot = contactService.snapshotContacts();
+
+        contactService.deleteContact("C1");
+        contactService.addContact(contact("C100"));
+        contactService.updateContact("C2", "Ann", null, null, null);
+        repo.addBatch(Arrays.asList(contact("C101"), contact("C102")));
+
+        assertEquals(100, snapshot.size());
+        assertEquals(100, snapshot.stream().count());
+        assertNotNull(snapshot.findById("C1"));
+        assertNull(snapshot.findById("C100"));
+        assertEquals("Bob", snapshot.findById("C2").getFirstName());
+        assertEquals(102, contactService.getSize());
+        assertEquals("Ann", contactService.getContactById("C2").getFirstName());
+        assertSame(snapshot, snapshot.snapshotView());
+    }
+
+    // Verifies a snapshot refuses writes
+    @Test
+    void snapshotIsReadOnly() {
+        repo.add(contact("1"));
+        ContactRepository snapshot = repo.snapshotView();
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(contact("2")));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.deleteById("1"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.addBatch(Arrays.asList(contact("2"))));
+        assertEquals(1, repo.size());
+    }
+
+    // Verifies pages seek to the cursor and match the shared walk order
+    @Test
+    void pagesInWalkOrder() {
+        for (int i = 0; i < 3000; i++) {
+            repo.add(contact("C" + i));
+        }
+        List<String> expected = ids(repo);
+        List<String> sorted = new ArrayList<>(expected);
+        sorted.sort(ContactPage.ID_ORDER);
+        assertEquals(sorted, expected);
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ContactPage page = repo.page(cursor, 100);
+            page.getContacts().forEach(c -> seen.add(c.getContactId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(expected, seen);
+        assertEquals(ContactPage.collect(repo.spliterator(), "C42", 50).getContacts(),
+                repo.page("C42", 50).getContacts());
+    }
+
+    // Verifies a snapshot walk is exact while writers keep running
+    @Test
+    void snapshotWalkUnderWrites() throws InterruptedException {
+        for (int i = 0; i < 10_000; i++) {
+            repo.add(contact("C" + i));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            int next = 10_000;
+            while (running.get()) {
+                repo.add(contact("C" + next));
+                repo.deleteById("C" + (next - 10_000));
+                next++;
+            }
+        });
+        writer.start();
+        try {
+            for (int round = 0; round < 20; round++) {
+                ContactRepository snapshot = repo.snapshotView();
+                assertEquals(10_000, snapshot.stream().parallel().count());
+                assertEquals(10_000, snapshot.size());
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        assertEquals(10_000, repo.size());
+    }
+}
@@ -0,0 +1,22 @@
+package contact;
+
+// Shared contact fixtures for tests.
+//
+// Builds valid contacts that differ only by ID, for tests that care
+// about which contacts are stored rather than what they contain.
+public class TestContacts {
+
+    // Private constructor to prevent instantiation
+    private TestContacts() {}
+
+    // Valid contact with the given ID and fixed field values
+    public static Contact contact(String id) {
+        return new Contact(id, "Bob", "Smith", "1234567890", "Addr");
+    }
+
+    // Valid contact "ID" + i, with a phone number and address unique to i
+    public static Contact contact(int i) {
+        return new Contact("ID" + i, "Bob", "Smith",
+                String.format("%010d", i), "Addr " + i);
+    }
+}
@@ -2,6 +2,8 @@ package contact;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Map;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -34,4 +36,56 @@ public class ValidationMetricsTest {
         ValidationMetrics.reset();
         assertEquals(0, ValidationMetrics.getFailureCount());
     }
+
+    // Verifies failures are broken down by field and reason
+    @Test
+    void recordsPerFieldAndReason() {
+        ValidationMetrics.recordFailure("phoneNumber", "Length must be 10");
+        ValidationMetrics.recordFailure("phoneNumber", "Only digits allowed");
+        ValidationMetrics.recordFailure("address", "Length must be <= 30");
+
+        assertEquals(2, ValidationMetrics.getFailureCount("phoneNumber"));
+        assertEquals(1, ValidationMetrics.getFailureCount("address"));
+        assertEquals(0, ValidationMetrics.getFailureCount("contactId"));
+
+        Map<String, Long> snapshot = ValidationMetrics.snapshot();
+        assertEquals(3L, snapshot.get("validation.failures"));
+        assertEquals(2L, snapshot.get("validation.failures.field.phoneNumber"));
+        assertEquals(1L, snapshot.get("validation.failures.reason.Only digits allowed"));
+    }
+
+    // Verifies log lines beyond the per-second limit are suppressed
+    // while every failure is still counted
+    @Test
+    void suppressesLogsBeyondRateLimit() {
+        int failures = ValidationMetrics.LOG_LIMIT_PER_SECOND + 25;
+        for (int i = 0; i < failures; i++) {
+            ValidationMetrics.recordFailure("field", "reason");
+        }
+        assertEquals(failures, ValidationMetrics.getFailureCount());
+        assertTrue(ValidationMetrics.snapshot().get("validation.log.suppressed") >= 25);
+    }
+
+    // Verifies building a Contact times the validation call
+    @Test
+    void contactConstructionRecordsValidationTime() {
+        new Contact("1", "Bob", "Smith", "1234567890", "Addr");
+        assertEquals(1L, ValidationMetrics.snapshot().get("validation.calls"));
+    }
+
+    // Verifies the repository decorator counts calls and errors
+    @Test
+    void meteredRepositoryCountsOperations() {
+        MeteredContactRepository repo =
+                new MeteredContactRepository(new HashContactRepository());
+        repo.add(new Contact("1", "Bob", "Smith", "1234567890", "Addr"));
+        repo.findById("1");
+        repo.findById("2");
+        assertThrows(IllegalArgumentException.class, () -> repo.deleteById("2"));
+
+        assertEquals(2, repo.getCalls("findById"));
+        Map<String, Long> snapshot = repo.snapshot();
+        assertEquals(1L, snapshot.get("repository.add.calls"));
+        assertEquals(1L, snapshot.get("repository.deleteById.errors"));
+    }
 }
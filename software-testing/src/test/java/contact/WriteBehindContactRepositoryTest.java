@@ -0,0 +1,236 @@
+package contact;
+
+import static contact.TestContacts.contact;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Unit tests for WriteBehindContactRepository
+// Covers reads of pending writes, coalescing, size and time triggers,
+// failure reporting and flush on close. A MeteredContactRepository
+// underneath counts the calls that reach storage.
+class WriteBehindContactRepositoryTest {
+
+    private static final long NEVER = 60_000;
+
+    private MeteredContactRepository store;
+    private WriteBehindContactRepository writeBehind;
+    private ContactService contactService;
+
+    @BeforeEach
+    void setUp() {
+        store = new MeteredContactRepository(new HashContactRepository());
+        writeBehind = new WriteBehindContactRepository(store, 500, NEVER);
+        contactService = new ContactService(writeBehind);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.close();
+    }
+
+    // Polls until the store holds n contacts, for the background flusher
+    private void awaitStored(int n) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.size() != n && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(n, store.size());
+    }
+
+    // Verifies writes are visible before they reach the store
+    @Test
+    void readsSeePendingWrites() {
+        contactService.addContact(contact("1"));
+
+        assertEquals("Bob", contactService.getContactById("1").getFirstName());
+        assertEquals(1, contactService.getSize());
+        assertEquals(0, store.size());
+        assertEquals(1, writeBehind.getPendingCount());
+
+        contactService.updateContact("1", "Ann", null, null, null);
+        assertEquals("Ann", contactService.getContactById("1").getFirstName());
+        contactService.deleteContact("1");
+        assertNull(contactService.getContactById("1"));
+        assertEquals(0, contactService.getSize());
+    }
+
+    // Verifies only the final state of each ID reaches the store
+    @Test
+    void coalescesWritesPerId() {
+        contactService.addContact(contact("1"));
+        contactService.addContact(contact("2"));
+        writeBehind.flush();
+        store.reset();
+
+        for (int i = 0; i < 5; i++) {
+            contactService.updateContact("1", "N" + i, null, null, null);
+        }
+        contactService.deleteContact("2");
+        contactService.addContact(contact("3"));
+        contactService.deleteContact("3");
+        writeBehind.flush();
+
+        assertEquals(0, store.getCalls("addBatch"));
+        assertEquals(1, store.getCalls("replace"));
+        assertEquals(1, store.getCalls("deleteById"));
+        assertEquals("N4", store.findById("1").getFirstName());
+        assertNull(store.findById("2"));
+        assertNull(store.findById("3"));
+        assertEquals(1, contactService.getSize());
+    }
+
+    // Verifies IDs with pending writes are checked at call time
+    @Test
+    void checksPendingIdsAtCallTime() {
+        contactService.addContact(contact("1"));
+        assertThrows(IllegalArgumentException.class, () -> contactService.addContact(contact("1")));
+        writeBehind.flush();
+
+        contactService.deleteContact("1");
+        assertThrows(IllegalArgumentException.class, () -> contactService.deleteContact("1"));
+        contactService.addContact(contact("1"));
+        writeBehind.flush();
+        assertEquals(1, store.size());
+    }
+
+    // Verifies IDs with no pending write are checked against the store
+    // at call time
+    @Test
+    void checksStoredIdsAtCallTime() {
+        contactService.addContact(contact("1"));
+        writeBehind.flush();
+
+        assertThrows(IllegalArgumentException.class, () -> contactService.addContact(contact("1")));
+        assertThrows(IllegalArgumentException.class, () -> contactService.deleteContact("2"));
+        writeBehind.flush();
+        assertTrue(writeBehind.getFailures().isEmpty());
+        assertEquals(1, contactService.getSize());
+    }
+
+    // Verifies reads that flush leave failures for flush() to report
+    @Test
+    void readsLeaveFailuresToFlush() {
+        WriteBehindContactRepository failing =
+                new WriteBehindContactRepository(new FailingRepository(), 500, NEVER);
+        failing.add(contact("1"));
+
+        assertThrows(UnsupportedOperationException.class, () -> failing.findByLastName("Smith"));
+        assertEquals(0, failing.getPendingCount());
+        IllegalStateException e = assertThrows(IllegalStateException.class, failing::flush);
+        assertEquals("Write-behind failed for 1 contacts", e.getMessage());
+        failing.close();
+    }
+
+    // Verifies a failed update leaves the stored contact in place
+    @Test
+    void failedUpdateKeepsStoredContact() {
+        HashContactRepository failing = new HashContactRepository() {
+            @Override
+            public boolean replace(Contact expected, Contact replacement) {
+                throw new IllegalStateException("Simulated failure");
+            }
+        };
+        WriteBehindContactRepository repo = new WriteBehindContactRepository(failing, 500, NEVER);
+        ContactService service = new ContactService(repo);
+        service.addContact(contact("1"));
+        repo.flush();
+
+        service.updateContact("1", "Ann", null, null, null);
+        assertThrows(IllegalStateException.class, repo::flush);
+        assertEquals("replace", repo.getFailures().get(0).getOperation());
+        assertEquals("Bob", failing.findById("1").getFirstName());
+        assertEquals("Bob", service.getContactById("1").getFirstName());
+        repo.close();
+    }
+
+    // Verifies size answers while a slow flush is running
+    @Test
+    void sizeDoesNotWaitForFlush() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HashContactRepository slow = new HashContactRepository() {
+            @Override
+            public List<Contact> addBatch(List<Contact> contacts) {
+                flushing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.addBatch(contacts);
+            }
+        };
+        WriteBehindContactRepository repo = new WriteBehindContactRepository(slow, 500, NEVER);
+        repo.add(contact("1"));
+        Thread flush = new Thread(repo::flush);
+        flush.start();
+        try {
+            assertTrue(flushing.await(5, TimeUnit.SECONDS));
+            repo.add(contact("2"));
+            assertEquals(2, repo.size());
+        } finally {
+            release.countDown();
+        }
+        flush.join(5000);
+        assertEquals(2, repo.size());
+        repo.close();
+        assertEquals(2, slow.size());
+    }
+
+    // Verifies a full batch flushes without waiting for the interval
+    @Test
+    void flushesOnBatchSize() throws InterruptedException {
+        WriteBehindContactRepository small = new WriteBehindContactRepository(store, 10, NEVER);
+        for (int i = 0; i < 10; i++) {
+            small.add(contact("C" + i));
+        }
+        awaitStored(10);
+        small.close();
+    }
+
+    // Verifies pending writes flush on the interval
+    @Test
+    void flushesOnInterval() throws InterruptedException {
+        WriteBehindContactRepository timed = new WriteBehindContactRepository(store, 500, 5);
+        timed.add(contact("1"));
+        awaitStored(1);
+        timed.close();
+    }
+
+    // Verifies failed writes are reported by flush and listed
+    @Test
+    void reportsFailures() {
+        WriteBehindContactRepository failing =
+                new WriteBehindContactRepository(new FailingRepository(), 500, NEVER);
+        failing.add(contact("1"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, failing::flush);
+        assertEquals("Write-behind failed for 1 contacts", e.getMessage());
+        List<WriteBehindContactRepository.Failure> failures = failing.getFailures();
+        assertEquals(1, failures.size());
+        assertEquals("1", failures.get(0).getContactId());
+        assertEquals("add", failures.get(0).getOperation());
+        assertEquals("Simulated failure", failures.get(0).getCause().getMessage());
+
+        // Reported once; the next flush is clean
+        failing.flush();
+        failing.close();
+    }
+
+    // Verifies close applies pending writes and refuses new ones
+    @Test
+    void closeFlushes() {
+        contactService.addContact(contact("1"));
+        writeBehind.close();
+
+        assertEquals(1, store.size());
+        assertThrows(IllegalStateException.class, () -> contactService.addContact(contact("2")));
+    }
+}